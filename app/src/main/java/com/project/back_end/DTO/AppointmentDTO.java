@@ -1,5 +1,8 @@
 package com.project.back_end.DTO;
 
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.ArchivedAppointment;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -115,6 +118,48 @@ public class AppointmentDTO {
         this.endTime = appointmentTime.plusHours(1);
     }
 
+    /**
+     * Maps an appointment entity (with doctor and patient loaded) to a DTO.
+     *
+     * @param a the appointment
+     * @return the flattened DTO
+     */
+    public static AppointmentDTO of(Appointment a) {
+        AppointmentDTO dto = new AppointmentDTO(
+                a.getId(),
+                a.getDoctor().getId(),
+                a.getDoctor().getName(),
+                a.getPatient().getId(),
+                a.getPatient().getName(),
+                a.getPatient().getEmail(),
+                a.getPatient().getPhone(),
+                a.getPatient().getAddress(),
+                a.getAppointmentTime(),
+                a.getStatus());
+        dto.endTime = a.getEndTime();
+        return dto;
+    }
+
+    /**
+     * Maps an archived appointment to a DTO.
+     *
+     * @param a the archived appointment
+     * @return the flattened DTO
+     */
+    public static AppointmentDTO of(ArchivedAppointment a) {
+        return new AppointmentDTO(
+                a.getId(),
+                a.getDoctorId(),
+                a.getDoctorName(),
+                a.getPatientId(),
+                a.getPatientName(),
+                a.getPatientEmail(),
+                a.getPatientPhone(),
+                a.getPatientAddress(),
+                a.getAppointmentTime(),
+                a.getStatus());
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,82 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for booking a recurring series of appointments,
+ * e.g. weekly follow-ups. Occurrence i starts at
+ * {@code start + i * intervalDays} days.
+ */
+public class AppointmentSeries {
+
+    /**
+     * Doctor every occurrence is booked with.
+     */
+    private Long doctorId;
+
+    /**
+     * Date and time of the first occurrence.
+     */
+    private LocalDateTime start;
+
+    /**
+     * Days between two occurrences (7 = weekly).
+     */
+    private int intervalDays = 7;
+
+    /**
+     * Number of occurrences, including the first.
+     */
+    private int occurrences;
+
+    /**
+     * Reason for visit recorded on every occurrence.
+     */
+    private String reasonForVisit;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public AppointmentSeries() {
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public int getIntervalDays() {
+        return intervalDays;
+    }
+
+    public void setIntervalDays(int intervalDays) {
+        this.intervalDays = intervalDays;
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(int occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public String getReasonForVisit() {
+        return reasonForVisit;
+    }
+
+    public void setReasonForVisit(String reasonForVisit) {
+        this.reasonForVisit = reasonForVisit;
+    }
+}
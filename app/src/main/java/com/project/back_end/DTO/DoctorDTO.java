@@ -0,0 +1,110 @@
+package com.project.back_end.DTO;
+
+import com.project.back_end.models.Doctor;
+
+import java.util.List;
+
+/**
+ * Lean view of a doctor for listing and search endpoints. Built inside the
+ * service transaction so no lazy collection is touched during serialization.
+ */
+public class DoctorDTO {
+
+    /**
+     * Unique identifier of the doctor.
+     */
+    private final Long id;
+
+    /**
+     * Full name of the doctor.
+     */
+    private final String name;
+
+    /**
+     * Medical specialty of the doctor.
+     */
+    private final String specialty;
+
+    /**
+     * Contact email of the doctor.
+     */
+    private final String email;
+
+    /**
+     * Contact phone number of the doctor.
+     */
+    private final String phone;
+
+    /**
+     * Time slots the doctor is available in (HH:mm).
+     */
+    private final List<String> availableTimes;
+
+    /**
+     * Years of practice.
+     */
+    private final Integer yearsOfExperience;
+
+    /**
+     * Clinic address.
+     */
+    private final String clinicAddress;
+
+    /**
+     * Average rating from 0.0 to 5.0.
+     */
+    private final Double rating;
+
+    /**
+     * Copies the listed fields out of the entity.
+     *
+     * @param doctor managed doctor entity
+     */
+    public DoctorDTO(Doctor doctor) {
+        this.id = doctor.getId();
+        this.name = doctor.getName();
+        this.specialty = doctor.getSpecialty();
+        this.email = doctor.getEmail();
+        this.phone = doctor.getPhone();
+        this.availableTimes = doctor.getAvailableTimes() != null ? List.copyOf(doctor.getAvailableTimes()) : List.of();
+        this.yearsOfExperience = doctor.getYearsOfExperience();
+        this.clinicAddress = doctor.getClinicAddress();
+        this.rating = doctor.getRating();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public List<String> getAvailableTimes() {
+        return availableTimes;
+    }
+
+    public Integer getYearsOfExperience() {
+        return yearsOfExperience;
+    }
+
+    public String getClinicAddress() {
+        return clinicAddress;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+}
@@ -0,0 +1,44 @@
+package com.project.back_end.config;
+
+import com.project.back_end.services.InvalidationBus;
+import com.project.back_end.services.LocalInvalidationBus;
+import com.project.back_end.services.UdpInvalidationBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selects the cache invalidation bus: "local" keeps events inside the JVM,
+ * "udp" also forwards them to the peers listed in app.cache.bus.peers,
+ * signed with app.cache.bus.secret, which every node must share.
+ */
+@Configuration
+public class InvalidationBusConfig {
+
+    @Bean
+    public InvalidationBus invalidationBus(
+            @Value("${app.cache.bus.mode:local}") String mode,
+            @Value("${app.cache.bus.port:47100}") int port,
+            @Value("${app.cache.bus.peers:}") List<String> peers,
+            @Value("${app.cache.bus.secret:}") String secret) throws SocketException {
+        if (!"udp".equalsIgnoreCase(mode)) {
+            return new LocalInvalidationBus();
+        }
+        if (secret.isBlank())
+            throw new IllegalStateException("app.cache.bus.secret must be set when app.cache.bus.mode=udp");
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String peer : peers) {
+            if (peer.isBlank())
+                continue;
+            String[] hostPort = peer.trim().split(":");
+            addresses.add(new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1])));
+        }
+        return new UdpInvalidationBus(port, addresses, secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.project.back_end.config;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentSeries;
+import com.project.back_end.DTO.DoctorDTO;
+import com.project.back_end.DTO.Login;
+import com.project.back_end.models.Admin;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.models.ScheduleException;
+import com.project.back_end.models.WaitlistEntry;
+import com.project.back_end.models.WorkingHours;
+import com.project.back_end.services.FreeSlot;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reachability metadata for the native image (mvn -Pnative native:compile)
+ * beyond what Spring AOT derives on its own.
+ *
+ * Entities and DTOs are bound to JSON although most handlers declare only
+ * Map or ResponseEntity&lt;?&gt;, so AOT cannot see them in the signatures.
+ * jjwt-api instantiates its implementation (a runtime-only dependency) by
+ * class name, and the medication catalog and templates are read from the
+ * classpath by name.
+ */
+@Configuration
+@ImportRuntimeHints(NativeConfig.Hints.class)
+@RegisterReflectionForBinding({ Admin.class, Appointment.class, Doctor.class, Patient.class, Prescription.class,
+        DoctorSchedule.class, WorkingHours.class, ScheduleException.class, WaitlistEntry.class,
+        AppointmentDTO.class, AppointmentSeries.class, DoctorDTO.class, Login.class, FreeSlot.class })
+public class NativeConfig {
+
+    static final String[] JJWT_REFLECTIVE = {
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            // discovered through ServiceLoader
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer",
+    };
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_REFLECTIVE) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+            hints.resources().registerPattern("templates/**");
+            hints.resources().registerPattern("medications.txt");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.project.back_end.config;
+
+import com.project.back_end.services.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Rate limiter for the public, unauthenticated doctor search, keyed by the
+ * client address. Behind the load balancer that address is taken from
+ * X-Forwarded-For (server.forward-headers-strategy), otherwise every caller
+ * would share the balancer's bucket.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public TokenBucketRateLimiter doctorFilterRateLimiter(
+            @Value("${app.rate-limit.doctor-filter.buckets:4096}") int buckets,
+            @Value("${app.rate-limit.doctor-filter.capacity:20}") int capacity,
+            @Value("${app.rate-limit.doctor-filter.per-second:5}") double perSecond) {
+        return new TokenBucketRateLimiter(buckets, capacity, perSecond);
+    }
+}
@@ -0,0 +1,47 @@
+package com.project.back_end.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured DataSource with a replica-aware router when
+ * app.datasource.replica.urls is set. Without it the application keeps
+ * talking to spring.datasource only. Not combined with clinic sharding
+ * (app.tenancy.enabled), which brings its own DataSource.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "urls")
+@ConditionalOnExpression("!${app.tenancy.enabled:false}")
+public class ReadReplicaConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties,
+            @Value("${app.datasource.replica.urls}") List<String> replicaUrls,
+            @Value("${app.datasource.replica.username:}") String replicaUser,
+            @Value("${app.datasource.replica.password:}") String replicaPassword) {
+        DataSource primary = properties.initializeDataSourceBuilder().build();
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank())
+                continue;
+            replicas.add(DataSourceBuilder.create()
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(replicaUser.isEmpty() ? properties.determineUsername() : replicaUser)
+                    .password(replicaUser.isEmpty() ? properties.determinePassword() : replicaPassword)
+                    .build());
+        }
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas));
+    }
+}
@@ -0,0 +1,80 @@
+package com.project.back_end.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks recent writes per key (e.g. "patient:42") so that reads issued by
+ * the same user shortly afterwards are pinned to the primary instead of a
+ * replica that may still be lagging behind.
+ */
+@Component
+public class ReplicaStickiness {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    @Value("${app.datasource.replica.sticky-window-ms:2000}")
+    private long stickyWindowMs;
+
+    /**
+     * Records that the given key has just written to the primary.
+     */
+    public void recordWrite(String key) {
+        if (key == null)
+            return;
+        long now = System.currentTimeMillis();
+        lastWrites.put(key, now);
+        if (lastWrites.size() > 10_000) {
+            lastWrites.values().removeIf(t -> now - t > stickyWindowMs);
+        }
+    }
+
+    /**
+     * Pins the current transaction to the primary if any of the keys wrote
+     * within the sticky window. Must be called before the first query.
+     */
+    public void pinIfRecentWrite(String... keys) {
+        long now = System.currentTimeMillis();
+        for (String key : keys) {
+            Long last = key != null ? lastWrites.get(key) : null;
+            if (last != null && now - last <= stickyWindowMs) {
+                pinToPrimary();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Pins the current transaction to the primary; cleared on completion.
+     */
+    public static void pinToPrimary() {
+        // outside a transaction nothing is routed to a replica anyway
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isPinnedToPrimary())
+            return;
+        PINNED.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PINNED.remove();
+            }
+        });
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    public static String patientKey(Long patientId) {
+        return patientId != null ? "patient:" + patientId : null;
+    }
+
+    public static String doctorKey(Long doctorId) {
+        return doctorId != null ? "doctor:" + doctorId : null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.project.back_end.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Logs how long the node took from JVM start to readiness. The
+ * fast-startup build starts the application with app.startup.exit-when-ready
+ * to measure it: the process then exits right away. Going over
+ * app.startup.budget-ms is only logged unless app.startup.enforce-budget is
+ * set, in which case the process exits with status 1.
+ */
+@Component
+public class StartupReport {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+
+    @Value("${app.startup.budget-ms:0}")
+    private long budgetMs;
+
+    @Value("${app.startup.exit-when-ready:false}")
+    private boolean exitWhenReady;
+
+    @Value("${app.startup.enforce-budget:false}")
+    private boolean enforceBudget;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ready(ApplicationReadyEvent event) {
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        boolean overBudget = budgetMs > 0 && sinceJvmStart > budgetMs;
+        log.info("Ready in {} ms since JVM start ({} ms in Spring){}", sinceJvmStart,
+                event.getTimeTaken().toMillis(), budgetMs > 0 ? ", budget " + budgetMs + " ms" : "");
+        if (overBudget)
+            log.warn("Startup exceeded its budget of {} ms", budgetMs);
+        if (exitWhenReady)
+            System.exit(SpringApplication.exit(event.getApplicationContext(), () -> overBudget && enforceBudget ? 1 : 0));
+    }
+}
@@ -0,0 +1,67 @@
+package com.project.back_end.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Far-future caching for fingerprinted static files.
+ *
+ * Plain static URLs like /index.html or /js/util.js keep their name across
+ * deploys, so they get no cache policy and browsers revalidate them against
+ * Last-Modified. A content-hashed URL (style-&lt;md5&gt;.css, written into
+ * templates by the resource chain) can never change, so when the resource
+ * handler finds one, i.e. sets Last-Modified or a cache policy of its own, a
+ * year-long immutable policy is put in place. Not-found responses set
+ * neither and stay uncached, so a node that does not know a new hash yet
+ * during a rolling deploy cannot pin a 404 in browsers.
+ */
+@Component
+public class StaticCacheFilter extends OncePerRequestFilter {
+
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private static final Pattern FINGERPRINTED = Pattern.compile(".*-[0-9a-f]{32}\\.[A-Za-z0-9]+$");
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method))
+                || !FINGERPRINTED.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain chain) throws ServletException, IOException {
+        chain.doFilter(request, new HttpServletResponseWrapper(response) {
+            @Override
+            public void setHeader(String name, String value) {
+                super.setHeader(name, HttpHeaders.CACHE_CONTROL.equalsIgnoreCase(name) ? IMMUTABLE : value);
+            }
+
+            @Override
+            public void setDateHeader(String name, long date) {
+                super.setDateHeader(name, date);
+                if (HttpHeaders.LAST_MODIFIED.equalsIgnoreCase(name))
+                    super.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+            }
+
+            @Override
+            public void addHeader(String name, String value) {
+                if (HttpHeaders.CACHE_CONTROL.equalsIgnoreCase(name))
+                    super.setHeader(name, IMMUTABLE);
+                else
+                    super.addHeader(name, value);
+            }
+        });
+    }
+}
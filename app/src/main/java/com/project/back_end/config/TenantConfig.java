@@ -0,0 +1,155 @@
+package com.project.back_end.config;
+
+import com.mongodb.client.MongoClient;
+import com.project.back_end.services.InvalidationBus;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clinic sharding, enabled with app.tenancy.enabled=true. Each entry under
+ * app.tenancy.shards.{name} is a MySQL instance (url, username, password)
+ * with an optional Mongo database (mongo-database); app.tenancy.clinics.{id}
+ * maps clinics to shards. The DataSource and Mongo database factories follow
+ * the clinic in {@link TenantContext}, so repositories need no changes.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.tenancy", name = "enabled", havingValue = "true")
+public class TenantConfig {
+
+    public static final String SHARD_MOVED = "TENANT_SHARD_MOVED";
+    public static final String MOVE_STARTED = "TENANT_MOVE_STARTED";
+
+    private final TenantSchemaSync schemaSync = new TenantSchemaSync();
+
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String mongoDatabase;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getMongoDatabase() {
+            return mongoDatabase;
+        }
+
+        public void setMongoDatabase(String mongoDatabase) {
+            this.mongoDatabase = mongoDatabase;
+        }
+    }
+
+    @Bean
+    public TenantShardMap tenantShardMap(Environment environment, InvalidationBus invalidationBus,
+            @Value("${app.tenancy.default-shard}") String defaultShard,
+            @Value("${app.tenancy.move-timeout-ms:3600000}") long moveTimeoutMs) {
+        Binder binder = Binder.get(environment);
+        Map<String, Shard> shards = binder
+                .bind("app.tenancy.shards", Bindable.mapOf(String.class, Shard.class))
+                .orElseThrow(() -> new IllegalStateException("app.tenancy.shards is not configured"));
+        Map<Long, String> clinics = binder
+                .bind("app.tenancy.clinics", Bindable.mapOf(Long.class, String.class))
+                .orElse(Map.of());
+
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        Map<String, String> mongoDatabases = new HashMap<>();
+        shards.forEach((name, shard) -> {
+            dataSources.put(name, DataSourceBuilder.create()
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build());
+            if (shard.getMongoDatabase() != null)
+                mongoDatabases.put(name, shard.getMongoDatabase());
+        });
+        TenantShardMap map = new TenantShardMap(dataSources, mongoDatabases, clinics, defaultShard);
+        map.setMoveTimeout(Duration.ofMillis(moveTimeoutMs));
+        map.reload();
+
+        // a move started or ended on another node: the directory tables say
+        // which, the announcement only saves waiting for the next poll
+        invalidationBus.subscribe(event -> {
+            if (MOVE_STARTED.equals(event.entity()) || SHARD_MOVED.equals(event.entity()))
+                map.reload();
+        });
+        return map;
+    }
+
+    @Bean
+    public DataSource dataSource(TenantShardMap shardMap) {
+        return new TenantRoutingDataSource(shardMap);
+    }
+
+    @Bean
+    public MongoDatabaseFactory mongoDatabaseFactory(MongoClient mongoClient, MongoProperties properties,
+            TenantShardMap shardMap) {
+        return new TenantMongoDatabaseFactory(mongoClient, properties.getMongoClientDatabase(), shardMap);
+    }
+
+    @Bean
+    public ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory(
+            com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient, MongoProperties properties,
+            TenantShardMap shardMap) {
+        return new TenantReactiveMongoDatabaseFactory(reactiveMongoClient, properties.getMongoClientDatabase(),
+                shardMap);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer tenantSchemaSyncCustomizer() {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(schemaSync));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void updateShardSchemas(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        if (!"update".equals(environment.getProperty("spring.jpa.hibernate.ddl-auto")))
+            return;
+        TenantShardMap shardMap = event.getApplicationContext().getBean(TenantShardMap.class);
+        for (String shard : shardMap.dataSources().keySet()) {
+            if (!shard.equals(shardMap.defaultShard()))
+                schemaSync.update(shard);
+        }
+    }
+}
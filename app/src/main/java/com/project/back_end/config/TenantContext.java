@@ -0,0 +1,106 @@
+package com.project.back_end.config;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Clinic (tenant) of the current thread. Set per request by
+ * {@link TenantFilter} from the token's clinic claim; it selects the shard
+ * the request's connections go to and the rows Hibernate lets it see.
+ *
+ * Background jobs run without a clinic and therefore see every clinic's
+ * rows; they visit each shard through {@link #forEachShard(Runnable)}.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<Long> CLINIC = new ThreadLocal<>();
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    // single unnamed shard unless tenancy is configured
+    private static volatile List<String> shards = Collections.singletonList(null);
+
+    private TenantContext() {
+    }
+
+    public static Long currentClinic() {
+        return CLINIC.get();
+    }
+
+    public static void setClinic(Long clinicId) {
+        if (clinicId == null)
+            CLINIC.remove();
+        else
+            CLINIC.set(clinicId);
+    }
+
+    /**
+     * Shard forced for this thread, overriding the clinic's shard.
+     */
+    public static String currentShard() {
+        return SHARD.get();
+    }
+
+    public static void clear() {
+        CLINIC.remove();
+        SHARD.remove();
+    }
+
+    static void setShards(List<String> names) {
+        shards = List.copyOf(names);
+    }
+
+    /**
+     * Runs the task once against every shard, outside any clinic.
+     */
+    public static void forEachShard(Runnable task) {
+        for (String shard : shards) {
+            onShard(shard, () -> {
+                task.run();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Runs the task against the given shard, outside any clinic.
+     */
+    public static <T> T onShard(String shard, Callable<T> task) {
+        Long clinic = CLINIC.get();
+        String previous = SHARD.get();
+        CLINIC.remove();
+        if (shard != null)
+            SHARD.set(shard);
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            setClinic(clinic);
+            if (previous != null)
+                SHARD.set(previous);
+            else
+                SHARD.remove();
+        }
+    }
+
+    /**
+     * Wraps the task so it runs with the caller's clinic on another thread.
+     */
+    public static Runnable wrap(Runnable task) {
+        Long clinic = CLINIC.get();
+        String shard = SHARD.get();
+        return () -> {
+            setClinic(clinic);
+            if (shard != null)
+                SHARD.set(shard);
+            try {
+                task.run();
+            } finally {
+                clear();
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.project.back_end.config;
+
+import com.project.back_end.services.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves the clinic of each request into {@link TenantContext}. Tokens
+ * travel as path segments, so the first segment that looks like a JWT and
+ * carries a clinic claim wins. Requests without a token (login, sign-up,
+ * public search) belong to the clinic whose host name they were sent to
+ * (app.tenancy.hosts.{host}={clinic}), so the caller cannot pick an arbitrary
+ * clinic; anything else is the default clinic.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.tenancy", name = "enabled", havingValue = "true")
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final TokenService tokenService;
+    private final ObjectProvider<TenantShardMap> shardMap;
+    private final Map<String, Long> hostClinics;
+
+    @Value("${app.tenancy.default-clinic:0}")
+    private long defaultClinic;
+
+    public TenantFilter(TokenService tokenService, ObjectProvider<TenantShardMap> shardMap,
+            Environment environment) {
+        this.tokenService = tokenService;
+        this.shardMap = shardMap;
+        this.hostClinics = new HashMap<>();
+        Binder.get(environment)
+                .bind("app.tenancy.hosts", Bindable.mapOf(String.class, Long.class))
+                .orElse(Map.of())
+                .forEach((host, clinic) -> hostClinics.put(host.toLowerCase(Locale.ROOT), clinic));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain chain) throws ServletException, IOException {
+        Long clinic = resolveClinic(request);
+        TenantShardMap map = shardMap.getIfAvailable();
+        if (map != null && map.isMoving(clinic)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "5");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Clinic is being moved, please retry shortly\"}");
+            return;
+        }
+        TenantContext.setClinic(clinic);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private Long resolveClinic(HttpServletRequest request) {
+        for (String segment : request.getRequestURI().split("/")) {
+            if (segment.length() > 20 && segment.chars().filter(c -> c == '.').count() == 2) {
+                Long clinic = tokenService.extractClinic(segment);
+                if (clinic != null)
+                    return clinic;
+                // a token without a valid clinic claim never falls back to the host
+                return defaultClinic;
+            }
+        }
+        Long clinic = hostClinics.get(request.getServerName().toLowerCase(Locale.ROOT));
+        return clinic != null ? clinic : defaultClinic;
+    }
+}
@@ -0,0 +1,57 @@
+package com.project.back_end.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Feeds the current clinic to Hibernate, which stamps it on new rows of
+ * entities with a @TenantId column and adds it to every query on them.
+ * Threads without a clinic (scheduled jobs) get the root tenant and see
+ * every clinic's rows.
+ *
+ * Hibernate needs a resolver whenever @TenantId is mapped, so this one is
+ * always registered; with tenancy disabled it resolves every session to the
+ * default clinic, which is what existing rows carry.
+ */
+@Component
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver<Long>, HibernatePropertiesCustomizer {
+
+    public static final Long ROOT = -1L;
+
+    private final boolean enabled;
+    private final Long defaultClinic;
+
+    public TenantIdentifierResolver(@Value("${app.tenancy.enabled:false}") boolean enabled,
+            @Value("${app.tenancy.default-clinic:0}") long defaultClinic) {
+        this.enabled = enabled;
+        this.defaultClinic = defaultClinic;
+    }
+
+    @Override
+    public Long resolveCurrentTenantIdentifier() {
+        if (!enabled)
+            return defaultClinic;
+        Long clinic = TenantContext.currentClinic();
+        return clinic != null ? clinic : ROOT;
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(Long tenantId) {
+        return ROOT.equals(tenantId);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+    }
+}
@@ -0,0 +1,26 @@
+package com.project.back_end.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+/**
+ * Hands Spring Data the Mongo database of the current clinic's shard;
+ * shards without their own database name use the default one.
+ */
+public class TenantMongoDatabaseFactory extends SimpleMongoClientDatabaseFactory {
+
+    private final TenantShardMap shardMap;
+
+    public TenantMongoDatabaseFactory(MongoClient client, String defaultDatabase, TenantShardMap shardMap) {
+        super(client, defaultDatabase);
+        this.shardMap = shardMap;
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase() throws DataAccessException {
+        String database = shardMap.mongoDatabase(shardMap.currentShard());
+        return database != null ? getMongoDatabase(database) : super.getMongoDatabase();
+    }
+}
@@ -0,0 +1,37 @@
+package com.project.back_end.config;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link TenantMongoDatabaseFactory}. A reactive
+ * pipeline may run on any thread, so the clinic is read from the Reactor
+ * context ({@link #CLINIC_KEY}) and only falls back to the subscribing
+ * thread's {@link TenantContext}.
+ */
+public class TenantReactiveMongoDatabaseFactory extends SimpleReactiveMongoDatabaseFactory {
+
+    /** Reactor context key holding the clinic id of the pipeline. */
+    public static final String CLINIC_KEY = TenantContext.class.getName() + ".clinic";
+
+    private final TenantShardMap shardMap;
+
+    public TenantReactiveMongoDatabaseFactory(MongoClient client, String defaultDatabase, TenantShardMap shardMap) {
+        super(client, defaultDatabase);
+        this.shardMap = shardMap;
+    }
+
+    @Override
+    public Mono<MongoDatabase> getMongoDatabase() throws DataAccessException {
+        return Mono.deferContextual(context -> {
+            String shard = context.hasKey(CLINIC_KEY)
+                    ? shardMap.shardFor(context.get(CLINIC_KEY))
+                    : shardMap.currentShard();
+            String database = shardMap.mongoDatabase(shard);
+            return database != null ? getMongoDatabase(database) : super.getMongoDatabase();
+        });
+    }
+}
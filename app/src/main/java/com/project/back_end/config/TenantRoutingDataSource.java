@@ -0,0 +1,31 @@
+package com.project.back_end.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes connections to the shard of the current clinic, or to the shard
+ * forced by {@link TenantContext#onShard}. Threads without either use the
+ * default shard.
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final TenantShardMap shardMap;
+
+    public TenantRoutingDataSource(TenantShardMap shardMap) {
+        this.shardMap = shardMap;
+        Map<Object, Object> targets = new HashMap<>(shardMap.dataSources());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shardMap.dataSource(shardMap.defaultShard()));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return shardMap.currentShard();
+    }
+}
@@ -0,0 +1,50 @@
+package com.project.back_end.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ddl-auto=update only reaches the shard the DataSource routes to at boot
+ * (the default one). This integrator keeps Hibernate's mapping metadata so
+ * the same schema update can be replayed against every other shard.
+ */
+public class TenantSchemaSync implements Integrator {
+
+    private volatile Metadata metadata;
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+            SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    /**
+     * Applies the missing tables and columns to the given shard.
+     */
+    public void update(String shard) {
+        if (metadata == null)
+            return;
+        TenantContext.onShard(shard, () -> {
+            Map<String, Object> settings = new HashMap<>(sessionFactory.getProperties());
+            settings.put(AvailableSettings.HBM2DDL_AUTO, "update");
+            SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(), settings,
+                    action -> {
+                    });
+            return null;
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.project.back_end.config;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Clinic to shard assignments. The static map comes from
+ * app.tenancy.clinics.*; clinics moved by the rebalancer are recorded in the
+ * clinic_shard table on the default shard, which takes precedence. Unmapped
+ * clinics live on the default shard.
+ *
+ * Running moves are recorded in the clinic_move table next to it, so every
+ * node turns the clinic away from the same persisted state, and only one
+ * node can move a clinic at a time. Both tables are reloaded periodically
+ * and when the invalidation bus announces a move, which only makes that
+ * happen sooner. A move recorded longer ago than the move timeout counts as
+ * abandoned (its node died): requests are served again, and running the
+ * move again takes it over.
+ */
+public class TenantShardMap {
+
+    private final Map<String, DataSource> dataSources;
+    private final Map<String, String> mongoDatabases;
+    private final Map<Long, String> configured;
+    private final String defaultShard;
+    private final JdbcTemplate directory;
+    private final Map<Long, String> assignments = new ConcurrentHashMap<>();
+    private volatile Set<Long> moving = Set.of();
+    private volatile Duration moveTimeout = Duration.ofHours(1);
+    private volatile boolean tablesCreated;
+
+    public TenantShardMap(Map<String, DataSource> dataSources, Map<String, String> mongoDatabases,
+            Map<Long, String> configured, String defaultShard) {
+        if (!dataSources.containsKey(defaultShard))
+            throw new IllegalArgumentException("Unknown default shard " + defaultShard);
+        for (String shard : configured.values()) {
+            if (!dataSources.containsKey(shard))
+                throw new IllegalArgumentException("Unknown shard " + shard);
+        }
+        this.dataSources = Map.copyOf(dataSources);
+        this.mongoDatabases = Map.copyOf(mongoDatabases);
+        this.configured = Map.copyOf(configured);
+        this.defaultShard = defaultShard;
+        this.directory = new JdbcTemplate(dataSources.get(defaultShard));
+        TenantContext.setShards(new ArrayList<>(dataSources.keySet()));
+    }
+
+    /**
+     * Creates the directory tables if needed and loads the recorded
+     * assignments and running moves.
+     */
+    public void reload() {
+        if (!tablesCreated) {
+            directory.execute("CREATE TABLE IF NOT EXISTS clinic_shard "
+                    + "(clinic_id BIGINT NOT NULL PRIMARY KEY, shard VARCHAR(64) NOT NULL)");
+            directory.execute("CREATE TABLE IF NOT EXISTS clinic_move "
+                    + "(clinic_id BIGINT NOT NULL PRIMARY KEY, started_at TIMESTAMP NOT NULL)");
+            tablesCreated = true;
+        }
+        Map<Long, String> loaded = new ConcurrentHashMap<>(configured);
+        directory.query("SELECT clinic_id, shard FROM clinic_shard", rs -> {
+            String shard = rs.getString(2);
+            if (dataSources.containsKey(shard))
+                loaded.put(rs.getLong(1), shard);
+        });
+        assignments.putAll(loaded);
+        assignments.keySet().retainAll(loaded.keySet());
+        moving = Set.copyOf(directory.queryForList("SELECT clinic_id FROM clinic_move WHERE started_at > ?",
+                Long.class, Timestamp.valueOf(LocalDateTime.now().minus(moveTimeout))));
+    }
+
+    /**
+     * Shard the current thread talks to.
+     */
+    public String currentShard() {
+        String forced = TenantContext.currentShard();
+        return forced != null ? forced : shardFor(TenantContext.currentClinic());
+    }
+
+    public String shardFor(Long clinicId) {
+        return clinicId != null ? assignments.getOrDefault(clinicId, defaultShard) : defaultShard;
+    }
+
+    /**
+     * Records that the clinic now lives on the given shard.
+     */
+    public void assign(Long clinicId, String shard) {
+        int updated = directory.update("UPDATE clinic_shard SET shard = ? WHERE clinic_id = ?", shard, clinicId);
+        if (updated == 0)
+            directory.update("INSERT INTO clinic_shard (clinic_id, shard) VALUES (?, ?)", clinicId, shard);
+        assignments.put(clinicId, shard);
+    }
+
+    public String defaultShard() {
+        return defaultShard;
+    }
+
+    public boolean hasShard(String shard) {
+        return dataSources.containsKey(shard);
+    }
+
+    public Map<String, DataSource> dataSources() {
+        return dataSources;
+    }
+
+    public DataSource dataSource(String shard) {
+        return dataSources.get(shard);
+    }
+
+    public String mongoDatabase(String shard) {
+        return mongoDatabases.get(shard);
+    }
+
+    /**
+     * Clinics being moved, as of the last reload; their requests are turned
+     * away until the move ends.
+     */
+    public boolean isMoving(Long clinicId) {
+        return clinicId != null && moving.contains(clinicId);
+    }
+
+    /**
+     * Records the start of a clinic's move.
+     *
+     * @return false if another move of the clinic is running
+     */
+    public boolean startMove(Long clinicId) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            directory.update("INSERT INTO clinic_move (clinic_id, started_at) VALUES (?, ?)", clinicId,
+                    Timestamp.valueOf(now));
+        } catch (DuplicateKeyException e) {
+            // take over an abandoned move
+            if (directory.update("UPDATE clinic_move SET started_at = ? WHERE clinic_id = ? AND started_at <= ?",
+                    Timestamp.valueOf(now), clinicId, Timestamp.valueOf(now.minus(moveTimeout))) == 0)
+                return false;
+        }
+        Set<Long> updated = new HashSet<>(moving);
+        updated.add(clinicId);
+        moving = Set.copyOf(updated);
+        return true;
+    }
+
+    public void endMove(Long clinicId) {
+        directory.update("DELETE FROM clinic_move WHERE clinic_id = ?", clinicId);
+        Set<Long> updated = new HashSet<>(moving);
+        updated.remove(clinicId);
+        moving = Set.copyOf(updated);
+    }
+
+    public void setMoveTimeout(Duration moveTimeout) {
+        this.moveTimeout = moveTimeout;
+    }
+}
@@ -0,0 +1,35 @@
+package com.project.back_end.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads clinic assignments and running moves from the directory tables,
+ * so every node follows moves made elsewhere even when it missed the
+ * announcement on the invalidation bus.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.tenancy", name = "enabled", havingValue = "true")
+public class TenantShardMapReloader {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantShardMapReloader.class);
+
+    private final TenantShardMap shardMap;
+
+    public TenantShardMapReloader(TenantShardMap shardMap) {
+        this.shardMap = shardMap;
+    }
+
+    @Scheduled(fixedDelayString = "${app.tenancy.reload-ms:5000}", initialDelayString = "${app.tenancy.reload-ms:5000}")
+    public void reload() {
+        try {
+            shardMap.reload();
+        } catch (DataAccessException e) {
+            log.warn("Could not reload the clinic shard directory, keeping the last one", e);
+        }
+    }
+}
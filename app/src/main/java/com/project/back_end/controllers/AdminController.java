@@ -1,27 +1,78 @@
 package com.project.back_end.controllers;
 
 import com.project.back_end.models.Admin;
+import com.project.back_end.services.AppointmentAnalyticsService;
 import com.project.back_end.services.CentralService;
+import com.project.back_end.services.CredentialService;
+import com.project.back_end.services.TenantRebalanceService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.Map;
 
+// admin-only: created on the first admin request rather than at startup
+@Lazy
 @RestController
 @RequestMapping("${api.path}" + "admin")
 public class AdminController {
 
     private final CentralService service;
+    private final CredentialService credentialService;
+    private final ObjectProvider<TenantRebalanceService> rebalanceService;
+    private final AppointmentAnalyticsService analyticsService;
 
-    public AdminController(CentralService service) {
+    public AdminController(CentralService service, CredentialService credentialService,
+            ObjectProvider<TenantRebalanceService> rebalanceService,
+            AppointmentAnalyticsService analyticsService) {
         this.service = service;
+        this.credentialService = credentialService;
+        this.rebalanceService = rebalanceService;
+        this.analyticsService = analyticsService;
     }
 
     @PostMapping("/login")
     public ResponseEntity<Map<String, String>> adminLogin(@RequestBody Admin admin) {
         return service.validateAdmin(admin);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/credentials/stats/{token}")
+    public ResponseEntity<?> credentialStats(@PathVariable String token) {
+        var validation = service.validateToken(token, "ADMIN");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+        return ResponseEntity.ok(credentialService.stats());
+    }
+
+    @GetMapping("/analytics/{date}/{token}")
+    public ResponseEntity<?> appointmentAnalytics(@PathVariable LocalDate date, @PathVariable String token) {
+        var validation = service.validateToken(token, "ADMIN");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+        return ResponseEntity.ok(analyticsService.dailyReport(date));
+    }
+
+    @PostMapping("/clinics/{clinicId}/move/{shard}/{token}")
+    public ResponseEntity<?> moveClinic(@PathVariable Long clinicId, @PathVariable String shard,
+            @PathVariable String token) {
+        var validation = service.validateToken(token, "ADMIN");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+        TenantRebalanceService rebalancer = rebalanceService.getIfAvailable();
+        if (rebalancer == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Clinic sharding is not enabled"));
+        }
+        return rebalancer.moveClinic(clinicId, shard);
+    }
+}
@@ -1,11 +1,19 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.DTO.AppointmentSeries;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.services.AppointmentService;
 import com.project.back_end.services.CentralService;
+import com.project.back_end.services.EntityChangeEvent;
+import com.project.back_end.services.EtagService;
+import com.project.back_end.services.StreamingJsonWriter;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Map;
@@ -16,25 +24,61 @@ public class AppointmentController {
 
     private final AppointmentService appointmentService;
     private final CentralService service;
+    private final EtagService etagService;
+    private final StreamingJsonWriter streamingJsonWriter;
 
-    public AppointmentController(AppointmentService appointmentService, CentralService service) {
+    public AppointmentController(AppointmentService appointmentService, CentralService service,
+            EtagService etagService, StreamingJsonWriter streamingJsonWriter) {
         this.appointmentService = appointmentService;
         this.service = service;
+        this.etagService = etagService;
+        this.streamingJsonWriter = streamingJsonWriter;
     }
 
+    /**
+     * Streams the doctor's appointments of the day. The body is written by a
+     * {@link StreamingResponseBody}, which Spring only recognises when it is
+     * the declared body type, so a rejected token leaves through
+     * {@link TokenRejected} instead of a map body.
+     */
     @GetMapping("/{date}/{patientName}/{token}")
-    public ResponseEntity<?> getAppointments(
+    public ResponseEntity<StreamingResponseBody> getAppointments(
             @PathVariable LocalDate date,
             @PathVariable String patientName,
-            @PathVariable String token) {
+            @PathVariable String token,
+            WebRequest request) {
 
         ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "doctor");
         if (validationResponse.getStatusCode().isError()) {
-            return validationResponse;
+            throw new TokenRejected(validationResponse);
         }
 
-        Map<String, Object> appointments = appointmentService.getAppointments(patientName, date, token);
-        return ResponseEntity.ok(appointments);
+        Long doctorId = service.getUserIdFromToken(token);
+        String etag = etagService.etag(EntityChangeEvent.APPOINTMENT, EntityChangeEvent.DOCTOR,
+                EntityChangeEvent.PATIENT,
+                EtagService.scope(EntityChangeEvent.APPOINTMENT, EtagService.BY_DOCTOR, doctorId));
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(streamingJsonWriter.list("appointments",
+                        sink -> appointmentService.streamAppointments(patientName, date, doctorId, sink::accept)));
+    }
+
+    @ExceptionHandler(TokenRejected.class)
+    public ResponseEntity<Map<String, String>> tokenRejected(TokenRejected e) {
+        return e.response;
+    }
+
+    static class TokenRejected extends RuntimeException {
+        private final transient ResponseEntity<Map<String, String>> response;
+
+        TokenRejected(ResponseEntity<Map<String, String>> response) {
+            super(null, null, false, false);
+            this.response = response;
+        }
     }
 
     @PostMapping("/{token}")
@@ -62,6 +106,24 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * Books a recurring series for the patient of the token; nothing is
+     * booked unless every occurrence is free.
+     */
+    @PostMapping("/series/{token}")
+    public ResponseEntity<Map<String, Object>> bookSeries(
+            @RequestBody AppointmentSeries series,
+            @PathVariable String token) {
+
+        ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "patient");
+        if (validationResponse.getStatusCode().isError()) {
+            return ResponseEntity.status(validationResponse.getStatusCode())
+                    .body(Map.of("error", validationResponse.getBody().get("error")));
+        }
+
+        return appointmentService.bookSeries(series, service.getUserIdFromToken(token));
+    }
+
     @PutMapping("/{token}")
     public ResponseEntity<Map<String, String>> updateAppointment(
             @RequestBody Appointment appointment,
@@ -0,0 +1,40 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.services.RefreshTokenService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST controller for exchanging and revoking refresh tokens.
+ */
+@RestController
+@RequestMapping("${api.path}auth")
+public class AuthController {
+
+    private final RefreshTokenService refreshTokenService;
+
+    public AuthController(RefreshTokenService refreshTokenService) {
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    /**
+     * Exchanges {"refreshToken": ...} for a new access and refresh token.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, String>> refresh(@RequestBody Map<String, String> body) {
+        return refreshTokenService.refresh(body.get("refreshToken"));
+    }
+
+    /**
+     * Revokes the given refresh token.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(@RequestBody Map<String, String> body) {
+        return refreshTokenService.revoke(body.get("refreshToken"));
+    }
+}
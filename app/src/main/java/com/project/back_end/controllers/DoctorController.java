@@ -1,12 +1,24 @@
 package com.project.back_end.controllers;
 
 import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSchedule;
 import com.project.back_end.services.CentralService;
+import com.project.back_end.services.DoctorPurgeService;
 import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.EntityChangeEvent;
+import com.project.back_end.services.EtagService;
+import com.project.back_end.services.ScheduleService;
+import com.project.back_end.services.TokenBucketRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,10 +30,20 @@ public class DoctorController {
 
     private final DoctorService doctorService;
     private final CentralService service;
+    private final TokenBucketRateLimiter filterRateLimiter;
+    private final EtagService etagService;
+    private final DoctorPurgeService doctorPurgeService;
+    private final ScheduleService scheduleService;
 
-    public DoctorController(DoctorService doctorService, CentralService service) {
+    public DoctorController(DoctorService doctorService, CentralService service,
+            TokenBucketRateLimiter filterRateLimiter, EtagService etagService,
+            DoctorPurgeService doctorPurgeService, ScheduleService scheduleService) {
         this.doctorService = doctorService;
         this.service = service;
+        this.filterRateLimiter = filterRateLimiter;
+        this.etagService = etagService;
+        this.doctorPurgeService = doctorPurgeService;
+        this.scheduleService = scheduleService;
     }
 
     @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
@@ -29,18 +51,56 @@ public class DoctorController {
             @PathVariable String user,
             @PathVariable Long doctorId,
             @PathVariable LocalDate date,
-            @PathVariable String token) {
+            @PathVariable String token,
+            WebRequest request) {
 
         var validation = service.validateToken(token, user);
         if (validation.getStatusCode().isError()) {
             return ResponseEntity.status(validation.getStatusCode())
                     .body(Map.of("error", validation.getBody().get("error")));
         }
+        if (request.checkNotModified(etagService.etag(availabilityKeys(List.of(doctorId))))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
 
         var slots = doctorService.getDoctorAvailability(doctorId, date);
         return ResponseEntity.ok(Map.of("availability", slots));
     }
 
+    /**
+     * The earliest free slots with any doctor of a specialty in a date range,
+     * optionally only in the morning or afternoon (time=AM|PM).
+     */
+    @GetMapping("/availability/search/{user}/{specialty}/{from}/{to}/{token}")
+    public ResponseEntity<Map<String, Object>> searchAvailability(
+            @PathVariable String user,
+            @PathVariable String specialty,
+            @PathVariable LocalDate from,
+            @PathVariable LocalDate to,
+            @PathVariable String token,
+            @RequestParam(required = false) String time,
+            @RequestParam(defaultValue = "10") int limit,
+            HttpServletRequest servletRequest,
+            WebRequest request) {
+
+        var validation = service.validateToken(token, user);
+        if (validation.getStatusCode().isError()) {
+            return ResponseEntity.status(validation.getStatusCode())
+                    .body(Map.of("error", validation.getBody().get("error")));
+        }
+        if (!filterRateLimiter.tryAcquire(servletRequest.getRemoteAddr())) {
+            return ResponseEntity.status(429).body(Map.of("error", "Too many requests"));
+        }
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Date range ends before it starts"));
+        }
+        if (request.checkNotModified(etagService.etag(availabilityKeys(doctorService.doctorIds(specialty))))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        return ResponseEntity.ok(doctorService.searchAvailability(specialty, from, to, time, limit));
+    }
+
     @PostMapping("/{token}")
     public ResponseEntity<Map<String, String>> saveDoctor(
             @RequestBody Doctor doctor,
@@ -101,13 +161,128 @@ public class DoctorController {
         }
     }
 
+    /**
+     * A doctor's schedule; doctors without one are bookable during their
+     * availableTimes.
+     */
+    @GetMapping("/schedule/{user}/{doctorId}/{token}")
+    public ResponseEntity<?> getSchedule(
+            @PathVariable String user,
+            @PathVariable Long doctorId,
+            @PathVariable String token) {
+
+        var validation = service.validateToken(token, user);
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+
+        DoctorSchedule schedule = scheduleService.getSchedule(doctorId);
+        if (schedule == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "No schedule for doctor"));
+        }
+        return ResponseEntity.ok(schedule);
+    }
+
+    /**
+     * Replaces a doctor's schedule: working hours, breaks, slot length and
+     * dated exceptions.
+     */
+    @PutMapping("/schedule/{doctorId}/{token}")
+    public ResponseEntity<Map<String, String>> saveSchedule(
+            @PathVariable Long doctorId,
+            @RequestBody DoctorSchedule schedule,
+            @PathVariable String token) {
+
+        var validation = service.validateToken(token, "ADMIN");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+
+        if (schedule.getSlotMinutes() < 5 || schedule.getSlotMinutes() > 480) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Slot length must be 5 to 480 minutes"));
+        }
+        int result = scheduleService.saveSchedule(doctorId, schedule);
+        if (result == 1) {
+            return ResponseEntity.ok(Map.of("message", "Schedule saved"));
+        } else if (result == -1) {
+            return ResponseEntity.status(404).body(Map.of("error", "Doctor not found"));
+        } else {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to save schedule"));
+        }
+    }
+
+    /**
+     * Progress of the background purge of a deleted doctor.
+     */
+    @GetMapping("/purge/{id}/{token}")
+    public ResponseEntity<?> getPurgeProgress(
+            @PathVariable Long id,
+            @PathVariable String token) {
+
+        var validation = service.validateToken(token, "ADMIN");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+
+        var job = doctorPurgeService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "No purge job for doctor"));
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    /**
+     * Resumes a failed purge.
+     */
+    @PostMapping("/purge/{id}/resume/{token}")
+    public ResponseEntity<Map<String, String>> resumePurge(
+            @PathVariable Long id,
+            @PathVariable String token) {
+
+        var validation = service.validateToken(token, "ADMIN");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+
+        int result = doctorPurgeService.resume(id);
+        if (result == 1) {
+            return ResponseEntity.ok(Map.of("message", "Purge resumed"));
+        } else if (result == -1) {
+            return ResponseEntity.status(404).body(Map.of("error", "No purge job for doctor"));
+        } else {
+            return ResponseEntity.status(409).body(Map.of("error", "Purge is not in a failed state"));
+        }
+    }
+
     @GetMapping("/filter/{name}/{time}/{speciality}")
     public ResponseEntity<Map<String, Object>> filterDoctors(
             @PathVariable(required = false) String name,
             @PathVariable(required = false) String time,
-            @PathVariable(required = false) String speciality) {
+            @PathVariable(required = false) String speciality,
+            HttpServletRequest servletRequest,
+            WebRequest request) {
 
+        if (!filterRateLimiter.tryAcquire(servletRequest.getRemoteAddr())) {
+            return ResponseEntity.status(429).body(Map.of("error", "Too many requests"));
+        }
+        if (request.checkNotModified(etagService.etag(EntityChangeEvent.DOCTOR))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         var filtered = service.filterDoctor(name, speciality, time);
         return ResponseEntity.ok(filtered);
     }
+
+    /**
+     * ETag counters behind the free slots of the given doctors: their
+     * schedules, appointments and held waitlist offers.
+     */
+    private static List<String> availabilityKeys(Collection<Long> doctorIds) {
+        List<String> keys = new ArrayList<>(List.of(EntityChangeEvent.DOCTOR, EntityChangeEvent.APPOINTMENT,
+                EntityChangeEvent.AVAILABILITY));
+        for (Long doctorId : doctorIds) {
+            keys.add(EtagService.scope(EntityChangeEvent.APPOINTMENT, EtagService.BY_DOCTOR, doctorId));
+            keys.add(EtagService.scope(EntityChangeEvent.AVAILABILITY, EtagService.BY_DOCTOR, doctorId));
+        }
+        return keys;
+    }
 }
@@ -3,9 +3,13 @@ package com.project.back_end.controllers;
 import com.project.back_end.models.Patient;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.services.CentralService;
+import com.project.back_end.services.EntityChangeEvent;
+import com.project.back_end.services.EtagService;
 import com.project.back_end.services.PatientService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
 
@@ -18,10 +22,13 @@ public class PatientController {
 
     private final PatientService patientService;
     private final CentralService service;
+    private final EtagService etagService;
 
-    public PatientController(PatientService patientService, CentralService service) {
+    public PatientController(PatientService patientService, CentralService service,
+            EtagService etagService) {
         this.patientService = patientService;
         this.service = service;
+        this.etagService = etagService;
     }
 
     /**
@@ -51,7 +58,8 @@ public class PatientController {
      */
     @GetMapping("/details/{token}")
     public ResponseEntity<?> getPatientDetails(
-            @PathVariable String token) {
+            @PathVariable String token,
+            WebRequest request) {
         var validation = service.validateToken(token, "PATIENT");
         if (validation.getStatusCode().isError()) {
             return validation;
@@ -61,6 +69,10 @@ public class PatientController {
         if (patient == null) {
             return ResponseEntity.notFound().build();
         }
+        if (request.checkNotModified(
+                etagService.versionTag(EntityChangeEvent.PATIENT, patient.getId(), patient.getVersion()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         return ResponseEntity.ok(patient);
     }
 
@@ -68,12 +80,15 @@ public class PatientController {
      * Retrieves all appointments for a patient using a valid token.
      */
     @GetMapping("/appointments/{token}")
-    public ResponseEntity<?> getAppointments(@PathVariable String token) {
+    public ResponseEntity<?> getAppointments(@PathVariable String token, WebRequest request) {
         var validation = service.validateToken(token, "PATIENT");
         if (validation.getStatusCode().isError()) {
             return validation;
         }
         Long patientId = service.getUserIdFromToken(token);
+        if (request.checkNotModified(appointmentsEtag(patientId))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         var resp = patientService.getPatientAppointment(patientId, token);
         return resp;
     }
@@ -85,11 +100,23 @@ public class PatientController {
     public ResponseEntity<?> filterAppointments(
             @PathVariable String token,
             @RequestParam(required = false) String condition,
-            @RequestParam(required = false) String name) {
+            @RequestParam(required = false) String name,
+            WebRequest request) {
         var validation = service.validateToken(token, "PATIENT");
         if (validation.getStatusCode().isError()) {
             return validation;
         }
+        if (request.checkNotModified(appointmentsEtag(service.getUserIdFromToken(token)))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         return service.filterPatient(condition, name, token);
     }
+
+    /**
+     * A patient's appointment listings embed doctor and patient fields too.
+     */
+    private String appointmentsEtag(Long patientId) {
+        return etagService.etag(EntityChangeEvent.APPOINTMENT, EntityChangeEvent.DOCTOR, EntityChangeEvent.PATIENT,
+                EtagService.scope(EntityChangeEvent.APPOINTMENT, EtagService.BY_PATIENT, patientId));
+    }
 }
\ No newline at end of file
@@ -2,11 +2,18 @@ package com.project.back_end.controllers;
 
 import com.project.back_end.models.Prescription;
 import com.project.back_end.services.PrescriptionService;
+import com.project.back_end.services.AppointmentAnalyticsService;
 import com.project.back_end.services.AppointmentService;
 import com.project.back_end.services.CentralService;
+import com.project.back_end.services.EntityChangeEvent;
+import com.project.back_end.services.EtagService;
+import com.project.back_end.services.MedicationCatalogService;
+import com.project.back_end.services.PrescriptionSearchService;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
 
@@ -20,13 +27,25 @@ public class PrescriptionController {
     private final PrescriptionService prescriptionService;
     private final AppointmentService appointmentService;
     private final CentralService service;
+    private final EtagService etagService;
+    private final AppointmentAnalyticsService analyticsService;
+    private final PrescriptionSearchService searchService;
+    private final MedicationCatalogService medicationCatalog;
 
     public PrescriptionController(PrescriptionService prescriptionService,
             AppointmentService appointmentService,
-            CentralService service) {
+            CentralService service,
+            EtagService etagService,
+            AppointmentAnalyticsService analyticsService,
+            PrescriptionSearchService searchService,
+            MedicationCatalogService medicationCatalog) {
         this.prescriptionService = prescriptionService;
         this.appointmentService = appointmentService;
         this.service = service;
+        this.etagService = etagService;
+        this.analyticsService = analyticsService;
+        this.searchService = searchService;
+        this.medicationCatalog = medicationCatalog;
     }
 
     /**
@@ -49,7 +68,11 @@ public class PrescriptionController {
                     .body(Map.of("error", "Failed to update appointment status"));
         }
         // Save prescription
-        return prescriptionService.savePrescription(prescription);
+        ResponseEntity<Map<String, String>> saved = prescriptionService.savePrescription(prescription);
+        if (saved.getStatusCode().is2xxSuccessful()) {
+            analyticsService.recordPrescribed(prescription.getAppointmentId());
+        }
+        return saved;
     }
 
     /**
@@ -58,14 +81,82 @@ public class PrescriptionController {
     @GetMapping("/{appointmentId}/{token}")
     public ResponseEntity<Map<String, Object>> getPrescription(
             @PathVariable Long appointmentId,
-            @PathVariable String token) {
+            @PathVariable String token,
+            WebRequest request) {
         // Validate doctor token
         ResponseEntity<Map<String, String>> auth = service.validateToken(token, "DOCTOR");
         if (auth.getStatusCode().isError()) {
             return ResponseEntity.status(auth.getStatusCode())
                     .body(Map.of("error", auth.getBody().get("error")));
         }
+        // Skip the Mongo lookup if the client's copy is current
+        if (request.checkNotModified(etagService.etag(EntityChangeEvent.PRESCRIPTION,
+                EtagService.scope(EntityChangeEvent.PRESCRIPTION, EtagService.BY_APPOINTMENT, appointmentId)))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         // Fetch prescription data
         return prescriptionService.getPrescription(appointmentId);
     }
+
+    /**
+     * Full-text search over medication, doctor notes and pharmacy, one page
+     * at a time (page from 0). Not ETag-validated: results span every
+     * prescription, and prescription writes only advance their own
+     * appointment's counter.
+     */
+    @GetMapping("/search/{text}/{token}")
+    public ResponseEntity<Map<String, Object>> searchPrescriptions(
+            @PathVariable String text,
+            @PathVariable String token,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        ResponseEntity<Map<String, String>> auth = service.validateToken(token, "DOCTOR");
+        if (auth.getStatusCode().isError()) {
+            return ResponseEntity.status(auth.getStatusCode())
+                    .body(Map.of("error", auth.getBody().get("error")));
+        }
+        try {
+            return ResponseEntity.ok(searchService.search(text, page, size));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to search prescriptions"));
+        }
+    }
+
+    /**
+     * Medication names starting with the prefix, in alphabetical order.
+     */
+    @GetMapping("/medications/{prefix}/{token}")
+    public ResponseEntity<Map<String, Object>> completeMedication(
+            @PathVariable String prefix,
+            @PathVariable String token,
+            @RequestParam(defaultValue = "10") int limit) {
+        ResponseEntity<Map<String, String>> auth = service.validateToken(token, "DOCTOR");
+        if (auth.getStatusCode().isError()) {
+            return ResponseEntity.status(auth.getStatusCode())
+                    .body(Map.of("error", auth.getBody().get("error")));
+        }
+        try {
+            return ResponseEntity.ok(Map.of("medications", searchService.completeMedication(prefix, limit)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to complete medication"));
+        }
+    }
+
+    /**
+     * Catalog medications starting with the prefix, for the prescription
+     * form's autocomplete; most prescribed first.
+     */
+    @GetMapping("/catalog/{prefix}/{token}")
+    public ResponseEntity<Map<String, Object>> completeFromCatalog(
+            @PathVariable String prefix,
+            @PathVariable String token) {
+        ResponseEntity<Map<String, String>> auth = service.validateToken(token, "DOCTOR");
+        if (auth.getStatusCode().isError()) {
+            return ResponseEntity.status(auth.getStatusCode())
+                    .body(Map.of("error", auth.getBody().get("error")));
+        }
+        return ResponseEntity.ok(Map.of("medications", medicationCatalog.complete(prefix)));
+    }
 }
@@ -0,0 +1,94 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.services.AppointmentAnalyticsService;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.CentralService;
+import com.project.back_end.services.EntityChangeEvent;
+import com.project.back_end.services.EtagService;
+import com.project.back_end.services.ReactivePrescriptionService;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+
+/**
+ * Prescription endpoints backed by the reactive Mongo driver. Same contract
+ * as {@link PrescriptionController}, but handlers return a {@link Mono} and
+ * release the request thread while Mongo is queried.
+ */
+@RestController
+@RequestMapping("${api.path}prescription/reactive")
+public class ReactivePrescriptionController {
+
+    private final ReactivePrescriptionService prescriptionService;
+    private final AppointmentService appointmentService;
+    private final CentralService service;
+    private final EtagService etagService;
+    private final AppointmentAnalyticsService analyticsService;
+
+    public ReactivePrescriptionController(ReactivePrescriptionService prescriptionService,
+            AppointmentService appointmentService,
+            CentralService service,
+            EtagService etagService,
+            AppointmentAnalyticsService analyticsService) {
+        this.prescriptionService = prescriptionService;
+        this.appointmentService = appointmentService;
+        this.service = service;
+        this.etagService = etagService;
+        this.analyticsService = analyticsService;
+    }
+
+    /**
+     * Saves a new prescription and marks the appointment completed.
+     */
+    @PostMapping("/{token}")
+    public Mono<ResponseEntity<Map<String, String>>> savePrescription(
+            @PathVariable String token,
+            @RequestBody Prescription prescription) {
+        ResponseEntity<Map<String, String>> auth = service.validateToken(token, "DOCTOR");
+        if (auth.getStatusCode().isError()) {
+            return Mono.just(auth);
+        }
+        // the appointment lives in MySQL, so this step stays blocking
+        ResponseEntity<Map<String, String>> statusResp = appointmentService
+                .changeStatus(prescription.getAppointmentId(), 1);
+        if (statusResp.getStatusCode().isError()) {
+            return Mono.just(ResponseEntity.status(statusResp.getStatusCode())
+                    .body(Map.of("error", "Failed to update appointment status")));
+        }
+        // counting reads MySQL: keep it off the driver thread, in this request's clinic
+        Runnable count = TenantContext.wrap(() -> analyticsService.recordPrescribed(prescription.getAppointmentId()));
+        return prescriptionService.savePrescription(prescription).doOnNext(saved -> {
+            if (saved.getStatusCode().is2xxSuccessful())
+                Schedulers.boundedElastic().schedule(count);
+        });
+    }
+
+    /**
+     * Retrieves prescription(s) by appointment ID.
+     */
+    @GetMapping("/{appointmentId}/{token}")
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescription(
+            @PathVariable Long appointmentId,
+            @PathVariable String token,
+            WebRequest request) {
+        ResponseEntity<Map<String, String>> auth = service.validateToken(token, "DOCTOR");
+        if (auth.getStatusCode().isError()) {
+            return Mono.just(ResponseEntity.status(auth.getStatusCode())
+                    .body(Map.of("error", auth.getBody().get("error"))));
+        }
+        // Skip the Mongo lookup if the client's copy is current
+        if (request.checkNotModified(etagService.etag(EntityChangeEvent.PRESCRIPTION,
+                EtagService.scope(EntityChangeEvent.PRESCRIPTION, EtagService.BY_APPOINTMENT, appointmentId)))) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        }
+        return prescriptionService.getPrescription(appointmentId);
+    }
+}
@@ -0,0 +1,96 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.services.CentralService;
+import com.project.back_end.services.WaitlistService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * REST controller for the appointment waitlist. Patients join a doctor's
+ * waitlist instead of polling availability, check their entries for an
+ * offer and accept it before the hold runs out.
+ */
+@RestController
+@RequestMapping("${api.path}waitlist")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+    private final CentralService service;
+
+    public WaitlistController(WaitlistService waitlistService, CentralService service) {
+        this.waitlistService = waitlistService;
+        this.service = service;
+    }
+
+    /**
+     * Joins a waitlist: {"doctorId": 1, "fromDate": "2026-11-02", "toDate": "2026-11-06"}.
+     */
+    @PostMapping("/{token}")
+    public ResponseEntity<Map<String, String>> join(@PathVariable String token,
+            @RequestBody Map<String, String> body) {
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "PATIENT");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+        try {
+            return waitlistService.join(service.getUserIdFromToken(token),
+                    Long.valueOf(body.get("doctorId")),
+                    LocalDate.parse(body.get("fromDate")),
+                    LocalDate.parse(body.get("toDate")));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "A doctor and a valid date range are required"));
+        }
+    }
+
+    /**
+     * Lists the patient's open entries; offered ones carry the held slot.
+     */
+    @GetMapping("/{token}")
+    public ResponseEntity<?> entries(@PathVariable String token) {
+        var validation = service.validateToken(token, "PATIENT");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+        return ResponseEntity.ok(Map.of("entries", waitlistService.openEntries(service.getUserIdFromToken(token))));
+    }
+
+    /**
+     * Books the slot currently offered to the entry.
+     */
+    @PostMapping("/{id}/accept/{token}")
+    public ResponseEntity<Map<String, String>> accept(@PathVariable Long id, @PathVariable String token) {
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "PATIENT");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+        return waitlistService.accept(id, service.getUserIdFromToken(token));
+    }
+
+    /**
+     * Leaves the waitlist (declining any pending offer).
+     */
+    @DeleteMapping("/{id}/{token}")
+    public ResponseEntity<Map<String, String>> leave(@PathVariable Long id, @PathVariable String token) {
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "PATIENT");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+        return waitlistService.leave(id, service.getUserIdFromToken(token));
+    }
+
+    /**
+     * Lets the doctor move an entry up (higher value) or down their queue.
+     */
+    @PutMapping("/{id}/priority/{priority}/{token}")
+    public ResponseEntity<Map<String, String>> setPriority(@PathVariable Long id, @PathVariable int priority,
+            @PathVariable String token) {
+        ResponseEntity<Map<String, String>> validation = service.validateToken(token, "DOCTOR");
+        if (validation.getStatusCode().isError()) {
+            return validation;
+        }
+        return waitlistService.setPriority(id, service.getUserIdFromToken(token), priority);
+    }
+}
@@ -1,6 +1,8 @@
 package com.project.back_end.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.TenantId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -13,17 +15,35 @@ public class Appointment {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
+  @Version
+  @Column(columnDefinition = "bigint default 0")
+  private Long version;
+
+  // clinic the row belongs to; set and filtered by Hibernate from the session's tenant
+  @JsonIgnore
+  @TenantId
+  @Column(columnDefinition = "bigint default 0")
+  private Long clinicId;
+
+  // no FK constraints: MySQL does not allow them on the partitioned table
   @ManyToOne
+  @JoinColumn(foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
   @NotNull(message = "Doctor is required")
   private Doctor doctor;
 
   @ManyToOne
+  @JoinColumn(foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
   @NotNull(message = "Patient is required")
   private Patient patient;
 
   @Future(message = "Appointment time must be in the future")
+  @Column(nullable = false)
   private LocalDateTime appointmentTime;
 
+  // length of the booked slot; rows from before per-doctor schedules were hourly
+  @Column(columnDefinition = "int default 60")
+  private Integer durationMinutes;
+
   @NotNull(message = "Status is required")
   private int status; // 0: Scheduled, 1: Completed
 
@@ -46,6 +66,14 @@ public class Appointment {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public Doctor getDoctor() {
     return doctor;
   }
@@ -78,6 +106,14 @@ public class Appointment {
     this.status = newStatus;
   }
 
+  public int getDurationMinutes() {
+    return durationMinutes != null ? durationMinutes : 60;
+  }
+
+  public void setDurationMinutes(Integer durationMinutes) {
+    this.durationMinutes = durationMinutes;
+  }
+
   public String getReasonForVisit() {
     return reasonForVisit;
   }
@@ -97,7 +133,7 @@ public class Appointment {
   // Helper Methods (transient - not persisted)
   @Transient
   public LocalDateTime getEndTime() {
-    return appointmentTime != null ? appointmentTime.plusHours(1) : null;
+    return appointmentTime != null ? appointmentTime.plusMinutes(getDurationMinutes()) : null;
   }
 
   @Transient
@@ -109,4 +145,12 @@ public class Appointment {
   public LocalTime getAppointmentTimeOnly() {
     return appointmentTime != null ? appointmentTime.toLocalTime() : null;
   }
-}
\ No newline at end of file
+
+  public Long getClinicId() {
+    return clinicId;
+  }
+
+  public void setClinicId(Long clinicId) {
+    this.clinicId = clinicId;
+  }
+}
@@ -0,0 +1,98 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated appointment counter: how many appointments of a doctor on
+ * a day went through a given event (booked, completed, ...). Maintained
+ * incrementally by the analytics service, never recomputed from the
+ * appointment table.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "clinicId", "day", "doctorId", "kind" }))
+public class AppointmentRollup {
+
+    public static final String BOOKED = "BOOKED";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String PRESCRIBED = "PRESCRIBED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long clinicId;
+
+    private LocalDate day;
+
+    private Long doctorId;
+
+    private String specialty;
+
+    @Column(length = 16)
+    private String kind;
+
+    private long total;
+
+    // Default constructor (required by JPA)
+    public AppointmentRollup() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getClinicId() {
+        return clinicId;
+    }
+
+    public void setClinicId(Long clinicId) {
+        this.clinicId = clinicId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public void setSpecialty(String specialty) {
+        this.specialty = specialty;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,190 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.TenantId;
+import java.time.LocalDateTime;
+
+/**
+ * Completed appointment moved out of the hot appointment table. Doctor and
+ * patient details are copied in, so history reads need no joins and archived
+ * rows have no foreign keys into the hot tables. The id is the original
+ * appointment id, which prescriptions keep referencing.
+ */
+@Entity
+@Table(indexes = {
+        @Index(columnList = "patientId, appointmentTime"),
+        @Index(columnList = "doctorId")
+})
+public class ArchivedAppointment {
+
+    @Id
+    private Long id;
+
+    // clinic the row belongs to; set and filtered by Hibernate from the session's tenant
+    @TenantId
+    @Column(columnDefinition = "bigint default 0")
+    private Long clinicId;
+
+    private Long doctorId;
+
+    private String doctorName;
+
+    private Long patientId;
+
+    private String patientName;
+
+    private String patientEmail;
+
+    private String patientPhone;
+
+    private String patientAddress;
+
+    private LocalDateTime appointmentTime;
+
+    private int status;
+
+    @Column(length = 500)
+    private String reasonForVisit;
+
+    @Column(length = 1000)
+    private String notes;
+
+    private LocalDateTime archivedAt;
+
+    // Default constructor (required by JPA)
+    public ArchivedAppointment() {
+    }
+
+    /**
+     * Copies an appointment (with doctor and patient loaded) into the archive.
+     */
+    public ArchivedAppointment(Appointment a) {
+        this.id = a.getId();
+        this.clinicId = a.getClinicId();
+        this.doctorId = a.getDoctor().getId();
+        this.doctorName = a.getDoctor().getName();
+        this.patientId = a.getPatient().getId();
+        this.patientName = a.getPatient().getName();
+        this.patientEmail = a.getPatient().getEmail();
+        this.patientPhone = a.getPatient().getPhone();
+        this.patientAddress = a.getPatient().getAddress();
+        this.appointmentTime = a.getAppointmentTime();
+        this.status = a.getStatus();
+        this.reasonForVisit = a.getReasonForVisit();
+        this.notes = a.getNotes();
+        this.archivedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public void setDoctorName(String doctorName) {
+        this.doctorName = doctorName;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public String getPatientName() {
+        return patientName;
+    }
+
+    public void setPatientName(String patientName) {
+        this.patientName = patientName;
+    }
+
+    public String getPatientEmail() {
+        return patientEmail;
+    }
+
+    public void setPatientEmail(String patientEmail) {
+        this.patientEmail = patientEmail;
+    }
+
+    public String getPatientPhone() {
+        return patientPhone;
+    }
+
+    public void setPatientPhone(String patientPhone) {
+        this.patientPhone = patientPhone;
+    }
+
+    public String getPatientAddress() {
+        return patientAddress;
+    }
+
+    public void setPatientAddress(String patientAddress) {
+        this.patientAddress = patientAddress;
+    }
+
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public void setAppointmentTime(LocalDateTime appointmentTime) {
+        this.appointmentTime = appointmentTime;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getReasonForVisit() {
+        return reasonForVisit;
+    }
+
+    public void setReasonForVisit(String reasonForVisit) {
+        this.reasonForVisit = reasonForVisit;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+
+    public Long getClinicId() {
+        return clinicId;
+    }
+
+    public void setClinicId(Long clinicId) {
+        this.clinicId = clinicId;
+    }
+}
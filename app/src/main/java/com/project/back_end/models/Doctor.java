@@ -1,7 +1,9 @@
 package com.project.back_end.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.TenantId;
 import jakarta.validation.constraints.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
@@ -13,6 +15,16 @@ public class Doctor {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
+    // clinic the row belongs to; set and filtered by Hibernate from the session's tenant
+    @JsonIgnore
+    @TenantId
+    @Column(columnDefinition = "bigint default 0")
+    private Long clinicId;
+
     @NotNull(message = "Name is required")
     @Size(min = 3, max = 100, message = "Name must be between 3-100 characters")
     private String name;
@@ -48,6 +60,11 @@ public class Doctor {
     @DecimalMax("5.0")
     private Double rating;
 
+    // set when a delete is requested; rows are purged by a background job
+    @JsonIgnore
+    @Column(columnDefinition = "bit default 0")
+    private boolean deleted;
+
     // Default constructor (required by JPA)
     public Doctor() {
     }
@@ -61,6 +78,14 @@ public class Doctor {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
@@ -132,4 +157,20 @@ public class Doctor {
     public void setRating(Double rating) {
         this.rating = rating;
     }
-}
\ No newline at end of file
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public Long getClinicId() {
+        return clinicId;
+    }
+
+    public void setClinicId(Long clinicId) {
+        this.clinicId = clinicId;
+    }
+}
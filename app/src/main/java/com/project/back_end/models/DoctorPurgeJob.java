@@ -0,0 +1,112 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the background purge of a deleted doctor's appointments and
+ * prescriptions. Persisted so an interrupted purge can be resumed.
+ */
+@Entity
+public class DoctorPurgeJob {
+
+    public static final String PENDING = "PENDING";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long doctorId;
+
+    private String status;
+
+    private long appointmentsDeleted;
+
+    private long prescriptionsDeleted;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    // Default constructor (required by JPA)
+    public DoctorPurgeJob() {
+    }
+
+    public DoctorPurgeJob(Long doctorId) {
+        this.doctorId = doctorId;
+        this.status = PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getAppointmentsDeleted() {
+        return appointmentsDeleted;
+    }
+
+    public void setAppointmentsDeleted(long appointmentsDeleted) {
+        this.appointmentsDeleted = appointmentsDeleted;
+    }
+
+    public long getPrescriptionsDeleted() {
+        return prescriptionsDeleted;
+    }
+
+    public void setPrescriptionsDeleted(long prescriptionsDeleted) {
+        this.prescriptionsDeleted = prescriptionsDeleted;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
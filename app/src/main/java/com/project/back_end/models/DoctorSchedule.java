@@ -0,0 +1,113 @@
+package com.project.back_end.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.hibernate.annotations.TenantId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A doctor's bookable time: weekly working hours, breaks, the slot length
+ * and dated exceptions (days off, extra hours). Weekdays without working
+ * hours are days off. Doctors without a schedule fall back to their
+ * availableTimes.
+ */
+@Entity
+public class DoctorSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
+    @JsonIgnore
+    @TenantId
+    @Column(columnDefinition = "bigint default 0")
+    private Long clinicId;
+
+    @Column(unique = true)
+    private Long doctorId;
+
+    @Min(5)
+    @Max(480)
+    private int slotMinutes = 60;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "doctor_schedule_hours")
+    private List<WorkingHours> workingHours = new ArrayList<>();
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "doctor_schedule_breaks")
+    private List<WorkingHours> breaks = new ArrayList<>();
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "doctor_schedule_exceptions")
+    private List<ScheduleException> exceptions = new ArrayList<>();
+
+    // Default constructor (required by JPA)
+    public DoctorSchedule() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(int slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+
+    public List<WorkingHours> getWorkingHours() {
+        return workingHours;
+    }
+
+    public void setWorkingHours(List<WorkingHours> workingHours) {
+        this.workingHours = workingHours;
+    }
+
+    public List<WorkingHours> getBreaks() {
+        return breaks;
+    }
+
+    public void setBreaks(List<WorkingHours> breaks) {
+        this.breaks = breaks;
+    }
+
+    public List<ScheduleException> getExceptions() {
+        return exceptions;
+    }
+
+    public void setExceptions(List<ScheduleException> exceptions) {
+        this.exceptions = exceptions;
+    }
+}
@@ -0,0 +1,38 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+
+/**
+ * Change counter of one entity type, or of the part of it that belongs to
+ * one doctor, patient or appointment (see EtagService.scope), advanced in the
+ * same transaction as the changes it counts. ETags are built from these rows,
+ * so all nodes hand out the same tag for the same data.
+ */
+@Entity
+@Table(name = "etag_generation")
+public class EtagGeneration {
+
+    @Id
+    @Column(length = 32)
+    private String entity;
+
+    @Column(nullable = false)
+    private long generation;
+
+    // Default constructor (required by JPA)
+    public EtagGeneration() {
+    }
+
+    public EtagGeneration(String entity, long generation) {
+        this.entity = entity;
+        this.generation = generation;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+}
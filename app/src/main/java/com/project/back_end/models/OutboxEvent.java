@@ -0,0 +1,100 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to a doctor, patient or appointment, written in the same
+ * transaction as the change itself and relayed to listeners afterwards.
+ * Rows are deleted once delivered; the id gives the delivery order. A row
+ * whose delivery failed waits until nextAttemptAt, holding back the later
+ * changes of the same entity.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = @Index(columnList = "entityType, entityId"))
+public class OutboxEvent {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String DELETED = "DELETED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // clinic of the changed row; null for changes made outside a clinic
+    private Long clinicId;
+
+    @Column(nullable = false, length = 32)
+    private String entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false, length = 16)
+    private String action;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // failed deliveries so far, and when to try again
+    @Column(columnDefinition = "int default 0")
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    // Default constructor (required by JPA)
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(Long clinicId, String entityType, Long entityId, String action, LocalDateTime createdAt) {
+        this.clinicId = clinicId;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.action = action;
+        this.createdAt = createdAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getClinicId() {
+        return clinicId;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    // Setters
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
@@ -1,6 +1,8 @@
 package com.project.back_end.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.TenantId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -13,6 +15,16 @@ public class Patient {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
+    // clinic the row belongs to; set and filtered by Hibernate from the session's tenant
+    @JsonIgnore
+    @TenantId
+    @Column(columnDefinition = "bigint default 0")
+    private Long clinicId;
+
     @NotNull(message = "Name is required")
     @Size(min = 3, max = 100, message = "Name must be 3-100 characters")
     private String name;
@@ -58,6 +70,14 @@ public class Patient {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
@@ -121,4 +141,12 @@ public class Patient {
     public void setInsuranceProvider(String insuranceProvider) {
         this.insuranceProvider = insuranceProvider;
     }
-}
\ No newline at end of file
+
+    public Long getClinicId() {
+        return clinicId;
+    }
+
+    public void setClinicId(Long clinicId) {
+        this.clinicId = clinicId;
+    }
+}
@@ -1,5 +1,6 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.*;
@@ -35,6 +36,14 @@ public class Prescription {
   @Size(max = 100)
   private String pharmacyName;
 
+  // clinic of the appointment; documents from before tenancy have none (clinic 0)
+  @JsonIgnore
+  private Long clinicId;
+
+  // lower-cased medication, for indexed prefix lookups
+  @JsonIgnore
+  private String medicationKey;
+
   // Default constructor (required by Spring Data)
   public Prescription() {
   }
@@ -43,8 +52,8 @@ public class Prescription {
   public Prescription(String patientName, Long appointmentId, String medication, String dosage) {
     this.patientName = patientName;
     this.appointmentId = appointmentId;
-    this.medication = medication;
     this.dosage = dosage;
+    setMedication(medication);
   }
 
   // Getters and Setters
@@ -78,6 +87,7 @@ public class Prescription {
 
   public void setMedication(String medication) {
     this.medication = medication;
+    this.medicationKey = medication != null ? medication.trim().toLowerCase() : null;
   }
 
   public String getDosage() {
@@ -111,4 +121,16 @@ public class Prescription {
   public void setPharmacyName(String pharmacyName) {
     this.pharmacyName = pharmacyName;
   }
-}
\ No newline at end of file
+
+  public Long getClinicId() {
+    return clinicId;
+  }
+
+  public void setClinicId(Long clinicId) {
+    this.clinicId = clinicId;
+  }
+
+  public String getMedicationKey() {
+    return medicationKey;
+  }
+}
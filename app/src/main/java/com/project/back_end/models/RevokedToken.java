@@ -0,0 +1,55 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A revoked refresh token, identified by its JWT id. Rows can be purged
+ * once the token would have expired anyway.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "expiresAt"))
+public class RevokedToken {
+
+    @Id
+    private Long id;
+
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime revokedAt;
+
+    // Default constructor (required by JPA)
+    public RevokedToken() {
+    }
+
+    public RevokedToken(Long id, LocalDateTime expiresAt) {
+        this.id = id;
+        this.expiresAt = expiresAt;
+        this.revokedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
@@ -0,0 +1,168 @@
+package com.project.back_end.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A patient's interest in any free slot of a doctor within a date range.
+ * When a slot frees up it is offered to the waiting entry with the highest
+ * priority (oldest first on ties) and held for it until the offer expires.
+ */
+@Entity
+@Table(indexes = {
+        @Index(columnList = "doctorId, status, priority, createdAt"),
+        @Index(columnList = "doctorId, offeredSlot"),
+        @Index(columnList = "patientId")
+})
+public class WaitlistEntry {
+
+    public static final String WAITING = "WAITING";
+    public static final String OFFERED = "OFFERED";
+    public static final String BOOKED = "BOOKED";
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
+    @JsonIgnore
+    @TenantId
+    @Column(columnDefinition = "bigint default 0")
+    private Long clinicId;
+
+    private Long patientId;
+
+    private Long doctorId;
+
+    private LocalDate fromDate;
+
+    private LocalDate toDate;
+
+    private int priority;
+
+    private String status;
+
+    private LocalDateTime offeredSlot;
+
+    private LocalDateTime offerExpiresAt;
+
+    private LocalDateTime createdAt;
+
+    // Default constructor (required by JPA)
+    public WaitlistEntry() {
+    }
+
+    public WaitlistEntry(Long patientId, Long doctorId, LocalDate fromDate, LocalDate toDate) {
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.status = WAITING;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getClinicId() {
+        return clinicId;
+    }
+
+    public void setClinicId(Long clinicId) {
+        this.clinicId = clinicId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public void setToDate(LocalDate toDate) {
+        this.toDate = toDate;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getOfferedSlot() {
+        return offeredSlot;
+    }
+
+    public void setOfferedSlot(LocalDateTime offeredSlot) {
+        this.offeredSlot = offeredSlot;
+    }
+
+    public LocalDateTime getOfferExpiresAt() {
+        return offerExpiresAt;
+    }
+
+    public void setOfferExpiresAt(LocalDateTime offerExpiresAt) {
+        this.offerExpiresAt = offerExpiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.Embeddable;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * A recurring weekly time window of a doctor's schedule (working hours or
+ * a break). A break without a day applies to every day.
+ */
+@Embeddable
+public class WorkingHours {
+
+    private DayOfWeek dayOfWeek;
+
+    private LocalTime startTime;
+
+    private LocalTime endTime;
+
+    // Default constructor (required by JPA)
+    public WorkingHours() {
+    }
+
+    public WorkingHours(DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    // Getters and Setters
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+}
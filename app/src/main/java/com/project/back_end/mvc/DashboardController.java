@@ -1,9 +1,13 @@
 package com.project.back_end.mvc;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.project.back_end.services.CentralService;
 
@@ -15,40 +19,50 @@ import com.project.back_end.services.CentralService;
 public class DashboardController {
 
     private final CentralService centralService;
+    private final DashboardShells shells;
 
-    public DashboardController(CentralService centralService) {
+    public DashboardController(CentralService centralService, DashboardShells shells) {
         this.centralService = centralService;
+        this.shells = shells;
     }
 
     /**
      * Handles GET requests to /adminDashboard/{token}. Validates the token for the
      * ADMIN role.
-     * Forwards to the admin dashboard view on success, or redirects to root on
-     * failure.
+     * Serves the pre-rendered admin dashboard shell on success, or redirects to
+     * root on failure.
      */
     @GetMapping("/adminDashboard/{token}")
-    public ModelAndView adminDashboard(@PathVariable String token) {
-        var response = centralService.validateToken(token, "ADMIN");
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return new ModelAndView("admin/adminDashboard");
+    public ResponseEntity<byte[]> adminDashboard(@PathVariable String token, HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
+        var validation = centralService.validateToken(token, "ADMIN");
+        if (validation.getStatusCode().is2xxSuccessful()) {
+            return shells.serve("admin/adminDashboard", request, response);
         } else {
-            return new ModelAndView("redirect:/");
+            return redirectToRoot(request);
         }
     }
 
     /**
      * Handles GET requests to /doctorDashboard/{token}. Validates the token for the
      * DOCTOR role.
-     * Forwards to the doctor dashboard view on success, or redirects to root on
-     * failure.
+     * Serves the pre-rendered doctor dashboard shell on success, or redirects to
+     * root on failure.
      */
     @GetMapping("/doctorDashboard/{token}")
-    public ModelAndView doctorDashboard(@PathVariable String token) {
-        var response = centralService.validateToken(token, "DOCTOR");
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return new ModelAndView("doctor/doctorDashboard");
+    public ResponseEntity<byte[]> doctorDashboard(@PathVariable String token, HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
+        var validation = centralService.validateToken(token, "DOCTOR");
+        if (validation.getStatusCode().is2xxSuccessful()) {
+            return shells.serve("doctor/doctorDashboard", request, response);
         } else {
-            return new ModelAndView("redirect:/");
+            return redirectToRoot(request);
         }
     }
+
+    private static ResponseEntity<byte[]> redirectToRoot(HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(ServletUriComponentsBuilder.fromContextPath(request).path("/").build().toUri())
+                .build();
+    }
 }
@@ -0,0 +1,91 @@
+package com.project.back_end.mvc;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.View;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The dashboards are static shells (all data is fetched by their scripts),
+ * so each is rendered once, through the regular Thymeleaf view so asset
+ * links come out fingerprinted, and kept as plain and gzip bytes with a
+ * content ETag. Repeat visits revalidate and get a bodiless 304.
+ *
+ * The shell URL carries the caller's token and is checked on every request,
+ * so it is cached privately and revalidated rather than cached for long;
+ * the scripts and styles it links are the long-lived, fingerprinted part.
+ * With template caching off (devtools) shells are rendered per request.
+ */
+@Component
+class DashboardShells {
+
+    private record Shell(byte[] html, byte[] gzip, String etag) {
+    }
+
+    private final ThymeleafViewResolver viewResolver;
+    private final boolean cache;
+    private final Map<String, Shell> shells = new ConcurrentHashMap<>();
+
+    DashboardShells(ThymeleafViewResolver viewResolver,
+            @Value("${spring.thymeleaf.cache:true}") boolean cache) {
+        this.viewResolver = viewResolver;
+        this.cache = cache;
+    }
+
+    ResponseEntity<byte[]> serve(String viewName, HttpServletRequest request, HttpServletResponse response)
+            throws Exception {
+        Shell shell = shells.get(viewName);
+        if (shell == null) {
+            shell = render(viewName, request, response);
+            if (cache)
+                shells.put(viewName, shell);
+        }
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .eTag(gzip ? shell.etag() + "-gz" : shell.etag());
+        if (gzip)
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(shell.gzip());
+        return builder.body(shell.html());
+    }
+
+    private Shell render(String viewName, HttpServletRequest request, HttpServletResponse response)
+            throws Exception {
+        View view = viewResolver.resolveViewName(viewName, request.getLocale());
+        if (view == null)
+            throw new IllegalStateException("No view " + viewName);
+        ContentCachingResponseWrapper capture = new ContentCachingResponseWrapper(response);
+        view.render(Map.of(), request, capture);
+        byte[] html = capture.getContentAsByteArray();
+        return new Shell(html, gzip(html), DigestUtils.md5DigestAsHex(html));
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,14 +1,20 @@
 package com.project.back_end.repo;
 
 import com.project.back_end.models.Appointment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Appointment entity, providing CRUD operations
@@ -19,17 +25,36 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 
       /**
        * Retrieve appointments for a doctor within a given time range,
-       * eagerly fetching doctor and availability data.
+       * eagerly fetching doctor and patient data.
        */
       @Query("SELECT a FROM Appointment a " +
                   "LEFT JOIN FETCH a.doctor d " +
-                  "LEFT JOIN FETCH d.availability av " +
+                  "LEFT JOIN FETCH a.patient p " +
                   "WHERE a.doctor.id = :doctorId " +
                   "AND a.appointmentTime BETWEEN :start AND :end")
       List<Appointment> findByDoctorIdAndAppointmentTimeBetween(Long doctorId,
                   LocalDateTime start,
                   LocalDateTime end);
 
+      /**
+       * Start and length of a doctor's appointments starting within
+       * [start, end), as (appointmentTime, durationMinutes) rows; no entities
+       * are loaded.
+       */
+      @Query("SELECT a.appointmentTime, a.durationMinutes FROM Appointment a " +
+                  "WHERE a.doctor.id = :doctorId " +
+                  "AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+      List<Object[]> findBusyTimes(Long doctorId, LocalDateTime start, LocalDateTime end);
+
+      /**
+       * Busy times of several doctors at once, as (doctorId, appointmentTime,
+       * durationMinutes) rows of appointments starting within [start, end).
+       */
+      @Query("SELECT a.doctor.id, a.appointmentTime, a.durationMinutes FROM Appointment a " +
+                  "WHERE a.doctor.id IN :doctorIds " +
+                  "AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+      List<Object[]> findBusyTimesByDoctorIds(List<Long> doctorIds, LocalDateTime start, LocalDateTime end);
+
       /**
        * Retrieve appointments by doctor ID, partial patient name (case-insensitive),
        * and time range,
@@ -48,11 +73,76 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
                   LocalDateTime end);
 
       /**
-       * Delete all appointments related to a specific doctor.
+       * Stream a doctor's appointments within a time range, ordered by time and
+       * optionally filtered by partial patient name (case-insensitive). The
+       * MySQL driver only streams rows with a fetch size of Integer.MIN_VALUE.
+       * Must be consumed inside a transaction.
+       */
+      @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+      @Query("SELECT a FROM Appointment a " +
+                  "JOIN FETCH a.doctor d " +
+                  "JOIN FETCH a.patient p " +
+                  "WHERE a.doctor.id = :doctorId " +
+                  "AND (:patientName IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%'))) " +
+                  "AND a.appointmentTime BETWEEN :start AND :end " +
+                  "ORDER BY a.appointmentTime")
+      Stream<Appointment> streamByDoctorIdAndPatientNameAndAppointmentTimeBetween(Long doctorId,
+                  String patientName,
+                  LocalDateTime start,
+                  LocalDateTime end);
+
+      /**
+       * Stream ids and times of scheduled appointments after a point in time
+       * (used to load the reminder wheel). Must be consumed inside a
+       * transaction.
+       */
+      @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+      @Query("SELECT a.id, a.appointmentTime FROM Appointment a " +
+                  "WHERE a.status = 0 AND a.appointmentTime > :from")
+      Stream<Object[]> streamScheduledAfter(LocalDateTime from);
+
+      /**
+       * Stream ids and times of scheduled appointments in [from, to) (used to
+       * resync the reminders coming up soon). Must be consumed inside a
+       * transaction.
+       */
+      @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+      @Query("SELECT a.id, a.appointmentTime FROM Appointment a " +
+                  "WHERE a.status = 0 AND a.appointmentTime >= :from AND a.appointmentTime < :to")
+      Stream<Object[]> streamScheduledBetween(LocalDateTime from, LocalDateTime to);
+
+      /**
+       * Ids and times of those of the given appointments that are still
+       * scheduled; missing ids were cancelled, completed or removed.
+       */
+      @Query("SELECT a.id, a.appointmentTime FROM Appointment a WHERE a.status = 0 AND a.id IN :ids")
+      List<Object[]> findScheduledTimes(Collection<Long> ids);
+
+      /**
+       * Fetch the next chunk of appointment ids for a doctor (used by the
+       * background purge, which deletes chunk by chunk).
+       */
+      @Query("SELECT a.id FROM Appointment a WHERE a.doctor.id = :doctorId ORDER BY a.id")
+      List<Long> findIdsByDoctorId(Long doctorId, Pageable page);
+
+      /**
+       * Fetch the next chunk of completed appointments older than the cutoff,
+       * with doctor and patient, for archiving.
+       */
+      @Query("SELECT a FROM Appointment a " +
+                  "JOIN FETCH a.doctor d " +
+                  "JOIN FETCH a.patient p " +
+                  "WHERE a.status = :status AND a.appointmentTime < :cutoff " +
+                  "ORDER BY a.id")
+      List<Appointment> findForArchive(int status, LocalDateTime cutoff, Pageable page);
+
+      /**
+       * Bulk delete appointments by id in a single statement.
        */
       @Modifying
       @Transactional
-      void deleteAllByDoctorId(Long doctorId);
+      @Query("DELETE FROM Appointment a WHERE a.id IN :ids")
+      int deleteAllByIdIn(List<Long> ids);
 
       /**
        * Find all appointments for a specific patient.
@@ -83,10 +173,10 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
       List<Appointment> filterByDoctorNameAndPatientIdAndStatus(String doctorName, Long patientId, int status);
 
       /**
-       * Update the status of a specific appointment.
+       * Update the status of a specific appointment, bumping its version.
        */
       @Modifying
       @Transactional
-      @Query("UPDATE Appointment a SET a.status = :status WHERE a.id = :id")
+      @Query("UPDATE Appointment a SET a.status = :status, a.version = a.version + 1 WHERE a.id = :id")
       void updateStatus(int status, Long id);
 }
@@ -0,0 +1,31 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.AppointmentRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for appointment rollup counters.
+ */
+@Repository
+public interface AppointmentRollupRepository extends JpaRepository<AppointmentRollup, Long> {
+
+    /**
+     * All counters of a clinic for one day (served by the unique index).
+     */
+    List<AppointmentRollup> findByClinicIdAndDay(Long clinicId, LocalDate day);
+
+    /**
+     * Adds a delta to a counter, creating it if needed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO appointment_rollup (clinic_id, day, doctor_id, specialty, kind, total) "
+            + "VALUES (:clinicId, :day, :doctorId, :specialty, :kind, :delta) "
+            + "ON DUPLICATE KEY UPDATE total = total + :delta, specialty = :specialty", nativeQuery = true)
+    void add(Long clinicId, LocalDate day, Long doctorId, String specialty, String kind, long delta);
+}
@@ -0,0 +1,47 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.ArchivedAppointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository interface for the archive tier of completed appointments.
+ */
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    /**
+     * Find all archived appointments of a patient, oldest first.
+     */
+    List<ArchivedAppointment> findByPatientIdOrderByAppointmentTimeAsc(Long patientId);
+
+    /**
+     * Filter archived appointments by partial doctor name (case-insensitive) and
+     * patient ID.
+     */
+    @Query("SELECT a FROM ArchivedAppointment a " +
+            "WHERE LOWER(a.doctorName) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
+            "AND a.patientId = :patientId " +
+            "ORDER BY a.appointmentTime")
+    List<ArchivedAppointment> filterByDoctorNameAndPatientId(String doctorName, Long patientId);
+
+    /**
+     * Fetch the next chunk of archived appointment ids of a doctor.
+     */
+    @Query("SELECT a.id FROM ArchivedAppointment a WHERE a.doctorId = :doctorId ORDER BY a.id")
+    List<Long> findIdsByDoctorId(Long doctorId, Pageable page);
+
+    /**
+     * Bulk delete archived appointments by id.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ArchivedAppointment a WHERE a.id IN :ids")
+    int deleteAllByIdIn(List<Long> ids);
+}
@@ -0,0 +1,30 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.DoctorPurgeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for doctor purge jobs.
+ */
+@Repository
+public interface DoctorPurgeJobRepository extends JpaRepository<DoctorPurgeJob, Long> {
+
+    /**
+     * Find the most recent purge job of a doctor.
+     *
+     * @param doctorId the doctor id
+     * @return the latest job, or null if the doctor was never deleted
+     */
+    DoctorPurgeJob findFirstByDoctorIdOrderByIdDesc(Long doctorId);
+
+    /**
+     * Find jobs in the given states (used to resume after a restart).
+     *
+     * @param statuses job states
+     * @return matching jobs
+     */
+    List<DoctorPurgeJob> findByStatusIn(List<String> statuses);
+}
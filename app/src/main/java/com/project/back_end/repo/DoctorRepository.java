@@ -1,11 +1,16 @@
 package com.project.back_end.repo;
 
 import com.project.back_end.models.Doctor;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Doctor entity, providing CRUD operations
@@ -15,20 +20,29 @@ import java.util.List;
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 
       /**
-       * Find a doctor by their email address.
+       * Find a doctor by their email address, ignoring doctors pending deletion.
        *
        * @param email the email of the doctor
        * @return the Doctor entity matching the given email, or null if none found
        */
+      @Query("SELECT d FROM Doctor d WHERE d.email = :email AND d.deleted = false")
       Doctor findByEmail(String email);
 
+      /**
+       * Find all doctors that are not pending deletion.
+       *
+       * @return list of active Doctor entities
+       */
+      @Query("SELECT d FROM Doctor d WHERE d.deleted = false")
+      List<Doctor> findAllActive();
+
       /**
        * Find doctors whose names contain the given string (case-sensitive).
        *
        * @param name the substring to match within doctor names
        * @return list of matching Doctor entities
        */
-      @Query("SELECT d FROM Doctor d WHERE d.name LIKE CONCAT('%', :name, '%')")
+      @Query("SELECT d FROM Doctor d WHERE d.name LIKE CONCAT('%', :name, '%') AND d.deleted = false")
       List<Doctor> findByNameLike(String name);
 
       /**
@@ -41,7 +55,8 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
        */
       @Query("SELECT d FROM Doctor d " +
                   "WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%')) " +
-                  "AND LOWER(d.specialty) = LOWER(:specialty)")
+                  "AND LOWER(d.specialty) = LOWER(:specialty) " +
+                  "AND d.deleted = false")
       List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(String name, String specialty);
 
       /**
@@ -50,5 +65,43 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
        * @param specialty the specialty to match (ignore case)
        * @return list of matching Doctor entities
        */
+      @Query("SELECT d FROM Doctor d WHERE LOWER(d.specialty) = LOWER(:specialty) AND d.deleted = false")
       List<Doctor> findBySpecialtyIgnoreCase(String specialty);
+
+      /**
+       * Ids of the active doctors of a specialty (case-insensitive).
+       */
+      @Query("SELECT d.id FROM Doctor d WHERE LOWER(d.specialty) = LOWER(:specialty) AND d.deleted = false")
+      List<Long> findIdsBySpecialtyIgnoreCase(String specialty);
+
+      /**
+       * Soft-delete a doctor so it disappears from searches and logins
+       * immediately, before its data is purged.
+       *
+       * @param id the doctor id
+       * @return number of rows updated
+       */
+      @Modifying
+      @Transactional
+      @Query("UPDATE Doctor d SET d.deleted = true WHERE d.id = :id AND d.deleted = false")
+      int markDeleted(Long id);
+
+      /**
+       * Whether the doctor exists and has not been soft-deleted.
+       *
+       * @param id the doctor id
+       * @return true if the doctor is active
+       */
+      boolean existsByIdAndDeletedFalse(Long id);
+
+      /**
+       * Loads the doctor with a row lock held until the transaction ends,
+       * serializing work on the doctor's slots across nodes.
+       *
+       * @param id the doctor id
+       * @return the locked doctor, if it exists
+       */
+      @Lock(LockModeType.PESSIMISTIC_WRITE)
+      @Query("SELECT d FROM Doctor d WHERE d.id = :id")
+      Optional<Doctor> lockById(Long id);
 }
@@ -0,0 +1,20 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.DoctorSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for doctor schedules.
+ */
+@Repository
+public interface DoctorScheduleRepository extends JpaRepository<DoctorSchedule, Long> {
+
+    /**
+     * Find the schedule of a doctor.
+     *
+     * @param doctorId the doctor id
+     * @return the schedule, or null if the doctor has none
+     */
+    DoctorSchedule findByDoctorId(Long doctorId);
+}
@@ -0,0 +1,13 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.EtagGeneration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for the ETag generation counters; they are
+ * advanced by EtagService over JDBC.
+ */
+@Repository
+public interface EtagGenerationRepository extends JpaRepository<EtagGeneration, String> {
+}
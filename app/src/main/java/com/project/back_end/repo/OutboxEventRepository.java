@@ -0,0 +1,41 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for the transactional outbox.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Oldest undelivered events that are due, locked so that relays on other
+     * nodes wait instead of delivering the same events out of order. Events
+     * queued behind a failed, not yet due event of the same entity are left
+     * out.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e WHERE (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) "
+            + "AND NOT EXISTS (SELECT b.id FROM OutboxEvent b WHERE b.entityType = e.entityType "
+            + "AND b.entityId = e.entityId AND b.id < e.id AND b.nextAttemptAt > :now) ORDER BY e.id")
+    List<OutboxEvent> lockBatch(LocalDateTime now, Pageable page);
+
+    /**
+     * Remove delivered events.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteAllByIdIn(List<Long> ids);
+}
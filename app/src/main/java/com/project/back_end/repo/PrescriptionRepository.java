@@ -20,4 +20,20 @@ public interface PrescriptionRepository extends MongoRepository<Prescription, St
      * @return list of Prescription documents matching the appointment ID
      */
     List<Prescription> findByAppointmentId(Long appointmentId);
+
+    /**
+     * Find all prescriptions of the given appointments.
+     *
+     * @param appointmentIds the appointment IDs
+     * @return matching Prescription documents
+     */
+    List<Prescription> findByAppointmentIdIn(List<Long> appointmentIds);
+
+    /**
+     * Delete all prescriptions of the given appointments.
+     *
+     * @param appointmentIds the appointment IDs
+     * @return number of documents deleted
+     */
+    long deleteByAppointmentIdIn(List<Long> appointmentIds);
 }
@@ -0,0 +1,32 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Prescription;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to Prescription documents through the reactive Mongo
+ * driver; used by the reactive prescription endpoints alongside the
+ * blocking {@link PrescriptionRepository}.
+ */
+@Repository
+public interface ReactivePrescriptionRepository extends ReactiveMongoRepository<Prescription, String> {
+
+    /**
+     * Find all prescriptions associated with a specific appointment.
+     *
+     * @param appointmentId the ID of the appointment
+     * @return the matching Prescription documents
+     */
+    Flux<Prescription> findByAppointmentId(Long appointmentId);
+
+    /**
+     * Whether the appointment already has a prescription.
+     *
+     * @param appointmentId the ID of the appointment
+     * @return true if one exists
+     */
+    Mono<Boolean> existsByAppointmentId(Long appointmentId);
+}
@@ -0,0 +1,47 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for revoked refresh tokens.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /**
+     * Ids of revoked tokens that have not expired yet and were revoked after
+     * the given instant (used to (re)build the in-memory Bloom filter).
+     */
+    @Query("SELECT r.id FROM RevokedToken r WHERE r.expiresAt > :now AND r.revokedAt >= :since")
+    List<Long> findActiveIdsRevokedSince(LocalDateTime now, LocalDateTime since);
+
+    /**
+     * Records a revocation with a plain INSERT, so of two concurrent attempts
+     * to revoke the same token exactly one succeeds and the other fails on
+     * the primary key.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException if the
+     *         token was already revoked
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO revoked_token (id, expires_at, revoked_at) VALUES (:id, :expiresAt, :revokedAt)",
+            nativeQuery = true)
+    int insert(long id, LocalDateTime expiresAt, LocalDateTime revokedAt);
+
+    /**
+     * Delete revocations of tokens that have expired anyway.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
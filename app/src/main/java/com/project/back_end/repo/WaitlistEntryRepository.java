@@ -0,0 +1,61 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.WaitlistEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for waitlist entries.
+ */
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    /**
+     * Head of a doctor's queue for a day: waiting entries covering the day,
+     * highest priority first, then oldest first.
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.doctorId = :doctorId AND w.status = 'WAITING' "
+            + "AND w.fromDate <= :day AND w.toDate >= :day ORDER BY w.priority DESC, w.createdAt ASC, w.id ASC")
+    List<WaitlistEntry> findQueueHead(Long doctorId, LocalDate day, Pageable page);
+
+    /**
+     * Slots of a doctor currently held for an offered entry.
+     */
+    @Query("SELECT w.offeredSlot FROM WaitlistEntry w WHERE w.doctorId = :doctorId AND w.status = 'OFFERED' "
+            + "AND w.offerExpiresAt > :now AND w.offeredSlot BETWEEN :start AND :end")
+    List<LocalDateTime> findHeldSlots(Long doctorId, LocalDateTime start, LocalDateTime end, LocalDateTime now);
+
+    /**
+     * Slots of several doctors currently held for offered entries, as
+     * (doctorId, offeredSlot) rows.
+     */
+    @Query("SELECT w.doctorId, w.offeredSlot FROM WaitlistEntry w WHERE w.doctorId IN :doctorIds "
+            + "AND w.status = 'OFFERED' AND w.offerExpiresAt > :now AND w.offeredSlot BETWEEN :start AND :end")
+    List<Object[]> findHeldSlotsByDoctorIds(List<Long> doctorIds, LocalDateTime start, LocalDateTime end,
+            LocalDateTime now);
+
+    /**
+     * Offers whose hold has run out.
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.status = 'OFFERED' AND w.offerExpiresAt <= :now")
+    List<WaitlistEntry> findExpiredOffers(LocalDateTime now, Pageable page);
+
+    /**
+     * Open (waiting or offered) entries of a patient.
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.patientId = :patientId AND w.status IN ('WAITING', 'OFFERED') "
+            + "ORDER BY w.createdAt")
+    List<WaitlistEntry> findOpenByPatientId(Long patientId);
+
+    /**
+     * Waiting entries whose whole range has passed.
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.status = 'WAITING' AND w.toDate < :today")
+    List<WaitlistEntry> findLapsed(LocalDate today, Pageable page);
+}
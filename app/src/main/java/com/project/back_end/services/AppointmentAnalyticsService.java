@@ -0,0 +1,248 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.AppointmentRollup;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.AppointmentRollupRepository;
+import com.project.back_end.repo.DoctorRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appointment volume per doctor, specialty and day, kept as pre-aggregated
+ * counters instead of queries over the appointment table.
+ *
+ * Booking, rescheduling, cancelling, completing and prescribing bump a
+ * {@link LongAdder} per (clinic, day, doctor, event) once their transaction
+ * commits; a periodic flush adds the accumulated deltas to the
+ * appointment_rollup table, so every node only ever adds and no counter is
+ * recomputed. Reads are one indexed lookup of the day's rollup rows plus
+ * this node's unflushed deltas, independent of how many appointments exist.
+ */
+@Service
+public class AppointmentAnalyticsService {
+
+    private record Key(Long clinicId, LocalDate day, Long doctorId, String kind) {
+    }
+
+    /** Running count on this node; flushed is only touched by the flusher. */
+    private static final class Counter {
+        final LongAdder adder = new LongAdder();
+        volatile long flushed;
+
+        long unflushed() {
+            return adder.sum() - flushed;
+        }
+    }
+
+    private final AppointmentRollupRepository rollupRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final InvalidationBus invalidationBus;
+    private final TransactionTemplate tx;
+    private final ConcurrentHashMap<Key, Counter> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> specialties = new ConcurrentHashMap<>();
+
+    /**
+     * Clinic of counters recorded without one: a NULL clinic_id would never
+     * match the unique key, so every flush would insert a fresh row.
+     */
+    @Value("${app.tenancy.default-clinic:0}")
+    private long defaultClinic;
+
+    public AppointmentAnalyticsService(AppointmentRollupRepository rollupRepository,
+            AppointmentRepository appointmentRepository,
+            DoctorRepository doctorRepository,
+            InvalidationBus invalidationBus,
+            PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.invalidationBus = invalidationBus;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void init() {
+        invalidationBus.subscribe(event -> {
+            if (EntityChangeEvent.DOCTOR.equals(event.entity())) {
+                if (event.id() != null)
+                    specialties.remove(event.id());
+                else
+                    specialties.clear();
+            }
+        });
+    }
+
+    /**
+     * Counts an event of the appointment once the current transaction
+     * commits; delta is -1 to take back an earlier event (rescheduling).
+     */
+    public void record(Appointment appointment, String kind, long delta) {
+        if (appointment == null || appointment.getDoctor() == null || appointment.getAppointmentTime() == null)
+            return;
+        Key key = new Key(clinic(), appointment.getAppointmentTime().toLocalDate(),
+                appointment.getDoctor().getId(), kind);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(key, delta);
+                }
+            });
+        } else {
+            add(key, delta);
+        }
+    }
+
+    /**
+     * Counts a saved prescription against its appointment's doctor and day.
+     */
+    public void recordPrescribed(Long appointmentId) {
+        if (appointmentId != null)
+            appointmentRepository.findById(appointmentId)
+                    .ifPresent(a -> record(a, AppointmentRollup.PRESCRIBED, 1));
+    }
+
+    private void add(Key key, long delta) {
+        pending.computeIfAbsent(key, k -> new Counter()).adder.add(delta);
+    }
+
+    /**
+     * Adds the deltas collected since the last flush to the rollup table,
+     * one transaction per clinic. Deltas of a failed write stay pending.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.flush-ms:10000}")
+    public synchronized void flush() {
+        Map<Long, Map<Key, Long>> byClinic = new HashMap<>();
+        LocalDate stale = LocalDate.now().minusDays(2);
+        for (Map.Entry<Key, Counter> e : pending.entrySet()) {
+            long total = e.getValue().adder.sum();
+            long delta = total - e.getValue().flushed;
+            if (delta != 0) {
+                byClinic.computeIfAbsent(e.getKey().clinicId(), c -> new HashMap<>()).put(e.getKey(), total);
+            } else if (e.getKey().day().isBefore(stale)) {
+                // past days rarely change again: drop idle counters to bound the map
+                pending.remove(e.getKey(), e.getValue());
+            }
+        }
+        byClinic.forEach((clinic, totals) -> {
+            Long previous = TenantContext.currentClinic();
+            TenantContext.setClinic(clinic);
+            try {
+                tx.executeWithoutResult(status -> totals.forEach((key, total) -> rollupRepository.add(
+                        clinic, key.day(), key.doctorId(), specialtyOf(key.doctorId()), key.kind(),
+                        total - pending.get(key).flushed)));
+                totals.forEach((key, total) -> pending.get(key).flushed = total);
+            } catch (RuntimeException ex) {
+                // retried with the next flush
+            } finally {
+                TenantContext.setClinic(previous);
+            }
+        });
+    }
+
+    /**
+     * Appointment volume and rates of the current clinic on one day, per
+     * doctor, per specialty and in total.
+     */
+    public Map<String, Object> dailyReport(LocalDate day) {
+        Long clinic = clinic();
+        Map<Long, Map<String, Long>> doctors = new TreeMap<>();
+        Map<Long, String> doctorSpecialty = new HashMap<>();
+        for (AppointmentRollup r : rollupRepository.findByClinicIdAndDay(clinic, day)) {
+            doctors.computeIfAbsent(r.getDoctorId(), d -> new HashMap<>()).merge(r.getKind(), r.getTotal(), Long::sum);
+            doctorSpecialty.put(r.getDoctorId(), r.getSpecialty());
+        }
+        // this node's deltas that have not been flushed yet
+        pending.forEach((key, counter) -> {
+            if (key.day().equals(day) && Objects.equals(key.clinicId(), clinic))
+                doctors.computeIfAbsent(key.doctorId(), d -> new HashMap<>()).merge(key.kind(), counter.unflushed(),
+                        Long::sum);
+        });
+
+        boolean past = day.isBefore(LocalDate.now());
+        List<Map<String, Object>> perDoctor = new ArrayList<>();
+        Map<String, Map<String, Long>> perSpecialty = new TreeMap<>();
+        Map<String, Long> totals = new HashMap<>();
+        doctors.forEach((doctorId, counts) -> {
+            String specialty = doctorSpecialty.containsKey(doctorId) ? doctorSpecialty.get(doctorId)
+                    : specialtyOf(doctorId);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("doctorId", doctorId);
+            row.put("specialty", specialty);
+            row.putAll(summary(counts, past));
+            perDoctor.add(row);
+            counts.forEach((kind, n) -> {
+                perSpecialty.computeIfAbsent(String.valueOf(specialty), s -> new HashMap<>()).merge(kind, n, Long::sum);
+                totals.merge(kind, n, Long::sum);
+            });
+        });
+        Map<String, Object> specialtyReport = new LinkedHashMap<>();
+        perSpecialty.forEach((specialty, counts) -> specialtyReport.put(specialty, summary(counts, past)));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("date", day.toString());
+        report.put("totals", summary(totals, past));
+        report.put("specialties", specialtyReport);
+        report.put("doctors", perDoctor);
+        return report;
+    }
+
+    /**
+     * Counters plus completion and no-show rates; appointments of a past day
+     * that were neither completed nor cancelled count as no-shows.
+     */
+    private static Map<String, Object> summary(Map<String, Long> counts, boolean past) {
+        long booked = counts.getOrDefault(AppointmentRollup.BOOKED, 0L);
+        long completed = counts.getOrDefault(AppointmentRollup.COMPLETED, 0L);
+        long cancelled = counts.getOrDefault(AppointmentRollup.CANCELLED, 0L);
+        long prescribed = counts.getOrDefault(AppointmentRollup.PRESCRIBED, 0L);
+        long kept = Math.max(0, booked - cancelled);
+        long noShows = past ? Math.max(0, kept - completed) : 0;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("booked", booked);
+        summary.put("completed", completed);
+        summary.put("cancelled", cancelled);
+        summary.put("prescribed", prescribed);
+        summary.put("noShows", noShows);
+        summary.put("completionRate", kept > 0 ? (double) completed / kept : 0.0);
+        summary.put("noShowRate", kept > 0 ? (double) noShows / kept : 0.0);
+        return summary;
+    }
+
+    private Long clinic() {
+        Long clinic = TenantContext.currentClinic();
+        return clinic != null ? clinic : defaultClinic;
+    }
+
+    private String specialtyOf(Long doctorId) {
+        if (doctorId == null)
+            return null;
+        String cached = specialties.get(doctorId);
+        if (cached != null)
+            return cached;
+        String specialty = doctorRepository.findById(doctorId).map(d -> d.getSpecialty()).orElse(null);
+        if (specialty != null)
+            specialties.put(doctorId, specialty);
+        return specialty;
+    }
+}
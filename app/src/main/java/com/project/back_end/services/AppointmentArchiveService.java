@@ -0,0 +1,90 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.ArchivedAppointment;
+import com.project.back_end.models.OutboxEvent;
+import com.project.back_end.repo.AppointmentRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves completed appointments older than a threshold from the hot
+ * appointment table into the archived_appointment table, so the table
+ * scanned by availability and dashboard queries (and its indexes) stays
+ * small. Each chunk is copied and deleted in one short transaction.
+ */
+@Service
+public class AppointmentArchiveService {
+
+    private static final int COMPLETED = 1;
+
+    private final AppointmentRepository appointmentRepository;
+    private final TransactionTemplate tx;
+    private final EntityManager entityManager;
+    private final OutboxService outboxService;
+
+    @Value("${app.archive.older-than-days:90}")
+    private int olderThanDays;
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    public AppointmentArchiveService(AppointmentRepository appointmentRepository,
+            PlatformTransactionManager transactionManager,
+            EntityManager entityManager,
+            OutboxService outboxService) {
+        this.appointmentRepository = appointmentRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.outboxService = outboxService;
+    }
+
+    /**
+     * Archives all eligible appointments, chunk by chunk.
+     *
+     * @return number of appointments archived
+     */
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public int archiveCompleted() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(olderThanDays);
+        int[] total = { 0 };
+        TenantContext.forEachShard(() -> {
+            while (true) {
+                Integer moved = tx.execute(status -> archiveChunk(cutoff));
+                if (moved == null || moved == 0)
+                    return;
+                total[0] += moved;
+            }
+        });
+        return total[0];
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Appointment> chunk = appointmentRepository.findForArchive(COMPLETED, cutoff,
+                PageRequest.of(0, batchSize));
+        if (chunk.isEmpty())
+            return 0;
+        List<ArchivedAppointment> archived = new ArrayList<>(chunk.size());
+        List<Long> ids = new ArrayList<>(chunk.size());
+        for (Appointment a : chunk) {
+            archived.add(new ArchivedAppointment(a));
+            ids.add(a.getId());
+        }
+        // persist, not save: ids are assigned, so save() would merge (one SELECT per row)
+        archived.forEach(entityManager::persist);
+        entityManager.flush();
+        appointmentRepository.deleteAllByIdIn(ids);
+        outboxService.record(EntityChangeEvent.APPOINTMENT, ids, OutboxEvent.DELETED);
+        return chunk.size();
+    }
+}
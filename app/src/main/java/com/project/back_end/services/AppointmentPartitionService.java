@@ -0,0 +1,152 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the appointment table range-partitioned by month on
+ * appointment_time (MySQL RANGE COLUMNS). Every appointment query filters on
+ * appointment_time, so MySQL prunes to the matching months, and expired
+ * months are removed with DROP PARTITION instead of row-by-row deletes.
+ *
+ * The first run converts an unpartitioned table in place (primary key
+ * widened to (id, appointment_time), foreign keys dropped, as MySQL
+ * requires). Later runs add partitions ahead of time by splitting the
+ * trailing MAXVALUE partition and drop partitions past the retention once
+ * they are empty, so a drop never loses rows (and has no change events to
+ * emit).
+ */
+@Service
+public class AppointmentPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentPartitionService.class);
+
+    private static final String TABLE = "appointment";
+    private static final String OVERFLOW = "pmax";
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbc;
+
+    @Value("${app.partition.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    /** Months kept in the hot table; 0 keeps every partition. */
+    @Value("${app.partition.retention-months:0}")
+    private int retentionMonths;
+
+    public AppointmentPartitionService(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    /**
+     * Partitions the table if needed, rolls partitions forward and drops
+     * expired ones. Failures are logged and retried on the next run.
+     */
+    @Scheduled(cron = "${app.partition.cron:0 15 4 * * *}")
+    public synchronized void maintain() {
+        if (!enabled)
+            return;
+        TenantContext.forEachShard(this::maintainShard);
+    }
+
+    private void maintainShard() {
+        try {
+            YearMonth now = YearMonth.now();
+            List<YearMonth> months = partitionMonths();
+            if (months.isEmpty()) {
+                partitionTable(now);
+            } else {
+                rollForward(months.get(months.size() - 1), now.plusMonths(monthsAhead));
+                if (retentionMonths > 0)
+                    dropExpired(months, now.minusMonths(retentionMonths));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Appointment partition maintenance failed", e);
+        }
+    }
+
+    private List<YearMonth> partitionMonths() {
+        List<String> names = jdbc.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, TABLE);
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            if (!OVERFLOW.equals(name))
+                months.add(YearMonth.parse(name, NAME));
+        }
+        return months;
+    }
+
+    private void partitionTable(YearMonth now) {
+        for (String fk : jdbc.queryForList(
+                "SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND CONSTRAINT_TYPE = 'FOREIGN KEY'",
+                String.class, TABLE)) {
+            jdbc.execute("ALTER TABLE " + TABLE + " DROP FOREIGN KEY `" + fk + "`");
+        }
+        jdbc.execute("ALTER TABLE " + TABLE + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, appointment_time)");
+
+        LocalDate oldest = jdbc.queryForObject("SELECT DATE(MIN(appointment_time)) FROM " + TABLE, LocalDate.class);
+        YearMonth month = oldest != null && YearMonth.from(oldest).isBefore(now) ? YearMonth.from(oldest) : now;
+        StringBuilder ddl = new StringBuilder("ALTER TABLE " + TABLE
+                + " PARTITION BY RANGE COLUMNS(appointment_time) (");
+        for (YearMonth end = now.plusMonths(monthsAhead); !month.isAfter(end); month = month.plusMonths(1)) {
+            ddl.append(partition(month)).append(", ");
+        }
+        ddl.append("PARTITION ").append(OVERFLOW).append(" VALUES LESS THAN (MAXVALUE))");
+        jdbc.execute(ddl.toString());
+        log.info("Partitioned {} by month on appointment_time", TABLE);
+    }
+
+    private void rollForward(YearMonth last, YearMonth until) {
+        // splitting pmax is cheap: nothing is booked beyond the horizon
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(until); month = month.plusMonths(1)) {
+            jdbc.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + OVERFLOW + " INTO ("
+                    + partition(month) + ", PARTITION " + OVERFLOW + " VALUES LESS THAN (MAXVALUE))");
+        }
+    }
+
+    private void dropExpired(List<YearMonth> months, YearMonth keepFrom) {
+        for (YearMonth month : months) {
+            if (!month.isBefore(keepFrom))
+                break;
+            String name = month.format(NAME);
+            // only empty partitions go: completed visits wait for the archive
+            // job, anything else left behind needs an operator's decision
+            Integer remaining = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM " + TABLE + " PARTITION (" + name + ")", Integer.class);
+            if (remaining != null && remaining > 0) {
+                log.info("Keeping partition {}: {} appointments not archived or deleted yet", name, remaining);
+                continue;
+            }
+            jdbc.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+        }
+    }
+
+    private static String partition(YearMonth month) {
+        return "PARTITION " + month.format(NAME) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+}
@@ -1,9 +1,19 @@
 package com.project.back_end.services;
 
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentSeries;
+import com.project.back_end.config.ReplicaStickiness;
 import com.project.back_end.models.Appointment;
+import com.project.back_end.models.AppointmentRollup;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.OutboxEvent;
+import com.project.back_end.models.Patient;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -12,10 +22,13 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service layer for managing appointments, encapsulating business logic
@@ -25,16 +38,45 @@ import java.util.Optional;
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
-    // private final PatientRepository patientRepository;
-    // private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
     private final TokenService tokenService;
+    private final ReplicaStickiness replicaStickiness;
+    private final InvalidationBus invalidationBus;
+    private final EntityManager entityManager;
+    private final AppointmentAnalyticsService analyticsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduleService scheduleService;
+    private final OutboxService outboxService;
+
+    @Value("${app.appointments.series-max-occurrences:52}")
+    private int seriesMaxOccurrences;
+
+    @Value("${app.appointments.series-max-span-days:366}")
+    private int seriesMaxSpanDays;
 
     public AppointmentService(AppointmentRepository appointmentRepository,
             PatientRepository patientRepository,
             DoctorRepository doctorRepository,
-            TokenService tokenService) {
+            TokenService tokenService,
+            ReplicaStickiness replicaStickiness,
+            InvalidationBus invalidationBus,
+            EntityManager entityManager,
+            AppointmentAnalyticsService analyticsService,
+            ApplicationEventPublisher eventPublisher,
+            ScheduleService scheduleService,
+            OutboxService outboxService) {
         this.appointmentRepository = appointmentRepository;
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
         this.tokenService = tokenService;
+        this.replicaStickiness = replicaStickiness;
+        this.invalidationBus = invalidationBus;
+        this.entityManager = entityManager;
+        this.analyticsService = analyticsService;
+        this.eventPublisher = eventPublisher;
+        this.scheduleService = scheduleService;
+        this.outboxService = outboxService;
     }
 
     /**
@@ -43,13 +85,114 @@ public class AppointmentService {
     @Transactional
     public int bookAppointment(Appointment appointment) {
         try {
-            appointmentRepository.save(appointment);
+            book(appointment);
             return 1;
         } catch (Exception e) {
             return 0;
         }
     }
 
+    /**
+     * Books a new appointment in the caller's transaction. Failures are
+     * thrown: they have marked that transaction rollback-only, so the caller
+     * must see them rather than commit.
+     */
+    @Transactional
+    public void book(Appointment appointment) {
+        // the booking takes one slot of the doctor's grid
+        appointment.setDurationMinutes(scheduleService.slotMinutes(appointment.getDoctor().getId()));
+        appointmentRepository.save(appointment);
+        recordWrite(appointment);
+        analyticsService.record(appointment, AppointmentRollup.BOOKED, 1);
+    }
+
+    /**
+     * Books a recurring series of appointments for a patient, all or
+     * nothing. Every occurrence is checked against one free-slot lookup that
+     * lays out only the occurrence dates, and the series may span at most
+     * app.appointments.series-max-span-days; if any is unavailable nothing is booked
+     * and the conflicts are reported per occurrence. Otherwise all
+     * occurrences are inserted in this transaction with a single flush.
+     */
+    @Transactional
+    public ResponseEntity<Map<String, Object>> bookSeries(AppointmentSeries series, Long patientId) {
+        Map<String, Object> response = new HashMap<>();
+        if (series.getDoctorId() == null || series.getStart() == null || series.getIntervalDays() < 1
+                || series.getOccurrences() < 1 || series.getOccurrences() > seriesMaxOccurrences) {
+            response.put("error", "A series needs a doctor, a start, an interval of at least one day and 1 to "
+                    + seriesMaxOccurrences + " occurrences");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if ((long) (series.getOccurrences() - 1) * series.getIntervalDays() > seriesMaxSpanDays) {
+            response.put("error", "A series may span at most " + seriesMaxSpanDays + " days");
+            return ResponseEntity.badRequest().body(response);
+        }
+        // validated and inserted in one go, so never read a possibly lagging replica
+        ReplicaStickiness.pinToPrimary();
+        Optional<Doctor> doctor = doctorRepository.findById(series.getDoctorId());
+        Optional<Patient> patient = patientRepository.findById(patientId);
+        if (doctor.isEmpty() || doctor.get().isDeleted()) {
+            response.put("error", "Doctor does not exist");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (patient.isEmpty()) {
+            response.put("error", "Patient does not exist");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        List<LocalDateTime> times = new ArrayList<>(series.getOccurrences());
+        for (int i = 0; i < series.getOccurrences(); i++) {
+            times.add(series.getStart().plusDays((long) i * series.getIntervalDays()));
+        }
+        Map<LocalDate, List<LocalTime>> free = scheduleService.freeSlots(series.getDoctorId(),
+                times.stream().map(LocalDateTime::toLocalDate).toList());
+        LocalDateTime now = LocalDateTime.now();
+        List<Map<String, Object>> conflicts = new ArrayList<>();
+        for (int i = 0; i < times.size(); i++) {
+            LocalDateTime time = times.get(i);
+            String reason = null;
+            if (!time.isAfter(now))
+                reason = "In the past";
+            else if (!free.getOrDefault(time.toLocalDate(), List.of()).contains(time.toLocalTime()))
+                reason = "Appointment time unavailable";
+            if (reason != null) {
+                Map<String, Object> conflict = new HashMap<>();
+                conflict.put("occurrence", i + 1);
+                conflict.put("appointmentTime", time.toString());
+                conflict.put("reason", reason);
+                conflicts.add(conflict);
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            response.put("error", "Some occurrences cannot be booked; nothing was booked");
+            response.put("conflicts", conflicts);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+
+        int duration = scheduleService.slotMinutes(series.getDoctorId());
+        List<Appointment> appointments = new ArrayList<>(times.size());
+        for (LocalDateTime time : times) {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor.get());
+            appointment.setPatient(patient.get());
+            appointment.setAppointmentTime(time);
+            appointment.setDurationMinutes(duration);
+            appointment.setReasonForVisit(series.getReasonForVisit());
+            appointment.setStatus(0);
+            appointments.add(appointment);
+        }
+        appointmentRepository.saveAllAndFlush(appointments);
+        List<Long> ids = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            recordWrite(appointment);
+            analyticsService.record(appointment, AppointmentRollup.BOOKED, 1);
+            ids.add(appointment.getId());
+        }
+        response.put("message", "Appointment series booked successfully");
+        response.put("appointmentIds", ids);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     /**
      * Updates an existing appointment. Returns a response indicating success or
      * failure.
@@ -67,8 +210,23 @@ public class AppointmentService {
             response.put("error", "Unauthorized to update this appointment");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
+        // clients that do not send a version update the current one
+        if (appointment.getVersion() == null) {
+            appointment.setVersion(existing.getVersion());
+        }
         try {
+            // a reschedule moves the booking to another doctor/day counter
+            analyticsService.record(existing, AppointmentRollup.BOOKED, -1);
+            analyticsService.record(appointment, AppointmentRollup.BOOKED, 1);
+            SlotFreedEvent freed = new SlotFreedEvent(existing.getDoctor().getId(), existing.getAppointmentTime());
+            appointment.setDurationMinutes(scheduleService.slotMinutes(appointment.getDoctor().getId()));
             appointmentRepository.save(appointment);
+            if (!freed.slot().equals(appointment.getAppointmentTime())
+                    || !freed.doctorId().equals(appointment.getDoctor().getId())) {
+                eventPublisher.publishEvent(freed);
+            }
+            recordWrite(existing);
+            recordWrite(appointment);
             response.put("message", "Appointment updated successfully");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -96,6 +254,11 @@ public class AppointmentService {
         }
         try {
             appointmentRepository.delete(existing);
+            recordWrite(existing);
+            analyticsService.record(existing, AppointmentRollup.CANCELLED, 1);
+            // offered to the waitlist once the cancellation commits
+            eventPublisher.publishEvent(new SlotFreedEvent(existing.getDoctor().getId(),
+                    existing.getAppointmentTime()));
             response.put("message", "Appointment canceled successfully");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -105,26 +268,23 @@ public class AppointmentService {
     }
 
     /**
-     * Retrieves appointments for a doctor on a specific date, optionally filtered
-     * by patient name.
+     * Streams a doctor's appointments on a specific date as lean DTOs,
+     * optionally filtered by patient name. Each entity is detached once
+     * mapped so the persistence context does not grow with the result.
      */
     @Transactional(readOnly = true)
-    public Map<String, Object> getAppointments(String patientName, LocalDate date, String token) {
-        Long doctorId = tokenService.getUserIdFromToken(token);
+    public void streamAppointments(String patientName, LocalDate date, Long doctorId,
+            Consumer<AppointmentDTO> sink) {
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-        List<Appointment> appointments;
-        if (patientName != null && !patientName.isEmpty()) {
-            appointments = appointmentRepository
-                    .findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
-                            doctorId, patientName, startOfDay, endOfDay);
-        } else {
-            appointments = appointmentRepository
-                    .findByDoctorIdAndAppointmentTimeBetween(doctorId, startOfDay, endOfDay);
-        }
-        Map<String, Object> result = new HashMap<>();
-        result.put("appointments", appointments);
-        return result;
+        String name = patientName != null && !patientName.isEmpty() ? patientName : null;
+        try (Stream<Appointment> appointments = appointmentRepository
+                .streamByDoctorIdAndPatientNameAndAppointmentTimeBetween(doctorId, name, startOfDay, endOfDay)) {
+            appointments.forEach(a -> {
+                sink.accept(AppointmentDTO.of(a));
+                entityManager.detach(a);
+            });
+        }
     }
 
     /**
@@ -134,7 +294,17 @@ public class AppointmentService {
     public ResponseEntity<Map<String, String>> changeStatus(Long id, int status) {
         Map<String, String> response = new HashMap<>();
         try {
+            Appointment existing = appointmentRepository.findById(id).orElse(null);
+            if (existing != null && existing.getStatus() != status) {
+                if (status == 1)
+                    analyticsService.record(existing, AppointmentRollup.COMPLETED, 1);
+                else if (existing.getStatus() == 1)
+                    analyticsService.record(existing, AppointmentRollup.COMPLETED, -1);
+            }
             appointmentRepository.updateStatus(status, id);
+            outboxService.record(EntityChangeEvent.APPOINTMENT, List.of(id), OutboxEvent.UPDATED,
+                    existing != null ? EtagService.keys(existing) : List.of());
+            invalidationBus.publishAfterCommit(EntityChangeEvent.APPOINTMENT, id);
             response.put("message", "Status updated successfully");
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -142,4 +312,19 @@ public class AppointmentService {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
+
+    /**
+     * Marks the appointment's patient and doctor as recently written so their
+     * follow-up reads are served from the primary, and tells every node to
+     * drop cached copies once the transaction commits.
+     */
+    private void recordWrite(Appointment appointment) {
+        if (appointment.getPatient() != null)
+            replicaStickiness.recordWrite(ReplicaStickiness.patientKey(appointment.getPatient().getId()));
+        if (appointment.getDoctor() != null) {
+            replicaStickiness.recordWrite(ReplicaStickiness.doctorKey(appointment.getDoctor().getId()));
+            invalidationBus.publishAfterCommit(EntityChangeEvent.AVAILABILITY, appointment.getDoctor().getId());
+        }
+        invalidationBus.publishAfterCommit(EntityChangeEvent.APPOINTMENT, appointment.getId());
+    }
 }
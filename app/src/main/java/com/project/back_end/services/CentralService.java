@@ -1,5 +1,7 @@
 package com.project.back_end.services;
 
+import com.project.back_end.config.ReplicaStickiness;
+import com.project.back_end.config.TenantContext;
 import com.project.back_end.models.Admin;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
@@ -17,6 +19,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Central service coordinating authentication, validation,
@@ -31,19 +34,26 @@ public class CentralService {
     private PatientRepository patientRepository = null;
     private DoctorService doctorService = null;
     private PatientService patientService = null;
+    private CredentialService credentialService = null;
+    private RefreshTokenService refreshTokenService = null;
+    private final SingleFlight<String, Map<String, Object>> doctorFilterFlights = new SingleFlight<>();
 
     public CentralService(TokenService tokenService,
             AdminRepository adminRepository,
             DoctorRepository doctorRepository,
             PatientRepository patientRepository,
             DoctorService doctorService,
-            PatientService patientService) {
+            PatientService patientService,
+            CredentialService credentialService,
+            RefreshTokenService refreshTokenService) {
         this.tokenService = tokenService;
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
         this.doctorService = doctorService;
         this.patientService = patientService;
+        this.credentialService = credentialService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
@@ -71,13 +81,19 @@ public class CentralService {
         Map<String, String> resp = new HashMap<>();
         try {
             Admin stored = adminRepository.findByUsername(receivedAdmin.getUsername());
-            if (stored == null || !stored.getPassword().equals(receivedAdmin.getPassword())) {
+            if (stored == null || !credentialService.verify(receivedAdmin.getPassword(), stored.getPassword())) {
                 resp.put("error", "Invalid admin credentials");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(resp);
             }
-            String token = tokenService.generateToken(stored.getId().toString(), "ADMIN");
-            resp.put("token", token);
+            if (credentialService.needsUpgrade(stored.getPassword())) {
+                stored.setPassword(credentialService.hash(receivedAdmin.getPassword()));
+                adminRepository.save(stored);
+            }
+            resp.putAll(refreshTokenService.issue(stored.getUsername(), stored.getId(), "ADMIN"));
             return ResponseEntity.ok(resp);
+        } catch (RejectedExecutionException e) {
+            resp.put("error", "Too many login attempts, please retry");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(resp);
         } catch (Exception e) {
             resp.put("error", "Admin authentication failed");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(resp);
@@ -85,10 +101,16 @@ public class CentralService {
     }
 
     /**
-     * Filters doctors by name, specialty, and available time.
+     * Filters doctors by name, specialty, and available time. Identical
+     * concurrent searches share one query; each delegate runs in its own
+     * read-only transaction, so waiting callers hold no connection.
      */
-    @Transactional(readOnly = true)
     public Map<String, Object> filterDoctor(String name, String specialty, String timeSlot) {
+        String key = TenantContext.currentClinic() + "|" + name + "|" + specialty + "|" + timeSlot;
+        return doctorFilterFlights.execute(key, () -> doFilterDoctor(name, specialty, timeSlot));
+    }
+
+    private Map<String, Object> doFilterDoctor(String name, String specialty, String timeSlot) {
         // if any filter is null or empty, delegate accordingly
         if (name != null && specialty != null && timeSlot != null) {
             return doctorService.filterDoctorsByNameSpecialtyAndTime(name, specialty, timeSlot);
@@ -116,9 +138,11 @@ public class CentralService {
      */
     @Transactional(readOnly = true)
     public int validateAppointment(Appointment appointment) {
+        // precedes a booking, so never read a possibly lagging replica
+        ReplicaStickiness.pinToPrimary();
         Long docId = appointment.getDoctor().getId();
         Optional<Doctor> docOpt = doctorRepository.findById(docId);
-        if (!docOpt.isPresent())
+        if (!docOpt.isPresent() || docOpt.get().isDeleted())
             return -1;
         List<String> slots = doctorService.getDoctorAvailability(docId, appointment.getAppointmentTime().toLocalDate());
         String fmt = appointment.getAppointmentTime().format(DateTimeFormatter.ofPattern("HH:mm"));
@@ -143,13 +167,19 @@ public class CentralService {
         Map<String, String> resp = new HashMap<>();
         try {
             Patient stored = patientRepository.findByEmail(login.getIdentifier());
-            if (stored == null || !stored.getPassword().equals(login.getPassword())) {
+            if (stored == null || !credentialService.verify(login.getPassword(), stored.getPassword())) {
                 resp.put("error", "Invalid patient credentials");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(resp);
             }
-            String token = tokenService.generateToken(stored.getId().toString(), "PATIENT");
-            resp.put("token", token);
+            if (credentialService.needsUpgrade(stored.getPassword())) {
+                stored.setPassword(credentialService.hash(login.getPassword()));
+                patientRepository.save(stored);
+            }
+            resp.putAll(refreshTokenService.issue(stored.getEmail(), stored.getId(), "PATIENT"));
             return ResponseEntity.ok(resp);
+        } catch (RejectedExecutionException e) {
+            resp.put("error", "Too many login attempts, please retry");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(resp);
         } catch (Exception e) {
             resp.put("error", "Patient authentication failed");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(resp);
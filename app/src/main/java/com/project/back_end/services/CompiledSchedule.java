@@ -0,0 +1,177 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.models.ScheduleException;
+import com.project.back_end.models.WorkingHours;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A doctor's schedule reduced to interval arrays (see {@link Intervals}):
+ * one array of bookable minutes per weekday with breaks already cut out,
+ * plus the dates whose exceptions replace the weekday's array. Immutable,
+ * so it is cached and shared between requests.
+ */
+final class CompiledSchedule {
+
+    private static final int DAY = 24 * 60;
+
+    private final int slotMinutes;
+    private final int[][] weekly = new int[7][];
+    private final Map<LocalDate, int[]> exceptions = new HashMap<>();
+
+    private CompiledSchedule(int slotMinutes) {
+        this.slotMinutes = Math.max(1, slotMinutes);
+    }
+
+    static CompiledSchedule of(DoctorSchedule schedule) {
+        CompiledSchedule compiled = new CompiledSchedule(schedule.getSlotMinutes());
+        List<Integer> everyDayBreaks = new ArrayList<>();
+        for (WorkingHours b : schedule.getBreaks()) {
+            if (b.getDayOfWeek() == null)
+                addPair(everyDayBreaks, b.getStartTime(), b.getEndTime());
+        }
+        for (DayOfWeek day : DayOfWeek.values()) {
+            List<Integer> hours = new ArrayList<>();
+            List<Integer> breaks = new ArrayList<>(everyDayBreaks);
+            for (WorkingHours h : schedule.getWorkingHours()) {
+                if (h.getDayOfWeek() == day)
+                    addPair(hours, h.getStartTime(), h.getEndTime());
+            }
+            for (WorkingHours b : schedule.getBreaks()) {
+                if (b.getDayOfWeek() == day)
+                    addPair(breaks, b.getStartTime(), b.getEndTime());
+            }
+            compiled.weekly[day.ordinal()] = Intervals.subtract(
+                    Intervals.normalize(toArray(hours)), Intervals.normalize(toArray(breaks)));
+        }
+        for (ScheduleException e : schedule.getExceptions()) {
+            if (e.getDate() == null)
+                continue;
+            int[] base = compiled.windows(e.getDate());
+            int[] range = e.getStartTime() == null
+                    ? new int[] { 0, DAY }
+                    : Intervals.normalize(new int[] { minutes(e.getStartTime()), end(e.getEndTime()) });
+            compiled.exceptions.put(e.getDate(),
+                    e.isAvailable() ? Intervals.union(base, range) : Intervals.subtract(base, range));
+        }
+        return compiled;
+    }
+
+    /**
+     * Schedule of a doctor without an explicit one: the legacy
+     * availableTimes windows ("HH:mm-HH:mm", or "HH:mm" for a single slot)
+     * every day, or 09:00 to 17:00 if there are none.
+     */
+    static CompiledSchedule legacy(List<String> availableTimes, int slotMinutes) {
+        CompiledSchedule compiled = new CompiledSchedule(slotMinutes);
+        List<Integer> pairs = new ArrayList<>();
+        if (availableTimes != null) {
+            for (String window : availableTimes) {
+                try {
+                    int dash = window.indexOf('-');
+                    if (dash < 0) {
+                        int start = minutes(LocalTime.parse(window.trim()));
+                        pairs.add(start);
+                        pairs.add(start + compiled.slotMinutes);
+                    } else {
+                        addPair(pairs, LocalTime.parse(window.substring(0, dash).trim()),
+                                LocalTime.parse(window.substring(dash + 1).trim()));
+                    }
+                } catch (RuntimeException ignored) {
+                    // malformed entries were never bookable
+                }
+            }
+        }
+        if (pairs.isEmpty()) {
+            pairs.add(9 * 60);
+            pairs.add(17 * 60);
+        }
+        int[] hours = Intervals.normalize(toArray(pairs));
+        for (int d = 0; d < 7; d++) {
+            compiled.weekly[d] = hours;
+        }
+        return compiled;
+    }
+
+    int slotMinutes() {
+        return slotMinutes;
+    }
+
+    /**
+     * Bookable minutes of the date.
+     */
+    int[] windows(LocalDate date) {
+        int[] exception = exceptions.get(date);
+        return exception != null ? exception : weekly[date.getDayOfWeek().ordinal()];
+    }
+
+    /**
+     * Whether any weekday has bookable time in [from, to) minutes of the day;
+     * used by the AM/PM doctor filters.
+     */
+    boolean worksBetween(int from, int to) {
+        for (int[] day : weekly) {
+            for (int i = 0; i < day.length; i += 2) {
+                if (day[i] < to && day[i + 1] > from)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Slot start minutes of the date that do not overlap a busy interval.
+     * Slots are laid out from the start of each window; busy must be
+     * normalized.
+     */
+    List<Integer> freeSlots(LocalDate date, int[] busy) {
+        int[] windows = windows(date);
+        List<Integer> slots = new ArrayList<>();
+        int j = 0;
+        for (int i = 0; i < windows.length; i += 2) {
+            for (int start = windows[i]; start + slotMinutes <= windows[i + 1]; start += slotMinutes) {
+                int end = start + slotMinutes;
+                // slots ascend, so busy intervals ending before this one never matter again
+                while (j < busy.length && busy[j + 1] <= start)
+                    j += 2;
+                if (j >= busy.length || busy[j] >= end)
+                    slots.add(start);
+            }
+        }
+        return slots;
+    }
+
+    static int minutes(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /** End of a window; midnight as an end means the end of the day. */
+    private static int end(LocalTime time) {
+        if (time == null)
+            return DAY;
+        int m = minutes(time);
+        return m == 0 ? DAY : m;
+    }
+
+    private static void addPair(List<Integer> pairs, LocalTime start, LocalTime end) {
+        if (start == null)
+            return;
+        pairs.add(minutes(start));
+        pairs.add(end(end));
+    }
+
+    private static int[] toArray(List<Integer> pairs) {
+        int[] out = new int[pairs.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = pairs.get(i);
+        }
+        return out;
+    }
+}
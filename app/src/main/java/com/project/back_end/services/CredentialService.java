@@ -0,0 +1,158 @@
+package com.project.back_end.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Password hashing and verification. BCrypt is deliberately slow, so all
+ * hashing runs on a small dedicated pool with a bounded queue: a login storm
+ * queues (or is rejected) here instead of tying up every request thread.
+ *
+ * Passwords stored before hashing was introduced are still accepted in
+ * plaintext and should be re-hashed by the caller (see {@link #needsUpgrade}).
+ */
+@Service
+public class CredentialService {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final int cost;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor pool;
+
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public CredentialService(@Value("${app.security.bcrypt-cost:10}") int cost,
+            @Value("${app.security.hash-pool-size:0}") int poolSize,
+            @Value("${app.security.hash-queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.hash-timeout-ms:5000}") long timeoutMs) {
+        this.cost = cost;
+        this.timeoutMs = timeoutMs;
+        this.encoder = new BCryptPasswordEncoder(cost);
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "credential-hash");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Checks a raw password against the stored value.
+     *
+     * @throws RejectedExecutionException if the hashing pool is saturated
+     */
+    public boolean verify(String raw, String stored) {
+        if (raw == null || stored == null)
+            return false;
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(raw.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        verifications.increment();
+        return submit(() -> encoder.matches(raw, stored));
+    }
+
+    /**
+     * Hashes a raw password with the configured cost.
+     *
+     * @throws RejectedExecutionException if the hashing pool is saturated
+     */
+    public String hash(String raw) {
+        return submit(() -> encoder.encode(raw));
+    }
+
+    /**
+     * Hashes the value unless it already is a BCrypt hash (e.g. an update that
+     * sends back the stored password unchanged).
+     */
+    public String hashIfNeeded(String value) {
+        return value == null || isHashed(value) ? value : hash(value);
+    }
+
+    /**
+     * True if the stored value is plaintext or was hashed with another cost.
+     */
+    public boolean needsUpgrade(String stored) {
+        var m = stored != null ? BCRYPT.matcher(stored) : null;
+        return m == null || !m.matches() || Integer.parseInt(m.group(1)) != cost;
+    }
+
+    public boolean isHashed(String value) {
+        return value != null && BCRYPT.matcher(value).matches();
+    }
+
+    /**
+     * Queueing statistics of the hashing pool.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        long count = verifications.sum();
+        stats.put("poolSize", pool.getMaximumPoolSize());
+        stats.put("active", pool.getActiveCount());
+        stats.put("queued", pool.getQueue().size());
+        stats.put("completed", pool.getCompletedTaskCount());
+        stats.put("rejected", rejected.sum());
+        stats.put("verifications", count);
+        stats.put("avgQueueWaitMs", pool.getCompletedTaskCount() == 0 ? 0
+                : totalWaitNanos.sum() / 1_000_000d / pool.getCompletedTaskCount());
+        stats.put("maxQueueWaitMs", maxWaitNanos.get() / 1_000_000d);
+        return stats;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long enqueued = System.nanoTime();
+        Future<T> future;
+        try {
+            future = pool.submit(() -> {
+                long waited = System.nanoTime() - enqueued;
+                totalWaitNanos.add(waited);
+                maxWaitNanos.accumulateAndGet(waited, Math::max);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new RejectedExecutionException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while hashing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
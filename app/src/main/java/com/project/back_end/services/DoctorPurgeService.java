@@ -0,0 +1,196 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.models.DoctorPurgeJob;
+import com.project.back_end.models.OutboxEvent;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorPurgeJobRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PrescriptionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Purges a soft-deleted doctor's appointments (hot and archived) and their
+ * Mongo prescriptions
+ * in the background: fixed-size chunks, one short transaction and one bulk
+ * DELETE per chunk, with a pause in between so booking traffic keeps its
+ * share of the connection pool. Progress is persisted per chunk, so a job
+ * interrupted by a restart or a failure picks up where it stopped.
+ */
+@Service
+public class DoctorPurgeService {
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final DoctorPurgeJobRepository jobRepository;
+    private final OutboxService outboxService;
+    private final TransactionTemplate tx;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "doctor-purge");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${app.doctor-purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.doctor-purge.pause-ms:100}")
+    private long pauseMs;
+
+    public DoctorPurgeService(DoctorRepository doctorRepository,
+            AppointmentRepository appointmentRepository,
+            ArchivedAppointmentRepository archivedAppointmentRepository,
+            PrescriptionRepository prescriptionRepository,
+            DoctorPurgeJobRepository jobRepository,
+            OutboxService outboxService,
+            PlatformTransactionManager transactionManager) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.jobRepository = jobRepository;
+        this.outboxService = outboxService;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Records a purge job for the doctor; it starts once the surrounding
+     * transaction (which soft-deleted the doctor) commits.
+     */
+    public DoctorPurgeJob schedule(Long doctorId) {
+        DoctorPurgeJob job = jobRepository.save(new DoctorPurgeJob(doctorId));
+        Runnable task = TenantContext.wrap(() -> run(job.getId()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.submit(task);
+                }
+            });
+        } else {
+            executor.submit(task);
+        }
+        return job;
+    }
+
+    /**
+     * Latest purge job of a doctor, or null if none exists.
+     */
+    public DoctorPurgeJob getJob(Long doctorId) {
+        return jobRepository.findFirstByDoctorIdOrderByIdDesc(doctorId);
+    }
+
+    /**
+     * Restarts a failed purge.
+     *
+     * @return 1 if resumed, 0 if the job is not in a failed state, -1 if none
+     */
+    public int resume(Long doctorId) {
+        DoctorPurgeJob job = getJob(doctorId);
+        if (job == null)
+            return -1;
+        if (!DoctorPurgeJob.FAILED.equals(job.getStatus()))
+            return 0;
+        job.setStatus(DoctorPurgeJob.PENDING);
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+        executor.submit(TenantContext.wrap(() -> run(job.getId())));
+        return 1;
+    }
+
+    /**
+     * Picks up jobs that were pending or running when the application stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        TenantContext.forEachShard(() -> {
+            for (DoctorPurgeJob job : jobRepository.findByStatusIn(
+                    List.of(DoctorPurgeJob.PENDING, DoctorPurgeJob.RUNNING))) {
+                Long jobId = job.getId();
+                executor.submit(TenantContext.wrap(() -> run(jobId)));
+            }
+        });
+    }
+
+    private void run(Long jobId) {
+        DoctorPurgeJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || DoctorPurgeJob.DONE.equals(job.getStatus()))
+            return;
+        Long doctorId = job.getDoctorId();
+        job.setStatus(DoctorPurgeJob.RUNNING);
+        job = touch(job);
+        try {
+            while (true) {
+                List<Long> ids = appointmentRepository.findIdsByDoctorId(doctorId, PageRequest.of(0, batchSize));
+                if (ids.isEmpty())
+                    break;
+                // prescriptions first: re-running a half-done chunk stays correct
+                long prescriptions = prescriptionRepository.deleteByAppointmentIdIn(ids);
+                int appointments = tx.execute(status -> {
+                    outboxService.record(EntityChangeEvent.APPOINTMENT, ids, OutboxEvent.DELETED,
+                            List.of(EntityChangeEvent.APPOINTMENT, EntityChangeEvent.PRESCRIPTION));
+                    return appointmentRepository.deleteAllByIdIn(ids);
+                });
+                job.setPrescriptionsDeleted(job.getPrescriptionsDeleted() + prescriptions);
+                job.setAppointmentsDeleted(job.getAppointmentsDeleted() + appointments);
+                job = touch(job);
+                if (pauseMs > 0)
+                    Thread.sleep(pauseMs);
+            }
+            while (true) {
+                List<Long> ids = archivedAppointmentRepository.findIdsByDoctorId(doctorId,
+                        PageRequest.of(0, batchSize));
+                if (ids.isEmpty())
+                    break;
+                long prescriptions = prescriptionRepository.deleteByAppointmentIdIn(ids);
+                int appointments = archivedAppointmentRepository.deleteAllByIdIn(ids);
+                job.setPrescriptionsDeleted(job.getPrescriptionsDeleted() + prescriptions);
+                job.setAppointmentsDeleted(job.getAppointmentsDeleted() + appointments);
+                job = touch(job);
+                if (pauseMs > 0)
+                    Thread.sleep(pauseMs);
+            }
+            if (doctorRepository.existsById(doctorId)) {
+                doctorRepository.deleteById(doctorId);
+            }
+            job.setStatus(DoctorPurgeJob.DONE);
+            job.setLastError(null);
+            touch(job);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // left RUNNING; resumed on next start
+        } catch (Exception e) {
+            job.setStatus(DoctorPurgeJob.FAILED);
+            String msg = String.valueOf(e.getMessage());
+            job.setLastError(msg.length() > 500 ? msg.substring(0, 500) : msg);
+            touch(job);
+        }
+    }
+
+    private DoctorPurgeJob touch(DoctorPurgeJob job) {
+        job.setUpdatedAt(LocalDateTime.now());
+        return jobRepository.save(job);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
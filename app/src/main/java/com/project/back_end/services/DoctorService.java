@@ -1,20 +1,23 @@
 package com.project.back_end.services;
 
+import com.project.back_end.config.ReplicaStickiness;
 import com.project.back_end.models.Doctor;
-import com.project.back_end.models.Appointment;
+import com.project.back_end.models.OutboxEvent;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.DTO.DoctorDTO;
 import com.project.back_end.DTO.Login;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Service layer for managing doctors, encapsulating operations such as
@@ -26,39 +29,97 @@ public class DoctorService {
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
     private final TokenService tokenService;
+    private final ReplicaStickiness replicaStickiness;
+    private final InvalidationBus invalidationBus;
+    private final CredentialService credentialService;
+    private final RefreshTokenService refreshTokenService;
+    private final DoctorPurgeService doctorPurgeService;
+    private final ScheduleService scheduleService;
+    private final OutboxService outboxService;
+
+    @Value("${app.schedule.search-max-days:31}")
+    private int searchMaxDays;
+
+    @Value("${app.schedule.search-max-results:50}")
+    private int searchMaxResults;
 
     public DoctorService(DoctorRepository doctorRepository,
             AppointmentRepository appointmentRepository,
-            TokenService tokenService) {
+            TokenService tokenService,
+            ReplicaStickiness replicaStickiness,
+            InvalidationBus invalidationBus,
+            CredentialService credentialService,
+            RefreshTokenService refreshTokenService,
+            DoctorPurgeService doctorPurgeService,
+            ScheduleService scheduleService,
+            OutboxService outboxService) {
         this.doctorRepository = doctorRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.replicaStickiness = replicaStickiness;
+        this.invalidationBus = invalidationBus;
+        this.credentialService = credentialService;
+        this.refreshTokenService = refreshTokenService;
+        this.doctorPurgeService = doctorPurgeService;
+        this.scheduleService = scheduleService;
+        this.outboxService = outboxService;
     }
 
     /**
-     * Fetches available time slots for a doctor on a given date.
+     * Fetches available time slots for a doctor on a given date, laid out by
+     * the doctor's schedule.
      */
     @Transactional(readOnly = true)
     public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
-        LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.atTime(LocalTime.MAX);
-        List<Appointment> booked = appointmentRepository
-                .findByDoctorIdAndAppointmentTimeBetween(doctorId, start, end);
-
-        // assume doctor has fixed slots 09:00 to 17:00 each hour
-        List<String> slots = new ArrayList<>();
+        // a fresh booking must be visible, otherwise the slot could be double-booked
+        replicaStickiness.pinIfRecentWrite(ReplicaStickiness.doctorKey(doctorId));
+        List<LocalTime> free = scheduleService.freeSlots(doctorId, date, date).getOrDefault(date, List.of());
+        List<String> slots = new ArrayList<>(free.size());
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("HH:mm");
-        for (int h = 9; h < 17; h++) {
-            slots.add(String.format("%02d:00", h));
-        }
-        // remove booked slots
-        for (Appointment appt : booked) {
-            String time = appt.getAppointmentTime().format(fmt);
-            slots.remove(time);
+        for (LocalTime time : free) {
+            slots.add(time.format(fmt));
         }
         return slots;
     }
 
+    /**
+     * Ids of the active doctors of a specialty.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> doctorIds(String specialty) {
+        return doctorRepository.findIdsBySpecialtyIgnoreCase(specialty);
+    }
+
+    /**
+     * The earliest free slots with any doctor of a specialty between two
+     * dates, optionally only in the morning ("AM") or afternoon ("PM"). The
+     * range and the number of slots are capped.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> searchAvailability(String specialty, LocalDate from, LocalDate to,
+            String amOrPm, int limit) {
+        if (to.isAfter(from.plusDays(searchMaxDays - 1)))
+            to = from.plusDays(searchMaxDays - 1);
+        limit = Math.max(1, Math.min(limit, searchMaxResults));
+        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specialty);
+        Map<Long, Doctor> byId = new HashMap<>();
+        for (Doctor doc : doctors) {
+            byId.put(doc.getId(), doc);
+        }
+        List<Map<String, Object>> slots = new ArrayList<>();
+        for (FreeSlot slot : scheduleService.earliestFree(doctors, from, to, amOrPm, limit)) {
+            Doctor doc = byId.get(slot.doctorId());
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("doctorId", doc.getId());
+            view.put("doctorName", doc.getName());
+            view.put("specialty", doc.getSpecialty());
+            view.put("date", slot.time().toLocalDate().toString());
+            view.put("time", slot.time().toLocalTime().format(DateTimeFormatter.ofPattern("HH:mm")));
+            slots.add(view);
+        }
+        return Collections.singletonMap("slots", slots);
+    }
+
     /**
      * Saves a new doctor; checks for existing email first.
      */
@@ -67,7 +128,9 @@ public class DoctorService {
         if (doctorRepository.findByEmail(doctor.getEmail()) != null)
             return -1;
         try {
+            doctor.setPassword(credentialService.hashIfNeeded(doctor.getPassword()));
             doctorRepository.save(doctor);
+            invalidationBus.publishAfterCommit(EntityChangeEvent.DOCTOR, doctor.getId());
             return 1;
         } catch (Exception e) {
             return 0;
@@ -79,10 +142,17 @@ public class DoctorService {
      */
     @Transactional
     public int updateDoctor(Doctor doctor) {
-        if (!doctorRepository.existsById(doctor.getId()))
+        Optional<Doctor> existing = doctorRepository.findById(doctor.getId());
+        if (!existing.isPresent() || existing.get().isDeleted())
             return -1;
+        // clients that do not send a version update the current one
+        if (doctor.getVersion() == null)
+            doctor.setVersion(existing.get().getVersion());
         try {
+            doctor.setPassword(credentialService.hashIfNeeded(doctor.getPassword()));
             doctorRepository.save(doctor);
+            replicaStickiness.recordWrite(ReplicaStickiness.doctorKey(doctor.getId()));
+            invalidationBus.publishAfterCommit(EntityChangeEvent.DOCTOR, doctor.getId());
             return 1;
         } catch (Exception e) {
             return 0;
@@ -93,20 +163,23 @@ public class DoctorService {
      * Retrieves all doctors.
      */
     @Transactional(readOnly = true)
-    public List<Doctor> getDoctors() {
-        return doctorRepository.findAll();
+    public List<DoctorDTO> getDoctors() {
+        return toViews(doctorRepository.findAllActive());
     }
 
     /**
-     * Deletes a doctor and all their appointments.
+     * Deletes a doctor: the doctor is hidden immediately, while appointments
+     * and prescriptions are purged by a background job.
      */
     @Transactional
     public int deleteDoctor(Long id) {
-        if (!doctorRepository.existsById(id))
+        if (doctorRepository.markDeleted(id) == 0)
             return -1;
         try {
-            appointmentRepository.deleteAllByDoctorId(id);
-            doctorRepository.deleteById(id);
+            outboxService.record(EntityChangeEvent.DOCTOR, List.of(id), OutboxEvent.DELETED);
+            doctorPurgeService.schedule(id);
+            invalidationBus.publishAfterCommit(EntityChangeEvent.DOCTOR, id);
+            invalidationBus.publishAfterCommit(EntityChangeEvent.AVAILABILITY, id);
             return 1;
         } catch (Exception e) {
             return 0;
@@ -119,12 +192,20 @@ public class DoctorService {
     public ResponseEntity<Map<String, String>> validateDoctor(Login login) {
         Map<String, String> resp = new HashMap<>();
         Doctor doctor = doctorRepository.findByEmail(login.getIdentifier());
-        if (doctor == null || !doctor.getPassword().equals(login.getPassword())) {
-            resp.put("error", "Invalid credentials");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(resp);
+        try {
+            if (doctor == null || !credentialService.verify(login.getPassword(), doctor.getPassword())) {
+                resp.put("error", "Invalid credentials");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(resp);
+            }
+            if (credentialService.needsUpgrade(doctor.getPassword())) {
+                doctor.setPassword(credentialService.hash(login.getPassword()));
+                doctorRepository.save(doctor);
+            }
+        } catch (RejectedExecutionException e) {
+            resp.put("error", "Too many login attempts, please retry");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(resp);
         }
-        String token = tokenService.generateToken(doctor.getId().toString(), "DOCTOR");
-        resp.put("token", token);
+        resp.putAll(refreshTokenService.issue(doctor.getEmail(), doctor.getId(), "DOCTOR"));
         return ResponseEntity.ok(resp);
     }
 
@@ -134,7 +215,7 @@ public class DoctorService {
     @Transactional(readOnly = true)
     public Map<String, Object> findDoctorByName(String name) {
         List<Doctor> list = doctorRepository.findByNameLike(name);
-        return Collections.singletonMap("doctors", list);
+        return Collections.singletonMap("doctors", toViews(list));
     }
 
     /**
@@ -146,60 +227,58 @@ public class DoctorService {
         List<Doctor> base = doctorRepository
                 .findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
         List<Doctor> filtered = filterByTime(base, amOrPm);
-        return Collections.singletonMap("doctors", filtered);
+        return Collections.singletonMap("doctors", toViews(filtered));
     }
 
     @Transactional(readOnly = true)
     public Map<String, Object> filterDoctorByNameAndTime(String name, String amOrPm) {
         List<Doctor> base = doctorRepository.findByNameLike(name);
-        return Collections.singletonMap("doctors", filterByTime(base, amOrPm));
+        return Collections.singletonMap("doctors", toViews(filterByTime(base, amOrPm)));
     }
 
     @Transactional(readOnly = true)
     public Map<String, Object> filterDoctorByNameAndSpecialty(String name, String specialty) {
         List<Doctor> list = doctorRepository
                 .findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
-        return Collections.singletonMap("doctors", list);
+        return Collections.singletonMap("doctors", toViews(list));
     }
 
     @Transactional(readOnly = true)
     public Map<String, Object> filterDoctorByTimeAndSpecialty(String specialty, String amOrPm) {
         List<Doctor> base = doctorRepository.findBySpecialtyIgnoreCase(specialty);
-        return Collections.singletonMap("doctors", filterByTime(base, amOrPm));
+        return Collections.singletonMap("doctors", toViews(filterByTime(base, amOrPm)));
     }
 
     @Transactional(readOnly = true)
     public Map<String, Object> filterDoctorBySpecialty(String specialty) {
         List<Doctor> list = doctorRepository.findBySpecialtyIgnoreCase(specialty);
-        return Collections.singletonMap("doctors", list);
+        return Collections.singletonMap("doctors", toViews(list));
     }
 
     @Transactional(readOnly = true)
     public Map<String, Object> filterDoctorsByTime(String amOrPm) {
-        List<Doctor> all = doctorRepository.findAll();
-        return Collections.singletonMap("doctors", filterByTime(all, amOrPm));
+        List<Doctor> all = doctorRepository.findAllActive();
+        return Collections.singletonMap("doctors", toViews(filterByTime(all, amOrPm)));
     }
 
     /**
-     * Helper to filter doctors by AM/PM availability based on availableTimes
-     * strings.
+     * Helper to map doctors to their lean listing view.
+     */
+    private List<DoctorDTO> toViews(List<Doctor> doctors) {
+        List<DoctorDTO> views = new ArrayList<>(doctors.size());
+        for (Doctor doc : doctors) {
+            views.add(new DoctorDTO(doc));
+        }
+        return views;
+    }
+
+    /**
+     * Helper to filter doctors by AM/PM working hours of their schedules.
      */
     private List<Doctor> filterByTime(List<Doctor> doctors, String amOrPm) {
         List<Doctor> result = new ArrayList<>();
         for (Doctor doc : doctors) {
-            boolean ok = false;
-            List<String> times = doc.getAvailableTimes();
-            if (times != null) {
-                for (String timeStr : times) {
-                    LocalTime time = LocalTime.parse(timeStr);
-                    int hour = time.getHour();
-                    if ("AM".equalsIgnoreCase(amOrPm) && hour < 12)
-                        ok = true;
-                    if ("PM".equalsIgnoreCase(amOrPm) && hour >= 12)
-                        ok = true;
-                }
-            }
-            if (ok)
+            if (scheduleService.worksIn(doc, amOrPm))
                 result.add(doc);
         }
         return result;
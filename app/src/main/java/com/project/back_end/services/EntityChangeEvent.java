@@ -0,0 +1,38 @@
+package com.project.back_end.services;
+
+/**
+ * Notification that an entity was created, updated or deleted. Carried over
+ * the {@link InvalidationBus} so every node can evict its local caches.
+ *
+ * @param entity entity type, one of the constants below
+ * @param id     primary key of the changed entity (may be null for "all")
+ * @param origin id of the node that published the event
+ */
+public record EntityChangeEvent(String entity, Long id, String origin) {
+
+    public static final String DOCTOR = "DOCTOR";
+    public static final String PATIENT = "PATIENT";
+    public static final String APPOINTMENT = "APPOINTMENT";
+    /**
+     * id is the appointment id: it identifies the prescription (one per
+     * appointment) and, unlike the Mongo document id, fits the numeric key.
+     */
+    public static final String PRESCRIPTION = "PRESCRIPTION";
+    /** Booked slots of a doctor changed; id is the doctor id. */
+    public static final String AVAILABILITY = "AVAILABILITY";
+
+    /**
+     * Wire format: ENTITY|id|origin (id left empty when null).
+     */
+    public String encode() {
+        return entity + "|" + (id != null ? id : "") + "|" + origin;
+    }
+
+    public static EntityChangeEvent decode(String line) {
+        String[] parts = line.split("\\|", -1);
+        if (parts.length != 3)
+            throw new IllegalArgumentException("Malformed event: " + line);
+        Long id = parts[1].isEmpty() ? null : Long.valueOf(parts[1]);
+        return new EntityChangeEvent(parts[0], id, parts[2]);
+    }
+}
@@ -0,0 +1,242 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.models.EtagGeneration;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.WaitlistEntry;
+import com.project.back_end.repo.EtagGenerationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes ETags for read endpoints from generation counters instead of
+ * from the response body, so a matching If-None-Match is answered with 304
+ * after one primary-key lookup, before the real query runs or anything is
+ * serialized.
+ *
+ * The counters live in the etag_generation table of each shard and are
+ * advanced in the same transaction as the change. Frequent writes only
+ * advance the counters of what they belong to ({@link #scope}: one doctor's
+ * appointments, one patient's appointments, one doctor's availability, one
+ * appointment's prescription), so bookings for different doctors never wait
+ * on the same counter row and a booking only changes the tags of the lists
+ * it appears in. The plain entity-type counters are advanced by rare writes
+ * that can show up anywhere: doctor changes, patient updates and JPQL bulk
+ * statements. A Hibernate listener covers every insert, update and delete of
+ * the mapped entities, and {@link #bump} covers the rest. Every node
+ * therefore derives the same tag from the same data. Single-entity
+ * responses use the entity's @Version instead ({@link #versionTag}).
+ */
+@Service
+public class EtagService {
+
+    /** Scope owners, see {@link #scope}. */
+    public static final String BY_DOCTOR = "d";
+    public static final String BY_PATIENT = "p";
+    public static final String BY_APPOINTMENT = "a";
+
+    // sorted, so concurrent transactions lock the counter rows in the same order
+    private static final String UPSERT = "INSERT INTO etag_generation (entity, generation) VALUES %s"
+            + " ON DUPLICATE KEY UPDATE generation = generation + 1";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final EtagGenerationRepository generationRepository;
+    // counters changed by each open session, bumped once right before it commits
+    private final Map<SharedSessionContractImplementor, Set<String>> pending = new ConcurrentHashMap<>();
+
+    public EtagService(EntityManagerFactory entityManagerFactory,
+            EntityManager entityManager,
+            EtagGenerationRepository generationRepository) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.generationRepository = generationRepository;
+    }
+
+    @PostConstruct
+    void registerListener() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        ChangeListener listener = new ChangeListener();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    /**
+     * Counter key of the part of an entity type that belongs to one owner,
+     * e.g. scope(APPOINTMENT, BY_DOCTOR, 7) for doctor 7's appointments.
+     */
+    public static String scope(String entity, String owner, Object id) {
+        return entity + "/" + owner + "/" + id;
+    }
+
+    /**
+     * Builds a strong ETag for a response derived from the given counters
+     * (entity types or {@link #scope scopes}). Counters only ever grow, so
+     * their sum changes whenever any of them does, however many there are.
+     */
+    @Transactional(readOnly = true)
+    public String etag(String... keys) {
+        return etag(Arrays.asList(keys));
+    }
+
+    @Transactional(readOnly = true)
+    public String etag(Collection<String> keys) {
+        long sum = 0;
+        for (EtagGeneration g : generationRepository.findAllById(new TreeSet<>(keys))) {
+            sum += g.getGeneration();
+        }
+        return "\"g-" + sum + "\"";
+    }
+
+    /**
+     * ETag of a single entity, from its optimistic-lock version.
+     */
+    public String versionTag(String entity, Long id, Long version) {
+        return "\"" + entity.toLowerCase() + "-" + id + "-v" + (version != null ? version : 0) + "\"";
+    }
+
+    /**
+     * Advances the counters in the caller's transaction; for changes the
+     * Hibernate listener does not see (JPQL bulk statements, Mongo).
+     */
+    @Transactional
+    public void bump(String... keys) {
+        bump(Arrays.asList(keys));
+    }
+
+    @Transactional
+    public void bump(Collection<String> keys) {
+        Set<String> sorted = new TreeSet<>(keys);
+        entityManager.unwrap(Session.class).doWork(connection -> bump(connection, sorted));
+    }
+
+    static void bump(Connection connection, Collection<String> types) throws SQLException {
+        if (types.isEmpty())
+            return;
+        String sql = String.format(UPSERT, String.join(", ", Collections.nCopies(types.size(), "(?, 1)")));
+        try (PreparedStatement upsert = connection.prepareStatement(sql)) {
+            int i = 1;
+            for (String type : types) {
+                upsert.setString(i++, type);
+            }
+            upsert.executeUpdate();
+        }
+    }
+
+    /**
+     * Counters a single-row change of the entity advances.
+     */
+    public static List<String> keys(Object entity) {
+        if (entity instanceof Appointment appointment) {
+            List<String> keys = new ArrayList<>(2);
+            if (appointment.getDoctor() != null)
+                keys.add(scope(EntityChangeEvent.APPOINTMENT, BY_DOCTOR, appointment.getDoctor().getId()));
+            if (appointment.getPatient() != null)
+                keys.add(scope(EntityChangeEvent.APPOINTMENT, BY_PATIENT, appointment.getPatient().getId()));
+            return keys;
+        }
+        if (entity instanceof Doctor)
+            return List.of(EntityChangeEvent.DOCTOR);
+        if (entity instanceof Patient)
+            return List.of(EntityChangeEvent.PATIENT);
+        if (entity instanceof DoctorSchedule schedule)
+            return List.of(EntityChangeEvent.DOCTOR,
+                    scope(EntityChangeEvent.AVAILABILITY, BY_DOCTOR, schedule.getDoctorId()));
+        // offers hold slots, so they change availability
+        if (entity instanceof WaitlistEntry entry)
+            return List.of(scope(EntityChangeEvent.AVAILABILITY, BY_DOCTOR, entry.getDoctorId()));
+        return List.of();
+    }
+
+    private static List<String> keys(Object entity, EntityPersister persister, Object[] oldState) {
+        List<String> keys = new ArrayList<>(keys(entity));
+        // moved to another doctor or patient: the old owner's list changed too
+        if (entity instanceof Appointment && oldState != null) {
+            Appointment before = new Appointment();
+            before.setDoctor((Doctor) oldState[persister.getPropertyIndex("doctor")]);
+            before.setPatient((Patient) oldState[persister.getPropertyIndex("patient")]);
+            keys.addAll(keys(before));
+        }
+        return keys;
+    }
+
+    private void changed(EventSource session, Collection<String> keys) {
+        if (keys.isEmpty())
+            return;
+        SessionImplementor key = session;
+        pending.computeIfAbsent(key, k -> {
+            Set<String> set = new TreeSet<>();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) sess -> {
+                Set<String> bumped = pending.remove(key);
+                if (bumped != null)
+                    sess.doWork(connection -> bump(connection, bumped));
+            });
+            // rolled back: nothing to bump, just forget the session
+            session.getActionQueue().registerProcess(
+                    (AfterTransactionCompletionProcess) (success, sess) -> pending.remove(key));
+            return set;
+        }).addAll(keys);
+    }
+
+    private final class ChangeListener
+            implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            // a new patient is in no list yet
+            if (!(event.getEntity() instanceof Patient))
+                changed(event.getSession(), keys(event.getEntity()));
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            changed(event.getSession(), keys(event.getEntity(), event.getPersister(), event.getOldState()));
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            changed(event.getSession(), keys(event.getEntity()));
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.project.back_end.services;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bookable slot found by an availability search.
+ *
+ * @param doctorId doctor the slot belongs to
+ * @param time     start of the slot
+ */
+public record FreeSlot(Long doctorId, LocalDateTime time) {
+}
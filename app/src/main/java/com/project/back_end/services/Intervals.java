@@ -0,0 +1,86 @@
+package com.project.back_end.services;
+
+import java.util.Arrays;
+
+/**
+ * Sets of half-open time intervals packed into int arrays as
+ * [start0, end0, start1, end1, ...], in minutes of the day, sorted and
+ * non-overlapping. Every operation is a single merge pass over its inputs.
+ */
+final class Intervals {
+
+    static final int[] EMPTY = new int[0];
+
+    private Intervals() {
+    }
+
+    /**
+     * Sorts and merges arbitrary [start, end) pairs; empty pairs are dropped.
+     */
+    static int[] normalize(int[] pairs) {
+        int n = pairs.length / 2;
+        long[] packed = new long[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int start = pairs[2 * i];
+            int end = pairs[2 * i + 1];
+            if (end > start)
+                packed[count++] = ((long) start << 32) | end;
+        }
+        Arrays.sort(packed, 0, count);
+        int[] out = new int[2 * count];
+        int len = 0;
+        for (int i = 0; i < count; i++) {
+            int start = (int) (packed[i] >>> 32);
+            int end = (int) packed[i];
+            if (len > 0 && start <= out[len - 1]) {
+                out[len - 1] = Math.max(out[len - 1], end);
+            } else {
+                out[len++] = start;
+                out[len++] = end;
+            }
+        }
+        return len == out.length ? out : Arrays.copyOf(out, len);
+    }
+
+    static int[] union(int[] a, int[] b) {
+        if (a.length == 0)
+            return b;
+        if (b.length == 0)
+            return a;
+        int[] both = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        return normalize(both);
+    }
+
+    /**
+     * Removes the intervals of b from a.
+     */
+    static int[] subtract(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0)
+            return a;
+        int[] out = new int[a.length + b.length];
+        int len = 0;
+        int j = 0;
+        for (int i = 0; i < a.length; i += 2) {
+            int start = a[i];
+            int end = a[i + 1];
+            while (j < b.length && b[j + 1] <= start)
+                j += 2;
+            int k = j;
+            while (k < b.length && b[k] < end) {
+                if (b[k] > start) {
+                    out[len++] = start;
+                    out[len++] = b[k];
+                }
+                start = Math.max(start, b[k + 1]);
+                k += 2;
+            }
+            if (start < end) {
+                out[len++] = start;
+                out[len++] = end;
+            }
+        }
+        return Arrays.copyOf(out, len);
+    }
+}
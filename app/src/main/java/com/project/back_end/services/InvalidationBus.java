@@ -0,0 +1,40 @@
+package com.project.back_end.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Publishes entity-change events to every node so that in-process caches
+ * (doctors, tokens, availability) can be evicted or refreshed.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Delivers the event to local listeners and to all other nodes.
+     */
+    void publish(String entity, Long id);
+
+    /**
+     * Registers a listener invoked for local and remote events.
+     */
+    void subscribe(Consumer<EntityChangeEvent> listener);
+
+    /**
+     * Publishes once the surrounding transaction commits, or immediately when
+     * there is none, so other nodes never reload the pre-commit state.
+     */
+    default void publishAfterCommit(String entity, Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(entity, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(entity, id);
+            }
+        });
+    }
+}
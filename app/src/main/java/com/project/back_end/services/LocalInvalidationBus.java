@@ -0,0 +1,49 @@
+package com.project.back_end.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM invalidation bus. Used for single-node deployments and tests, and
+ * as the local fan-out for {@link UdpInvalidationBus}.
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<EntityChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String entity, Long id) {
+        deliver(new EntityChangeEvent(entity, id, nodeId));
+    }
+
+    @Override
+    public void subscribe(Consumer<EntityChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Hands the event to every local listener; one failing listener does not
+     * stop the others.
+     */
+    void deliver(EntityChangeEvent event) {
+        for (Consumer<EntityChangeEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation listener failed on {} {}", event.entity(), event.id(), e);
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
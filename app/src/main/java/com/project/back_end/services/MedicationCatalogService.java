@@ -0,0 +1,154 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.models.Prescription;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Medication autocomplete for the prescription form, served from a
+ * {@link MedicationTrie} held in memory.
+ *
+ * The catalog is read at startup from app.medications.catalog (one name per
+ * line, '#' starts a comment) and ranked by how often each medication was
+ * prescribed, counted once from the prescriptions collection and then kept
+ * current as prescriptions are saved on this node. Names typed free-form
+ * join the catalog once they have been prescribed app.medications.learn-after
+ * times, which rebuilds the trie. A prescription listing several
+ * medications separated by commas counts once for each of them.
+ */
+@Service
+public class MedicationCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicationCatalogService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Resource catalog;
+    private final int completions;
+    private final int learnAfter;
+    private final Map<String, Long> unknown = new HashMap<>();
+    private volatile MedicationTrie trie;
+
+    public MedicationCatalogService(MongoTemplate mongoTemplate,
+            @Value("${app.medications.catalog:classpath:medications.txt}") Resource catalog,
+            @Value("${app.medications.completions:10}") int completions,
+            @Value("${app.medications.learn-after:3}") int learnAfter) {
+        this.mongoTemplate = mongoTemplate;
+        this.catalog = catalog;
+        this.completions = completions;
+        this.learnAfter = learnAfter;
+        this.trie = new MedicationTrie(readCatalog(), completions);
+    }
+
+    /**
+     * Ranks the catalog by the prescriptions saved so far on every shard.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadUsage() {
+        Map<String, Long> usage = new HashMap<>();
+        TenantContext.forEachShard(() -> {
+            try {
+                Aggregation aggregation = Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("medicationKey").ne(null)),
+                        Aggregation.group("medicationKey").count().as("uses").first("medication").as("name"));
+                for (Document row : mongoTemplate.aggregate(aggregation, Prescription.class, Document.class)) {
+                    long uses = ((Number) row.get("uses")).longValue();
+                    for (String name : split(row.getString("name"))) {
+                        usage.merge(name, uses, Long::sum);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not load medication usage", e);
+            }
+        });
+        synchronized (this) {
+            Map<String, Long> scores = trie.scores();
+            usage.forEach((name, uses) -> {
+                if (trie.contains(name) || uses >= learnAfter)
+                    scores.merge(name, uses, Long::sum);
+            });
+            trie = new MedicationTrie(scores, completions);
+        }
+    }
+
+    /**
+     * Best-ranked catalog names starting with the prefix.
+     */
+    public List<String> complete(String prefix) {
+        return trie.complete(prefix);
+    }
+
+    /**
+     * Counts the medications of a prescription towards their ranking.
+     */
+    public synchronized void recordUse(String medication) {
+        for (String name : split(medication)) {
+            recordName(name);
+        }
+    }
+
+    /**
+     * The medications of a prescription's medication field, which may list
+     * several separated by commas.
+     */
+    static List<String> split(String medication) {
+        if (medication == null)
+            return List.of();
+        List<String> names = new ArrayList<>();
+        for (String part : medication.split(",")) {
+            if (!part.isBlank())
+                names.add(part.trim());
+        }
+        return names;
+    }
+
+    private void recordName(String medication) {
+        String key = MedicationTrie.key(medication);
+        if (key.isEmpty() || trie.addScore(medication, 1))
+            return;
+        long uses = unknown.merge(key, 1L, Long::sum);
+        if (uses >= learnAfter) {
+            unknown.remove(key);
+            Map<String, Long> scores = trie.scores();
+            scores.put(medication.trim(), uses);
+            trie = new MedicationTrie(scores, completions);
+        }
+    }
+
+    private Map<String, Long> readCatalog() {
+        Map<String, Long> names = new HashMap<>();
+        if (!catalog.exists())
+            return names;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(catalog.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                String name = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                if (!name.isEmpty())
+                    names.put(name, 0L);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read medication catalog " + catalog, e);
+        }
+        return names;
+    }
+}
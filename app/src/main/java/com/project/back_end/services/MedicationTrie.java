@@ -0,0 +1,284 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Compressed (radix) trie over medication names, laid out in flat arrays.
+ *
+ * Names are sorted by their lower-cased key, so every node covers a
+ * contiguous range of them. Each node keeps its best-ranked names as a
+ * ready-made list: a completion walks the prefix through the edge labels
+ * and returns that node's list as is, allocating nothing.
+ *
+ * Rankings change through {@link #addScore}, which touches only the nodes
+ * on the name's path and swaps in new lists; readers never lock. Writers
+ * must be serialized by the caller.
+ */
+final class MedicationTrie {
+
+    private final String[] keys;
+    private final String[] names;
+    private final long[] scores;
+    private final int topK;
+
+    // node arrays; node 0 is the root
+    private final int[] rangeLo;
+    private final int[] rangeHi;
+    private final int[] labelEnd; // label is keys[rangeLo] from the parent's labelEnd up to this
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final char[] firstChar;
+    private final int[][] topIndex;
+    private final AtomicReferenceArray<List<String>> top;
+
+    /**
+     * @param scores display name to initial score; names equal ignoring case
+     *               are merged
+     */
+    MedicationTrie(Map<String, Long> scores, int topK) {
+        TreeMap<String, String> byKey = new TreeMap<>();
+        TreeMap<String, Long> scoreByKey = new TreeMap<>();
+        scores.forEach((name, score) -> {
+            String key = key(name);
+            if (key.isEmpty())
+                return;
+            byKey.putIfAbsent(key, name.trim());
+            scoreByKey.merge(key, score, Long::sum);
+        });
+        this.topK = Math.max(1, topK);
+        this.keys = byKey.keySet().toArray(new String[0]);
+        this.names = byKey.values().toArray(new String[0]);
+        this.scores = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            this.scores[i] = scoreByKey.get(keys[i]);
+        }
+
+        Builder builder = new Builder();
+        builder.build(0, keys.length, 0, 0);
+        int n = builder.lo.size();
+        rangeLo = toArray(builder.lo);
+        rangeHi = toArray(builder.hi);
+        labelEnd = toArray(builder.end);
+        firstChild = toArray(builder.first);
+        childCount = toArray(builder.count);
+        firstChar = new char[n];
+        for (int node = 1; node < n; node++) {
+            firstChar[node] = keys[rangeLo[node]].charAt(builder.start.get(node));
+        }
+        topIndex = new int[n][];
+        top = new AtomicReferenceArray<>(n);
+        for (int node = 0; node < n; node++) {
+            topIndex[node] = best(rangeLo[node], rangeHi[node]);
+            top.set(node, view(topIndex[node]));
+        }
+    }
+
+    static String key(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    boolean contains(String name) {
+        return indexOf(key(name)) >= 0;
+    }
+
+    /**
+     * Best-ranked names starting with the prefix (any case); the same list
+     * instance is returned until a ranking below it changes.
+     */
+    List<String> complete(CharSequence prefix) {
+        int node = 0;
+        int depth = 0;
+        int length = prefix.length();
+        while (depth < length) {
+            char c = Character.toLowerCase(prefix.charAt(depth));
+            int child = findChild(node, c);
+            if (child < 0)
+                return List.of();
+            String label = keys[rangeLo[child]];
+            int end = labelEnd[child];
+            while (depth < length && depth < end) {
+                if (label.charAt(depth) != Character.toLowerCase(prefix.charAt(depth)))
+                    return List.of();
+                depth++;
+            }
+            node = child;
+        }
+        return top.get(node);
+    }
+
+    /**
+     * Adds to a name's score and re-ranks the nodes on its path.
+     *
+     * @return false if the name is not in the trie
+     */
+    boolean addScore(String name, long delta) {
+        int index = indexOf(key(name));
+        if (index < 0)
+            return false;
+        scores[index] += delta;
+        int node = 0;
+        while (true) {
+            rerank(node, index);
+            int next = -1;
+            for (int c = firstChild[node], end = c + childCount[node]; c < end; c++) {
+                if (rangeLo[c] <= index && index < rangeHi[c]) {
+                    next = c;
+                    break;
+                }
+            }
+            if (next < 0)
+                return true;
+            node = next;
+        }
+    }
+
+    /**
+     * Current scores by display name, to seed a rebuilt trie.
+     */
+    Map<String, Long> scores() {
+        Map<String, Long> copy = new TreeMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            copy.put(names[i], scores[i]);
+        }
+        return copy;
+    }
+
+    private int indexOf(String key) {
+        return key.isEmpty() ? -1 : Math.max(-1, Arrays.binarySearch(keys, key));
+    }
+
+    private int findChild(int node, char c) {
+        int lo = firstChild[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (firstChar[mid] < c)
+                lo = mid + 1;
+            else if (firstChar[mid] > c)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    private void rerank(int node, int index) {
+        int[] current = topIndex[node];
+        boolean listed = false;
+        for (int i : current) {
+            listed |= i == index;
+        }
+        if (!listed && current.length == topK && !outranks(index, current[current.length - 1]))
+            return;
+        int[] next = Arrays.copyOf(current, listed || current.length == topK ? current.length : current.length + 1);
+        if (!listed)
+            next[next.length - 1] = index;
+        // one element moved up: a single insertion pass restores the order
+        for (int i = 1; i < next.length; i++) {
+            for (int j = i; j > 0 && outranks(next[j], next[j - 1]); j--) {
+                int t = next[j];
+                next[j] = next[j - 1];
+                next[j - 1] = t;
+            }
+        }
+        topIndex[node] = next;
+        top.set(node, view(next));
+    }
+
+    private boolean outranks(int a, int b) {
+        return scores[a] != scores[b] ? scores[a] > scores[b] : a < b;
+    }
+
+    private int[] best(int lo, int hi) {
+        Integer[] all = new Integer[hi - lo];
+        for (int i = lo; i < hi; i++) {
+            all[i - lo] = i;
+        }
+        Arrays.sort(all, (a, b) -> outranks(a, b) ? -1 : outranks(b, a) ? 1 : 0);
+        int[] best = new int[Math.min(topK, all.length)];
+        for (int i = 0; i < best.length; i++) {
+            best[i] = all[i];
+        }
+        return best;
+    }
+
+    private List<String> view(int[] indexes) {
+        String[] out = new String[indexes.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = names[indexes[i]];
+        }
+        return List.of(out);
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] out = new int[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values.get(i);
+        }
+        return out;
+    }
+
+    /** Builds the nodes breadth-first so that siblings are contiguous. */
+    private final class Builder {
+        final List<Integer> lo = new ArrayList<>();
+        final List<Integer> hi = new ArrayList<>();
+        final List<Integer> start = new ArrayList<>();
+        final List<Integer> end = new ArrayList<>();
+        final List<Integer> first = new ArrayList<>();
+        final List<Integer> count = new ArrayList<>();
+
+        void build(int rootLo, int rootHi, int rootStart, int rootEnd) {
+            add(rootLo, rootHi, rootStart, rootEnd);
+            for (int node = 0; node < lo.size(); node++) {
+                int depth = end.get(node);
+                int i = lo.get(node);
+                int limit = hi.get(node);
+                // the name ending exactly here sorts first and has no child
+                if (i < limit && keys[i].length() == depth)
+                    i++;
+                first.set(node, lo.size());
+                int children = 0;
+                while (i < limit) {
+                    char c = keys[i].charAt(depth);
+                    int j = i + 1;
+                    while (j < limit && keys[j].charAt(depth) == c)
+                        j++;
+                    add(i, j, depth, depth + commonPrefix(i, j, depth));
+                    children++;
+                    i = j;
+                }
+                count.set(node, children);
+            }
+        }
+
+        private void add(int l, int h, int s, int e) {
+            lo.add(l);
+            hi.add(h);
+            start.add(s);
+            end.add(e);
+            first.add(0);
+            count.add(0);
+        }
+
+        /** Length of the prefix shared by keys[i, j) beyond depth. */
+        private int commonPrefix(int i, int j, int depth) {
+            String a = keys[i];
+            String b = keys[j - 1];
+            int n = depth;
+            int max = Math.min(a.length(), b.length());
+            while (n < max && a.charAt(n) == b.charAt(n))
+                n++;
+            return n - depth;
+        }
+    }
+}
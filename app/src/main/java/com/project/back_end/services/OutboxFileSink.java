@@ -0,0 +1,44 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stand-in for a message queue: appends every outbox event to a file as one
+ * JSON line, for consumers that tail it. Enabled by app.outbox.file.
+ */
+@Component
+@ConditionalOnProperty("app.outbox.file")
+public class OutboxFileSink implements OutboxListener {
+
+    private final Path file;
+
+    public OutboxFileSink(@Value("${app.outbox.file}") String file) {
+        this.file = Path.of(file);
+    }
+
+    @Override
+    public synchronized void onEvent(OutboxEvent event) {
+        String line = "{\"id\":" + event.getId()
+                + ",\"clinicId\":" + event.getClinicId()
+                + ",\"entity\":\"" + event.getEntityType()
+                + "\",\"entityId\":" + event.getEntityId()
+                + ",\"action\":\"" + event.getAction()
+                + "\",\"createdAt\":\"" + event.getCreatedAt() + "\"}\n";
+        try {
+            Files.writeString(file, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
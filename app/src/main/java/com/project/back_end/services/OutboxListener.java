@@ -0,0 +1,15 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.OutboxEvent;
+
+/**
+ * Receives committed doctor, patient and appointment changes from the
+ * outbox relay, in commit order per entity. Delivery is at least once: an
+ * event may repeat after a failure, so handlers must be idempotent.
+ * Throwing holds back that entity's events, which are retried with backoff;
+ * other entities' events keep flowing.
+ */
+public interface OutboxListener {
+
+    void onEvent(OutboxEvent event);
+}
@@ -0,0 +1,266 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.config.TenantIdentifierResolver;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.OutboxEvent;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Transactional outbox for doctor, patient and appointment changes.
+ *
+ * A Hibernate listener sees every insert, update and delete of those
+ * entities, whichever service made it, and writes an outbox_event row just
+ * before the transaction commits, so the event exists if and only if the
+ * change does. JPQL bulk updates bypass the listener; their callers use
+ * {@link #record} instead. Two writers are deliberately left out: moving a
+ * clinic to another shard ({@link TenantRebalanceService}) copies rows
+ * unchanged, and is announced on the invalidation bus instead, and
+ * {@link AppointmentPartitionService} only drops partitions that hold no rows.
+ *
+ * A relay drains the table in id order and hands each event to every
+ * {@link OutboxListener}, deleting only what was delivered. Rows are locked
+ * while a batch is delivered, so relays on several nodes take turns. When a
+ * listener fails, that event is retried with exponential backoff (from
+ * app.outbox.relay-ms up to app.outbox.retry-max-ms) and later changes of
+ * the same entity wait behind it, so they are never delivered before earlier
+ * ones; other entities' events are delivered meanwhile. Delivery is at least
+ * once.
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private static final String INSERT = "INSERT INTO outbox_event (clinic_id, entity_type, entity_id, action, created_at)"
+            + " VALUES (?, ?, ?, ?, ?)";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectProvider<OutboxListener> listeners;
+    private final EtagService etagService;
+    private final TransactionTemplate tx;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.relay-ms:1000}")
+    private long relayMs;
+
+    @Value("${app.outbox.retry-max-ms:300000}")
+    private long retryMaxMs;
+
+    public OutboxService(EntityManagerFactory entityManagerFactory,
+            EntityManager entityManager,
+            OutboxEventRepository outboxRepository,
+            ObjectProvider<OutboxListener> listeners,
+            EtagService etagService,
+            PlatformTransactionManager transactionManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.outboxRepository = outboxRepository;
+        this.listeners = listeners;
+        this.etagService = etagService;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void registerListener() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        ChangeListener listener = new ChangeListener();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    /**
+     * Records changes made by a JPQL bulk statement, in the caller's
+     * transaction. Bulk statements bypass Hibernate's listeners, so this also
+     * advances the entity type's ETag generation.
+     *
+     * @param entity one of the {@link EntityChangeEvent} entity types
+     * @param action one of the {@link OutboxEvent} actions
+     */
+    @Transactional
+    public void record(String entity, List<Long> ids, String action) {
+        record(entity, ids, action, List.of(entity));
+    }
+
+    /**
+     * Same, for a bulk statement whose rows are known: advances only the
+     * given ETag counters, e.g. {@link EtagService#keys} of the changed row.
+     */
+    @Transactional
+    public void record(String entity, List<Long> ids, String action, Collection<String> etagKeys) {
+        Long clinic = clinic(TenantContext.currentClinic());
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : ids) {
+            entityManager.persist(new OutboxEvent(clinic, entity, id, action, now));
+        }
+        etagService.bump(etagKeys);
+    }
+
+    /**
+     * Delivers pending events of every shard.
+     *
+     * @return number of events delivered
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay-ms:1000}")
+    public synchronized int relay() {
+        int[] total = { 0 };
+        TenantContext.forEachShard(() -> {
+            while (true) {
+                BatchResult batch = tx.execute(status -> relayBatch());
+                if (batch == null)
+                    return;
+                total[0] += batch.delivered();
+                if (batch.locked() < batchSize)
+                    return;
+            }
+        });
+        return total[0];
+    }
+
+    /**
+     * Delivers one locked batch. An event that fails is scheduled for a
+     * retry, and the rest of its entity's events in the batch are skipped.
+     */
+    private BatchResult relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxRepository.lockBatch(now, PageRequest.of(0, batchSize));
+        List<Long> delivered = new ArrayList<>(batch.size());
+        Set<String> held = new HashSet<>();
+        for (OutboxEvent event : batch) {
+            String entity = event.getEntityType() + "|" + event.getEntityId();
+            if (held.contains(entity))
+                continue;
+            try {
+                listeners.orderedStream().forEach(listener -> listener.onEvent(event));
+            } catch (RuntimeException e) {
+                held.add(entity);
+                event.setAttempts(event.getAttempts() + 1);
+                event.setNextAttemptAt(now.plus(retryDelay(event.getAttempts()), ChronoUnit.MILLIS));
+                log.warn("Outbox delivery of {} {} failed at event {} (attempt {}), retrying at {}",
+                        event.getEntityType(), event.getEntityId(), event.getId(), event.getAttempts(),
+                        event.getNextAttemptAt(), e);
+                continue;
+            }
+            delivered.add(event.getId());
+        }
+        if (!delivered.isEmpty())
+            outboxRepository.deleteAllByIdIn(delivered);
+        return new BatchResult(batch.size(), delivered.size());
+    }
+
+    private long retryDelay(int attempts) {
+        long delay = Math.max(1, relayMs) << Math.min(attempts - 1, 30);
+        return Math.min(delay, retryMaxMs);
+    }
+
+    private record BatchResult(int locked, int delivered) {
+    }
+
+    private static Long clinic(Object tenant) {
+        return tenant == null || TenantIdentifierResolver.ROOT.equals(tenant) ? null : (Long) tenant;
+    }
+
+    private static String entityType(Object entity) {
+        if (entity instanceof Appointment)
+            return EntityChangeEvent.APPOINTMENT;
+        if (entity instanceof Doctor)
+            return EntityChangeEvent.DOCTOR;
+        if (entity instanceof Patient)
+            return EntityChangeEvent.PATIENT;
+        return null;
+    }
+
+    /**
+     * Queues the outbox row on the session; it is inserted by plain JDBC
+     * right before commit, as listeners may not persist entities themselves.
+     */
+    private static void enqueue(EventSource session, Object entity, Object id, String action) {
+        String type = entityType(entity);
+        if (type == null || !(id instanceof Long))
+            return;
+        Long clinic = clinic(session.getTenantIdentifierValue());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Long entityId = (Long) id;
+        session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) s -> s.doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                if (clinic != null)
+                    insert.setLong(1, clinic);
+                else
+                    insert.setNull(1, Types.BIGINT);
+                insert.setString(2, type);
+                insert.setLong(3, entityId);
+                insert.setString(4, action);
+                insert.setTimestamp(5, now);
+                insert.executeUpdate();
+            }
+        }));
+    }
+
+    private final class ChangeListener
+            implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            enqueue(event.getSession(), event.getEntity(), event.getId(), OutboxEvent.CREATED);
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            enqueue(event.getSession(), event.getEntity(), event.getId(), OutboxEvent.UPDATED);
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            enqueue(event.getSession(), event.getEntity(), event.getId(), OutboxEvent.DELETED);
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+    }
+}
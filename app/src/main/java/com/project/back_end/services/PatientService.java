@@ -1,10 +1,12 @@
 package com.project.back_end.services;
 
+import com.project.back_end.config.ReplicaStickiness;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Patient;
 import com.project.back_end.DTO.AppointmentDTO;
 //import com.project.back_end.DTO.Login;
 import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
 import com.project.back_end.repo.PatientRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service layer for managing patients, including creation and
@@ -27,14 +30,26 @@ public class PatientService {
 
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
     private final TokenService tokenService;
+    private final ReplicaStickiness replicaStickiness;
+    private final InvalidationBus invalidationBus;
+    private final CredentialService credentialService;
 
     public PatientService(PatientRepository patientRepository,
             AppointmentRepository appointmentRepository,
-            TokenService tokenService) {
+            ArchivedAppointmentRepository archivedAppointmentRepository,
+            TokenService tokenService,
+            ReplicaStickiness replicaStickiness,
+            InvalidationBus invalidationBus,
+            CredentialService credentialService) {
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
         this.tokenService = tokenService;
+        this.replicaStickiness = replicaStickiness;
+        this.invalidationBus = invalidationBus;
+        this.credentialService = credentialService;
     }
 
     /**
@@ -46,7 +61,9 @@ public class PatientService {
     @Transactional
     public int createPatient(Patient patient) {
         try {
+            patient.setPassword(credentialService.hashIfNeeded(patient.getPassword()));
             patientRepository.save(patient);
+            invalidationBus.publishAfterCommit(EntityChangeEvent.PATIENT, patient.getId());
             return 1;
         } catch (Exception e) {
             return 0;
@@ -64,10 +81,12 @@ public class PatientService {
             resp.put("error", "Unauthorized access");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(resp);
         }
-        List<AppointmentDTO> dtos = appointmentRepository
-                .findByPatientId(id)
-                .stream()
-                .map(this::toDto)
+        replicaStickiness.pinIfRecentWrite(ReplicaStickiness.patientKey(id));
+        List<AppointmentDTO> dtos = Stream.concat(
+                archivedAppointmentRepository.findByPatientIdOrderByAppointmentTimeAsc(id).stream()
+                        .map(AppointmentDTO::of),
+                appointmentRepository.findByPatientId(id).stream()
+                        .map(AppointmentDTO::of))
                 .collect(Collectors.toList());
         resp.put("appointments", dtos);
         return ResponseEntity.ok(resp);
@@ -88,10 +107,15 @@ public class PatientService {
             resp.put("error", "Invalid condition");
             return ResponseEntity.badRequest().body(resp);
         }
-        List<AppointmentDTO> dtos = appointmentRepository
-                .findByPatient_IdAndStatusOrderByAppointmentTimeAsc(id, status)
-                .stream()
-                .map(this::toDto)
+        replicaStickiness.pinIfRecentWrite(ReplicaStickiness.patientKey(id));
+        // completed appointments may already have moved to the archive tier
+        Stream<AppointmentDTO> archived = status == 1
+                ? archivedAppointmentRepository.findByPatientIdOrderByAppointmentTimeAsc(id).stream()
+                        .map(AppointmentDTO::of)
+                : Stream.empty();
+        List<AppointmentDTO> dtos = Stream.concat(archived,
+                appointmentRepository.findByPatient_IdAndStatusOrderByAppointmentTimeAsc(id, status).stream()
+                        .map(AppointmentDTO::of))
                 .collect(Collectors.toList());
         resp.put("appointments", dtos);
         return ResponseEntity.ok(resp);
@@ -103,10 +127,12 @@ public class PatientService {
     @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Object>> filterByDoctor(String name, Long patientId) {
         Map<String, Object> resp = new HashMap<>();
-        List<AppointmentDTO> dtos = appointmentRepository
-                .filterByDoctorNameAndPatientId(name, patientId)
-                .stream()
-                .map(this::toDto)
+        replicaStickiness.pinIfRecentWrite(ReplicaStickiness.patientKey(patientId));
+        List<AppointmentDTO> dtos = Stream.concat(
+                archivedAppointmentRepository.filterByDoctorNameAndPatientId(name, patientId).stream()
+                        .map(AppointmentDTO::of),
+                appointmentRepository.filterByDoctorNameAndPatientId(name, patientId).stream()
+                        .map(AppointmentDTO::of))
                 .collect(Collectors.toList());
         resp.put("appointments", dtos);
         return ResponseEntity.ok(resp);
@@ -119,6 +145,7 @@ public class PatientService {
     public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(String condition,
             String name,
             Long patientId) {
+        replicaStickiness.pinIfRecentWrite(ReplicaStickiness.patientKey(patientId));
         // first filter by doctor name
         List<Appointment> byDoctor = appointmentRepository
                 .filterByDoctorNameAndPatientId(name, patientId);
@@ -129,9 +156,13 @@ public class PatientService {
             resp.put("error", "Invalid condition");
             return ResponseEntity.badRequest().body(resp);
         }
-        List<AppointmentDTO> dtos = byDoctor.stream()
+        Stream<AppointmentDTO> archived = status == 1
+                ? archivedAppointmentRepository.filterByDoctorNameAndPatientId(name, patientId).stream()
+                        .map(AppointmentDTO::of)
+                : Stream.empty();
+        List<AppointmentDTO> dtos = Stream.concat(archived, byDoctor.stream()
                 .filter(a -> a.getStatus() == status)
-                .map(this::toDto)
+                .map(AppointmentDTO::of))
                 .collect(Collectors.toList());
         Map<String, Object> resp = new HashMap<>();
         resp.put("appointments", dtos);
@@ -158,21 +189,4 @@ public class PatientService {
     public Patient findByEmail(String email) {
         return patientRepository.findByEmail(email);
     }
-
-    /**
-     * Helper: map Appointment to AppointmentDTO.
-     */
-    private AppointmentDTO toDto(Appointment a) {
-        return new AppointmentDTO(
-                a.getId(),
-                a.getDoctor().getId(),
-                a.getDoctor().getName(),
-                a.getPatient().getId(),
-                a.getPatient().getName(),
-                a.getPatient().getEmail(),
-                a.getPatient().getPhone(),
-                a.getPatient().getAddress(),
-                a.getAppointmentTime(),
-                a.getStatus());
-    }
 }
@@ -0,0 +1,156 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.models.Prescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Searches prescriptions by medication, doctor notes and pharmacy through a
+ * Mongo text index, and completes medication names from an index on the
+ * lower-cased medication, so neither scans the collection. Completion reads
+ * distinct names straight from that index, without touching documents or
+ * grouping them; ranking by use is left to {@link MedicationCatalogService}.
+ *
+ * Both indexes are created at startup on every shard's database. Results
+ * are limited to the current clinic; documents saved before tenancy carry
+ * no clinic and belong to the default clinic 0.
+ */
+@Service
+public class PrescriptionSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionSearchService.class);
+
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_COMPLETIONS = 20;
+
+    private final MongoTemplate mongoTemplate;
+
+    public PrescriptionSearchService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        TenantContext.forEachShard(() -> {
+            try {
+                var indexOps = mongoTemplate.indexOps(Prescription.class);
+                indexOps.createIndex(TextIndexDefinition.builder()
+                        .named("prescription_text")
+                        .onField("medication", 3F)
+                        .onField("doctorNotes")
+                        .onField("pharmacyName")
+                        .build());
+                // the name is in the index so completions never fetch a document
+                indexOps.createIndex(new Index().named("prescription_medication_complete")
+                        .on("medicationKey", Sort.Direction.ASC)
+                        .on("clinicId", Sort.Direction.ASC)
+                        .on("medication", Sort.Direction.ASC));
+                dropReplacedIndex(indexOps);
+                backfillMedicationKeys();
+            } catch (RuntimeException e) {
+                log.warn("Could not prepare prescription search indexes", e);
+            }
+        });
+    }
+
+    /**
+     * Prescriptions of the current clinic matching the words of the query,
+     * best matches first.
+     */
+    public Map<String, Object> search(String text, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .addCriteria(inClinic())
+                // one extra row tells whether another page exists, without a count
+                .with(PageRequest.of(pageNumber, pageSize))
+                .limit(pageSize + 1);
+        List<Prescription> found = mongoTemplate.find(query, Prescription.class);
+        boolean hasMore = found.size() > pageSize;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("prescriptions", hasMore ? found.subList(0, pageSize) : found);
+        result.put("page", pageNumber);
+        result.put("size", pageSize);
+        result.put("hasMore", hasMore);
+        return result;
+    }
+
+    /**
+     * Medication names of the current clinic starting with the prefix (any
+     * case), in alphabetical order; one spelling per name.
+     */
+    public List<String> completeMedication(String prefix, int limit) {
+        String key = prefix.trim().toLowerCase();
+        if (key.isEmpty())
+            return List.of();
+        // anchored and case-exact on the lower-cased key, so it is a range of the index
+        Query query = Query.query(Criteria.where("medicationKey").regex("^" + escape(key)))
+                .addCriteria(inClinic());
+        Map<String, String> names = new TreeMap<>();
+        for (String name : mongoTemplate.findDistinct(query, "medication", Prescription.class, String.class)) {
+            names.putIfAbsent(name.trim().toLowerCase(), name.trim());
+        }
+        return names.values().stream().limit(Math.max(1, Math.min(limit, MAX_COMPLETIONS))).toList();
+    }
+
+    private static Criteria inClinic() {
+        Long clinic = TenantContext.currentClinic();
+        if (clinic == null)
+            return new Criteria();
+        // documents without a clinic predate tenancy
+        return clinic == 0L ? Criteria.where("clinicId").in(0L, null) : Criteria.where("clinicId").is(clinic);
+    }
+
+    /** Escapes regex metacharacters; a quoted \Q..\E pattern would not use the index. */
+    private static String escape(String literal) {
+        StringBuilder sb = new StringBuilder(literal.length() + 8);
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if ("\\^$.|?*+()[]{}".indexOf(c) >= 0)
+                sb.append('\\');
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /** Computes the key server-side for documents saved before it existed, in one update. */
+    private void backfillMedicationKeys() {
+        Query missing = Query.query(Criteria.where("medicationKey").exists(false).and("medication").ne(null));
+        AggregationUpdate key = AggregationUpdate.update().set("medicationKey")
+                .toValue(StringOperators.valueOf(StringOperators.Trim.valueOf("medication")).toLower());
+        long updated = mongoTemplate.updateMulti(missing, key, Prescription.class).getModifiedCount();
+        if (updated > 0)
+            log.info("Backfilled the medication key of {} prescriptions", updated);
+    }
+
+    /** The completion index used to lead with clinicId and left out the name. */
+    private static void dropReplacedIndex(IndexOperations indexOps) {
+        for (IndexInfo index : indexOps.getIndexInfo()) {
+            if ("prescription_medication_prefix".equals(index.getName()))
+                indexOps.dropIndex(index.getName());
+        }
+    }
+}
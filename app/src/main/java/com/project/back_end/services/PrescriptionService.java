@@ -1,5 +1,6 @@
 package com.project.back_end.services;
 
+import com.project.back_end.config.TenantContext;
 import com.project.back_end.models.Prescription;
 import com.project.back_end.repo.PrescriptionRepository;
 import org.springframework.http.HttpStatus;
@@ -19,9 +20,18 @@ import java.util.Map;
 public class PrescriptionService {
 
     private final PrescriptionRepository prescriptionRepository;
+    private final InvalidationBus invalidationBus;
+    private final MedicationCatalogService medicationCatalog;
+    private final EtagService etagService;
 
-    public PrescriptionService(PrescriptionRepository prescriptionRepository) {
+    public PrescriptionService(PrescriptionRepository prescriptionRepository,
+            InvalidationBus invalidationBus,
+            MedicationCatalogService medicationCatalog,
+            EtagService etagService) {
         this.prescriptionRepository = prescriptionRepository;
+        this.invalidationBus = invalidationBus;
+        this.medicationCatalog = medicationCatalog;
+        this.etagService = etagService;
     }
 
     /**
@@ -40,7 +50,12 @@ public class PrescriptionService {
                 resp.put("error", "Prescription already exists for this appointment");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp);
             }
+            prescription.setClinicId(TenantContext.currentClinic());
             prescriptionRepository.save(prescription);
+            etagService.bump(EtagService.scope(EntityChangeEvent.PRESCRIPTION, EtagService.BY_APPOINTMENT,
+                    prescription.getAppointmentId()));
+            invalidationBus.publishAfterCommit(EntityChangeEvent.PRESCRIPTION, prescription.getAppointmentId());
+            medicationCatalog.recordUse(prescription.getMedication());
             resp.put("message", "Prescription saved");
             return ResponseEntity.status(HttpStatus.CREATED).body(resp);
         } catch (Exception e) {
@@ -0,0 +1,103 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.config.TenantReactiveMongoDatabaseFactory;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.ReactivePrescriptionRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking variant of {@link PrescriptionService}. Lookups return a
+ * {@link Mono} that completes when Mongo answers, so no request thread waits
+ * on the round trip; Spring MVC finishes the response asynchronously.
+ *
+ * The clinic of the calling request is copied into the Reactor context,
+ * since the pipeline completes on a driver thread where
+ * {@link TenantContext} is not set.
+ */
+@Service
+public class ReactivePrescriptionService {
+
+    private final ReactivePrescriptionRepository prescriptionRepository;
+    private final InvalidationBus invalidationBus;
+    private final MedicationCatalogService medicationCatalog;
+    private final EtagService etagService;
+
+    public ReactivePrescriptionService(ReactivePrescriptionRepository prescriptionRepository,
+            InvalidationBus invalidationBus,
+            MedicationCatalogService medicationCatalog,
+            EtagService etagService) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.invalidationBus = invalidationBus;
+        this.medicationCatalog = medicationCatalog;
+        this.etagService = etagService;
+    }
+
+    /**
+     * Saves a new prescription unless the appointment already has one.
+     */
+    public Mono<ResponseEntity<Map<String, String>>> savePrescription(Prescription prescription) {
+        prescription.setClinicId(TenantContext.currentClinic());
+        // the ETag generation lives in MySQL: advance it off the driver thread, in this request's clinic
+        Runnable advanceEtag = TenantContext.wrap(() -> etagService.bump(EtagService.scope(
+                EntityChangeEvent.PRESCRIPTION, EtagService.BY_APPOINTMENT, prescription.getAppointmentId())));
+        Mono<Void> bump = Mono.<Void>fromRunnable(advanceEtag).subscribeOn(Schedulers.boundedElastic());
+        Mono<ResponseEntity<Map<String, String>>> result = prescriptionRepository
+                .existsByAppointmentId(prescription.getAppointmentId())
+                .flatMap(exists -> {
+                    if (exists) {
+                        Map<String, String> resp = new HashMap<>();
+                        resp.put("error", "Prescription already exists for this appointment");
+                        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(resp));
+                    }
+                    return prescriptionRepository.save(prescription).flatMap(bump::thenReturn).map(saved -> {
+                        invalidationBus.publishAfterCommit(EntityChangeEvent.PRESCRIPTION, saved.getAppointmentId());
+                        medicationCatalog.recordUse(saved.getMedication());
+                        Map<String, String> resp = new HashMap<>();
+                        resp.put("message", "Prescription saved");
+                        return ResponseEntity.status(HttpStatus.CREATED).body(resp);
+                    });
+                })
+                .onErrorResume(e -> {
+                    Map<String, String> resp = new HashMap<>();
+                    resp.put("error", "Failed to save prescription");
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(resp));
+                });
+        return inClinic(result);
+    }
+
+    /**
+     * Retrieves prescriptions associated with a specific appointment ID.
+     */
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescription(Long appointmentId) {
+        Mono<ResponseEntity<Map<String, Object>>> result = prescriptionRepository
+                .findByAppointmentId(appointmentId)
+                .collectList()
+                .map(prescriptions -> {
+                    Map<String, Object> resp = new HashMap<>();
+                    resp.put("prescriptions", prescriptions);
+                    return ResponseEntity.ok(resp);
+                })
+                .onErrorResume(e -> {
+                    Map<String, Object> resp = new HashMap<>();
+                    resp.put("error", "Failed to retrieve prescription");
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(resp));
+                });
+        return inClinic(result);
+    }
+
+    private static <T> Mono<T> inClinic(Mono<T> mono) {
+        Long clinic = TenantContext.currentClinic();
+        return clinic != null
+                ? mono.contextWrite(Context.of(TenantReactiveMongoDatabaseFactory.CLINIC_KEY, clinic))
+                : mono;
+    }
+}
@@ -0,0 +1,189 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Issues access/refresh token pairs and handles refresh and revocation.
+ *
+ * Revoked refresh token ids live in the revoked_token table and in an
+ * in-memory Bloom filter. Refreshing a token whose id the filter has never
+ * seen needs no revocation query. Revocations from other nodes arrive over
+ * the {@link InvalidationBus} and by a periodic resync from the table.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final String REVOKED = "REFRESH_TOKEN_REVOKED";
+
+    private final TokenService tokenService;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final AdminRepository adminRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final InvalidationBus invalidationBus;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${app.security.revocation.expected:100000}")
+    private long expectedRevocations;
+
+    private volatile BloomFilter revoked;
+    private volatile LocalDateTime lastSync = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public RefreshTokenService(TokenService tokenService,
+            RevokedTokenRepository revokedTokenRepository,
+            AdminRepository adminRepository,
+            DoctorRepository doctorRepository,
+            PatientRepository patientRepository,
+            InvalidationBus invalidationBus) {
+        this.tokenService = tokenService;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.adminRepository = adminRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostConstruct
+    void init() {
+        revoked = new BloomFilter(expectedRevocations, 0.001);
+        invalidationBus.subscribe(event -> {
+            if (REVOKED.equals(event.entity()) && event.id() != null)
+                revoked.put(event.id());
+        });
+    }
+
+    /**
+     * Issues a new access token and refresh token for a freshly
+     * authenticated user.
+     *
+     * @return map with "token" and "refreshToken"
+     */
+    public Map<String, String> issue(String identifier, Long userId, String role) {
+        Map<String, String> tokens = new HashMap<>();
+        tokens.put("token", tokenService.generateToken(identifier, userId, role));
+        tokens.put("refreshToken",
+                tokenService.generateRefreshToken(identifier, userId, role, random.nextLong() & Long.MAX_VALUE));
+        return tokens;
+    }
+
+    /**
+     * Exchanges a valid refresh token for a new token pair. The old refresh
+     * token is revoked (rotation) and the user must still exist. If the same
+     * token is presented twice at once, only the request whose revocation is
+     * inserted first gets a new pair.
+     */
+    public ResponseEntity<Map<String, String>> refresh(String refreshToken) {
+        Map<String, String> resp = new HashMap<>();
+        Claims claims = tokenService.parseRefreshToken(refreshToken);
+        // the token, not the request, says which clinic this session belongs to
+        if (claims != null)
+            TenantContext.setClinic(claims.get("clinic", Long.class));
+        if (claims == null || isRevoked(claims)) {
+            resp.put("error", "Invalid or expired refresh token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(resp);
+        }
+        Long userId = claims.get("uid", Long.class);
+        String role = claims.get("role", String.class);
+        if (!userExists(role, userId)) {
+            resp.put("error", "User no longer exists");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(resp);
+        }
+        if (!revoke(claims)) {
+            resp.put("error", "Invalid or expired refresh token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(resp);
+        }
+        return ResponseEntity.ok(issue(claims.getSubject(), userId, role));
+    }
+
+    /**
+     * Revokes a refresh token (logout).
+     */
+    public ResponseEntity<Map<String, String>> revoke(String refreshToken) {
+        Map<String, String> resp = new HashMap<>();
+        Claims claims = tokenService.parseRefreshToken(refreshToken);
+        if (claims == null) {
+            resp.put("error", "Invalid refresh token");
+            return ResponseEntity.badRequest().body(resp);
+        }
+        TenantContext.setClinic(claims.get("clinic", Long.class));
+        revoke(claims);
+        resp.put("message", "Logged out");
+        return ResponseEntity.ok(resp);
+    }
+
+    /**
+     * Picks up revocations written by other nodes (in case a bus message was
+     * lost) and purges rows of tokens that have expired anyway.
+     */
+    @Scheduled(fixedDelayString = "${app.security.revocation.sync-ms:60000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastSync.minusMinutes(1);
+        TenantContext.forEachShard(() -> {
+            for (Long id : revokedTokenRepository.findActiveIdsRevokedSince(now, since)) {
+                revoked.put(id);
+            }
+            revokedTokenRepository.deleteExpired(now);
+        });
+        lastSync = now;
+    }
+
+    private boolean isRevoked(Claims claims) {
+        long id = Long.parseLong(claims.getId());
+        // a negative answer from the filter is definite: no query needed
+        return revoked.mightContain(id) && revokedTokenRepository.existsById(id);
+    }
+
+    /**
+     * @return false if the token had already been revoked
+     */
+    private boolean revoke(Claims claims) {
+        long id = Long.parseLong(claims.getId());
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+        boolean first;
+        try {
+            revokedTokenRepository.insert(id, expiresAt, LocalDateTime.now());
+            first = true;
+        } catch (DataIntegrityViolationException e) {
+            first = false;
+        }
+        revoked.put(id);
+        if (first)
+            invalidationBus.publish(REVOKED, id);
+        return first;
+    }
+
+    private boolean userExists(String role, Long userId) {
+        if (role == null || userId == null)
+            return false;
+        switch (role.toUpperCase()) {
+            case "ADMIN":
+                return adminRepository.existsById(userId);
+            case "DOCTOR":
+                // soft-deleted doctors stay in the table until purged
+                return doctorRepository.existsByIdAndDeletedFalse(userId);
+            case "PATIENT":
+                return patientRepository.existsById(userId);
+            default:
+                return false;
+        }
+    }
+}
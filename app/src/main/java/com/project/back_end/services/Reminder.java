@@ -0,0 +1,15 @@
+package com.project.back_end.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * An appointment reminder that has come due.
+ *
+ * @param shard           shard the appointment lives on
+ * @param appointmentId   appointment to remind of
+ * @param appointmentTime start of the appointment
+ * @param before          how long before the start the reminder is sent
+ */
+public record Reminder(String shard, Long appointmentId, LocalDateTime appointmentTime, Duration before) {
+}
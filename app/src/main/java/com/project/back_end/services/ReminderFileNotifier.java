@@ -0,0 +1,41 @@
+package com.project.back_end.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stand-in for a mail or SMS gateway: appends every due reminder to a file
+ * as one JSON line. Enabled by app.reminders.file.
+ */
+@Component
+@ConditionalOnProperty("app.reminders.file")
+public class ReminderFileNotifier implements ReminderNotifier {
+
+    private final Path file;
+
+    public ReminderFileNotifier(@Value("${app.reminders.file}") String file) {
+        this.file = Path.of(file);
+    }
+
+    @Override
+    public void remind(Reminder reminder) {
+        String line = "{\"shard\":\"" + reminder.shard()
+                + "\",\"appointmentId\":" + reminder.appointmentId()
+                + ",\"appointmentTime\":\"" + reminder.appointmentTime()
+                + "\",\"before\":\"" + reminder.before() + "\"}\n";
+        try {
+            Files.writeString(file, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.project.back_end.services;
+
+/**
+ * Sends a due appointment reminder (mail, SMS, push). Without any notifier
+ * bean, reminders are only logged.
+ */
+public interface ReminderNotifier {
+
+    void remind(Reminder reminder);
+}
@@ -0,0 +1,274 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.repo.AppointmentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * Sends appointment reminders app.reminders.offsets before each scheduled
+ * appointment (24 hours and 1 hour by default) through the
+ * {@link ReminderNotifier} beans.
+ *
+ * Pending reminders live in a {@link TimingWheel}, loaded once at startup
+ * with one streamed query per shard. Afterwards the appointment events on
+ * the {@link InvalidationBus} (book, update, cancel, status change) queue
+ * the changed ids; each tick re-reads them in one query per shard, moves or
+ * drops their reminders in O(1), and fires whatever is due.
+ *
+ * The bus is best effort, so it is not trusted on its own. Before sending,
+ * each due reminder's appointment is re-read (one query per shard per tick
+ * with reminders due) and the reminder is only sent if the appointment is
+ * still scheduled at that time; otherwise it is dropped or moved. Every
+ * app.reminders.resync-ms the appointments starting within the largest
+ * offset plus that interval are re-read too, which picks up bookings and
+ * moves whose events were lost before their first reminder is due. (The
+ * outbox cannot feed this service: its relay hands each event to one node,
+ * not necessarily the one sending reminders.)
+ *
+ * All wheel access happens under this object's lock. Only one node should
+ * send reminders; set app.reminders.enabled=false on the others.
+ * Reminders due while no node was running are not sent late.
+ */
+@Service
+@ConditionalOnProperty(name = "app.reminders.enabled", matchIfMissing = true)
+public class ReminderService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderService.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final InvalidationBus invalidationBus;
+    private final ObjectProvider<ReminderNotifier> notifiers;
+    private final TransactionTemplate tx;
+    private final List<Duration> offsets;
+    private final TimingWheel<Reminder> wheel;
+    // shard -> appointment id -> one timeout per offset
+    private final Map<String, Map<Long, List<TimingWheel.Timeout<Reminder>>>> pending = new HashMap<>();
+    private final Queue<Long> changed = new ConcurrentLinkedQueue<>();
+
+    @Value("${app.reminders.resync-ms:600000}")
+    private long resyncMs;
+
+    public ReminderService(AppointmentRepository appointmentRepository,
+            InvalidationBus invalidationBus,
+            ObjectProvider<ReminderNotifier> notifiers,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.reminders.offsets:24h,1h}") List<Duration> offsets,
+            @Value("${app.reminders.tick-ms:1000}") long tickMs) {
+        this.appointmentRepository = appointmentRepository;
+        this.invalidationBus = invalidationBus;
+        this.notifiers = notifiers;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setReadOnly(true);
+        this.offsets = offsets;
+        this.wheel = new TimingWheel<>(tickMs, System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    void init() {
+        invalidationBus.subscribe(event -> {
+            if (EntityChangeEvent.APPOINTMENT.equals(event.entity()) && event.id() != null)
+                changed.add(event.id());
+        });
+    }
+
+    /**
+     * Schedules the reminders of every upcoming appointment.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        LocalDateTime now = LocalDateTime.now();
+        TenantContext.forEachShard(() -> {
+            String shard = TenantContext.currentShard();
+            tx.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = appointmentRepository.streamScheduledAfter(now)) {
+                    rows.forEach(row -> schedule(shard, (Long) row[0], (LocalDateTime) row[1]));
+                }
+            });
+        });
+        log.info("Loaded {} appointment reminders", wheel.size());
+    }
+
+    /**
+     * Applies queued appointment changes and sends the reminders now due.
+     */
+    @Scheduled(fixedDelayString = "${app.reminders.tick-ms:1000}")
+    public synchronized void tick() {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id = changed.poll(); id != null; id = changed.poll()) {
+            ids.add(id);
+        }
+        if (!ids.isEmpty()) {
+            TenantContext.forEachShard(() -> {
+                String shard = TenantContext.currentShard();
+                Map<Long, LocalDateTime> times = new HashMap<>();
+                tx.executeWithoutResult(status -> {
+                    for (Object[] row : appointmentRepository.findScheduledTimes(ids)) {
+                        times.put((Long) row[0], (LocalDateTime) row[1]);
+                    }
+                });
+                for (Long id : ids) {
+                    schedule(shard, id, times.get(id));
+                }
+            });
+        }
+        List<Reminder> due = new ArrayList<>();
+        wheel.advance(System.currentTimeMillis(), due::add);
+        if (!due.isEmpty())
+            confirmAndDispatch(due);
+    }
+
+    /**
+     * Re-reads the appointments starting soon and fixes up their reminders,
+     * in case the bus lost their events.
+     */
+    @Scheduled(fixedDelayString = "${app.reminders.resync-ms:600000}",
+            initialDelayString = "${app.reminders.resync-ms:600000}")
+    public synchronized void resync() {
+        LocalDateTime now = LocalDateTime.now();
+        Duration longest = offsets.stream().max(Duration::compareTo).orElse(Duration.ZERO);
+        LocalDateTime until = now.plus(longest).plus(Duration.ofMillis(resyncMs));
+        int[] fixed = { 0 };
+        TenantContext.forEachShard(() -> {
+            String shard = TenantContext.currentShard();
+            tx.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = appointmentRepository.streamScheduledBetween(now, until)) {
+                    rows.forEach(row -> {
+                        Long id = (Long) row[0];
+                        LocalDateTime time = (LocalDateTime) row[1];
+                        if (!time.equals(scheduledTime(shard, id))) {
+                            schedule(shard, id, time);
+                            // reminders already sent are not scheduled again
+                            if (scheduledTime(shard, id) != null)
+                                fixed[0]++;
+                        }
+                    });
+                }
+            });
+        });
+        if (fixed[0] > 0)
+            log.info("Reminder resync rescheduled {} appointments", fixed[0]);
+    }
+
+    /**
+     * Number of reminders waiting to be sent.
+     */
+    public synchronized int pendingCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Replaces the appointment's reminders; a null time only drops them.
+     */
+    private void schedule(String shard, Long appointmentId, LocalDateTime appointmentTime) {
+        Map<Long, List<TimingWheel.Timeout<Reminder>>> byId = pending.computeIfAbsent(shard, s -> new HashMap<>());
+        List<TimingWheel.Timeout<Reminder>> previous = byId.remove(appointmentId);
+        if (previous != null)
+            previous.forEach(wheel::cancel);
+        if (appointmentTime == null)
+            return;
+        long now = System.currentTimeMillis();
+        List<TimingWheel.Timeout<Reminder>> timeouts = new ArrayList<>(offsets.size());
+        for (Duration before : offsets) {
+            LocalDateTime at = appointmentTime.minus(before);
+            long deadline = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (deadline > now)
+                timeouts.add(wheel.schedule(deadline,
+                        new Reminder(shard, appointmentId, appointmentTime, before)));
+        }
+        if (!timeouts.isEmpty())
+            byId.put(appointmentId, timeouts);
+    }
+
+    /**
+     * Sends the due reminders whose appointment is still scheduled at the
+     * same time; the others are dropped, or moved to the new time.
+     */
+    private void confirmAndDispatch(List<Reminder> due) {
+        Map<String, List<Reminder>> byShard = new LinkedHashMap<>();
+        for (Reminder reminder : due) {
+            byShard.computeIfAbsent(reminder.shard(), s -> new ArrayList<>()).add(reminder);
+        }
+        byShard.forEach((shard, reminders) -> TenantContext.onShard(shard, () -> {
+            Set<Long> ids = new LinkedHashSet<>();
+            reminders.forEach(reminder -> ids.add(reminder.appointmentId()));
+            Map<Long, LocalDateTime> times = new HashMap<>();
+            tx.executeWithoutResult(status -> {
+                for (Object[] row : appointmentRepository.findScheduledTimes(ids)) {
+                    times.put((Long) row[0], (LocalDateTime) row[1]);
+                }
+            });
+            for (Reminder reminder : reminders) {
+                LocalDateTime current = times.get(reminder.appointmentId());
+                if (reminder.appointmentTime().equals(current)) {
+                    dispatch(reminder);
+                } else {
+                    // its events were lost: drop the remaining reminders, or move them
+                    log.debug("Reminder for appointment {} is stale, now {}", reminder.appointmentId(), current);
+                    schedule(shard, reminder.appointmentId(), current);
+                }
+            }
+            return null;
+        }));
+    }
+
+    /** Appointment time the pending reminders of an appointment were scheduled for. */
+    private LocalDateTime scheduledTime(String shard, Long appointmentId) {
+        Map<Long, List<TimingWheel.Timeout<Reminder>>> byId = pending.get(shard);
+        List<TimingWheel.Timeout<Reminder>> timeouts = byId != null ? byId.get(appointmentId) : null;
+        if (timeouts == null)
+            return null;
+        for (TimingWheel.Timeout<Reminder> timeout : timeouts) {
+            if (timeout.isPending())
+                return timeout.payload().appointmentTime();
+        }
+        return null;
+    }
+
+    private void dispatch(Reminder reminder) {
+        Map<Long, List<TimingWheel.Timeout<Reminder>>> byId = pending.get(reminder.shard());
+        List<TimingWheel.Timeout<Reminder>> timeouts = byId != null ? byId.get(reminder.appointmentId()) : null;
+        if (timeouts != null) {
+            timeouts.removeIf(t -> !t.isPending());
+            if (timeouts.isEmpty())
+                byId.remove(reminder.appointmentId());
+        }
+        List<ReminderNotifier> targets = notifiers.orderedStream().toList();
+        if (targets.isEmpty()) {
+            log.info("Reminder: appointment {} at {} ({} before)", reminder.appointmentId(),
+                    reminder.appointmentTime(), reminder.before());
+            return;
+        }
+        for (ReminderNotifier notifier : targets) {
+            try {
+                notifier.remind(reminder);
+            } catch (RuntimeException e) {
+                log.warn("Reminder for appointment {} not sent", reminder.appointmentId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorScheduleRepository;
+import com.project.back_end.repo.WaitlistEntryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Doctors' bookable slots, computed from their schedules instead of a fixed
+ * 09:00 to 17:00 hourly grid.
+ *
+ * Schedules are compiled once into interval arrays ({@link CompiledSchedule})
+ * and cached until the doctor changes. Free slots for a date range take one
+ * query for the booked appointments and one for the waitlist holds; each
+ * day's busy intervals are then swept against its slot grid in a single
+ * pass, so 10-minute slots over several weeks cost no more queries than one
+ * day of hourly slots.
+ */
+@Service
+public class ScheduleService {
+
+    /** Longest slot a schedule may define, and so the longest booking. */
+    static final int MAX_SLOT_MINUTES = 480;
+
+    private final DoctorScheduleRepository scheduleRepository;
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final WaitlistEntryRepository waitlistRepository;
+    private final InvalidationBus invalidationBus;
+    private final ConcurrentHashMap<String, CompiledSchedule> compiled = new ConcurrentHashMap<>();
+
+    @Value("${app.schedule.default-slot-minutes:60}")
+    private int defaultSlotMinutes;
+
+    public ScheduleService(DoctorScheduleRepository scheduleRepository,
+            DoctorRepository doctorRepository,
+            AppointmentRepository appointmentRepository,
+            WaitlistEntryRepository waitlistRepository,
+            InvalidationBus invalidationBus) {
+        this.scheduleRepository = scheduleRepository;
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.waitlistRepository = waitlistRepository;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostConstruct
+    void init() {
+        invalidationBus.subscribe(event -> {
+            if (EntityChangeEvent.DOCTOR.equals(event.entity())) {
+                if (event.id() != null)
+                    compiled.keySet().removeIf(key -> key.endsWith("|" + event.id()));
+                else
+                    compiled.clear();
+            }
+        });
+    }
+
+    /**
+     * Free slots of a doctor per day from one date to another (inclusive),
+     * in ascending order; days without free slots are left out.
+     */
+    @Transactional(readOnly = true)
+    public Map<LocalDate, List<LocalTime>> freeSlots(Long doctorId, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return freeSlots(doctorId, dates);
+    }
+
+    /**
+     * Free slots of a doctor on the given dates only, in ascending order;
+     * dates without free slots are left out. Busy times still come from one
+     * query over the dates' range, but only these dates are laid out, so a
+     * few dates weeks apart do not cost a slot grid for every day between.
+     */
+    @Transactional(readOnly = true)
+    public Map<LocalDate, List<LocalTime>> freeSlots(Long doctorId, Collection<LocalDate> dates) {
+        Map<LocalDate, List<LocalTime>> result = new LinkedHashMap<>();
+        if (dates.isEmpty())
+            return result;
+        CompiledSchedule schedule = compiled(doctorId);
+        TreeMap<LocalDate, List<Integer>> busy = new TreeMap<>();
+        for (LocalDate date : dates) {
+            busy.put(date, new ArrayList<>());
+        }
+        LocalDate from = busy.firstKey();
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = busy.lastKey().plusDays(1).atStartOfDay();
+        // a long appointment late on the previous day may run into the range
+        for (Object[] row : appointmentRepository.findBusyTimes(doctorId, start.minusMinutes(MAX_SLOT_MINUTES), end)) {
+            addBusy(busy, (LocalDateTime) row[0], length(row[1]));
+        }
+        // slots offered to the waitlist are held for the offered patient
+        for (LocalDateTime held : waitlistRepository.findHeldSlots(doctorId, start, end, LocalDateTime.now())) {
+            addBusy(busy, held, schedule.slotMinutes());
+        }
+        for (Map.Entry<LocalDate, List<Integer>> day : busy.entrySet()) {
+            LocalDate date = day.getKey();
+            List<Integer> free = schedule.freeSlots(date, Intervals.normalize(toArray(day.getValue())));
+            if (free.isEmpty())
+                continue;
+            List<LocalTime> times = new ArrayList<>(free.size());
+            for (int minute : free) {
+                times.add(LocalTime.of(minute / 60, minute % 60));
+            }
+            result.put(date, times);
+        }
+        return result;
+    }
+
+    /**
+     * The earliest future free slots of any of the doctors between two dates
+     * (inclusive), optionally only before noon ("AM") or after ("PM"),
+     * ordered by time and then doctor.
+     *
+     * Busy times of all doctors come from one range query each for
+     * appointments and waitlist holds. Days are then merged in order and the
+     * search stops at the first day that fills the limit, so later days are
+     * never laid out.
+     */
+    @Transactional(readOnly = true)
+    public List<FreeSlot> earliestFree(List<Doctor> doctors, LocalDate from, LocalDate to, String amOrPm,
+            int limit) {
+        List<FreeSlot> result = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        if (from.isBefore(now.toLocalDate()))
+            from = now.toLocalDate();
+        if (doctors.isEmpty() || to.isBefore(from) || limit <= 0)
+            return result;
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        Map<Long, CompiledSchedule> schedules = new LinkedHashMap<>();
+        Map<Long, List<List<Integer>>> busy = new HashMap<>();
+        for (Doctor doctor : doctors) {
+            schedules.put(doctor.getId(), compiled(doctor));
+            busy.put(doctor.getId(), emptyDays(days));
+        }
+        List<Long> ids = new ArrayList<>(schedules.keySet());
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        for (Object[] row : appointmentRepository.findBusyTimesByDoctorIds(ids,
+                start.minusMinutes(MAX_SLOT_MINUTES), end)) {
+            addBusy(busy.get((Long) row[0]), from, (LocalDateTime) row[1], length(row[2]));
+        }
+        for (Object[] row : waitlistRepository.findHeldSlotsByDoctorIds(ids, start, end, now)) {
+            Long doctorId = (Long) row[0];
+            addBusy(busy.get(doctorId), from, (LocalDateTime) row[1], schedules.get(doctorId).slotMinutes());
+        }
+
+        int fromMinute = "PM".equalsIgnoreCase(amOrPm) ? 12 * 60 : 0;
+        int toMinute = "AM".equalsIgnoreCase(amOrPm) ? 12 * 60 : 24 * 60;
+        for (int d = 0; d < days && result.size() < limit; d++) {
+            LocalDate date = from.plusDays(d);
+            List<FreeSlot> day = new ArrayList<>();
+            for (Map.Entry<Long, CompiledSchedule> e : schedules.entrySet()) {
+                int[] dayBusy = Intervals.normalize(toArray(busy.get(e.getKey()).get(d)));
+                for (int minute : e.getValue().freeSlots(date, dayBusy)) {
+                    LocalDateTime time = date.atTime(minute / 60, minute % 60);
+                    if (minute >= fromMinute && minute < toMinute && time.isAfter(now))
+                        day.add(new FreeSlot(e.getKey(), time));
+                }
+            }
+            day.sort(Comparator.comparing(FreeSlot::time).thenComparing(FreeSlot::doctorId));
+            result.addAll(day.subList(0, Math.min(day.size(), limit - result.size())));
+        }
+        return result;
+    }
+
+    /**
+     * Length of a new appointment with the doctor.
+     */
+    public int slotMinutes(Long doctorId) {
+        return compiled(doctorId).slotMinutes();
+    }
+
+    /**
+     * Whether the doctor has bookable hours before noon ("AM") or after
+     * ("PM") on any weekday.
+     */
+    public boolean worksIn(Doctor doctor, String amOrPm) {
+        CompiledSchedule schedule = compiled(doctor);
+        if ("AM".equalsIgnoreCase(amOrPm))
+            return schedule.worksBetween(0, 12 * 60);
+        if ("PM".equalsIgnoreCase(amOrPm))
+            return schedule.worksBetween(12 * 60, 24 * 60);
+        return false;
+    }
+
+    @Transactional(readOnly = true)
+    public DoctorSchedule getSchedule(Long doctorId) {
+        return scheduleRepository.findByDoctorId(doctorId);
+    }
+
+    /**
+     * Replaces a doctor's schedule.
+     *
+     * @return 1 if saved, -1 if the doctor does not exist, 0 on error
+     */
+    @Transactional
+    public int saveSchedule(Long doctorId, DoctorSchedule schedule) {
+        Optional<Doctor> doctor = doctorRepository.findById(doctorId);
+        if (!doctor.isPresent() || doctor.get().isDeleted())
+            return -1;
+        DoctorSchedule existing = scheduleRepository.findByDoctorId(doctorId);
+        schedule.setId(existing != null ? existing.getId() : null);
+        // clients that do not send a version update the current one
+        if (existing != null && schedule.getVersion() == null)
+            schedule.setVersion(existing.getVersion());
+        schedule.setDoctorId(doctorId);
+        try {
+            scheduleRepository.save(schedule);
+            invalidationBus.publishAfterCommit(EntityChangeEvent.DOCTOR, doctorId);
+            invalidationBus.publishAfterCommit(EntityChangeEvent.AVAILABILITY, doctorId);
+            return 1;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private CompiledSchedule compiled(Long doctorId) {
+        CompiledSchedule cached = compiled.get(key(doctorId));
+        if (cached != null)
+            return cached;
+        return compile(doctorId, () -> doctorRepository.findById(doctorId).orElse(null));
+    }
+
+    private CompiledSchedule compiled(Doctor doctor) {
+        CompiledSchedule cached = compiled.get(key(doctor.getId()));
+        if (cached != null)
+            return cached;
+        return compile(doctor.getId(), () -> doctor);
+    }
+
+    private CompiledSchedule compile(Long doctorId, Supplier<Doctor> doctor) {
+        DoctorSchedule schedule = scheduleRepository.findByDoctorId(doctorId);
+        CompiledSchedule result;
+        if (schedule != null) {
+            result = CompiledSchedule.of(schedule);
+        } else {
+            Doctor d = doctor.get();
+            result = CompiledSchedule.legacy(d != null ? d.getAvailableTimes() : null, defaultSlotMinutes);
+        }
+        compiled.put(key(doctorId), result);
+        return result;
+    }
+
+    private static String key(Long doctorId) {
+        return TenantContext.currentClinic() + "|" + doctorId;
+    }
+
+    /**
+     * Adds [time, time + minutes) to the busy lists of the days it touches.
+     */
+    private static void addBusy(List<List<Integer>> busy, LocalDate from, LocalDateTime time, int minutes) {
+        int day = (int) ChronoUnit.DAYS.between(from, time.toLocalDate());
+        int start = CompiledSchedule.minutes(time.toLocalTime());
+        int end = start + minutes;
+        while (end > 0 && day < busy.size()) {
+            if (day >= 0) {
+                busy.get(day).add(Math.max(0, start));
+                busy.get(day).add(Math.min(end, 24 * 60));
+            }
+            day++;
+            start -= 24 * 60;
+            end -= 24 * 60;
+        }
+    }
+
+    /**
+     * Adds [time, time + minutes) to the busy lists of the dates it touches,
+     * skipping dates that are not being laid out.
+     */
+    private static void addBusy(Map<LocalDate, List<Integer>> busy, LocalDateTime time, int minutes) {
+        LocalDate date = time.toLocalDate();
+        int start = CompiledSchedule.minutes(time.toLocalTime());
+        int end = start + minutes;
+        while (end > 0) {
+            List<Integer> day = busy.get(date);
+            if (day != null) {
+                day.add(Math.max(0, start));
+                day.add(Math.min(end, 24 * 60));
+            }
+            date = date.plusDays(1);
+            start -= 24 * 60;
+            end -= 24 * 60;
+        }
+    }
+
+    private static List<List<Integer>> emptyDays(int days) {
+        List<List<Integer>> busy = new ArrayList<>(days);
+        for (int d = 0; d < days; d++) {
+            busy.add(new ArrayList<>());
+        }
+        return busy;
+    }
+
+    /** Length of a booked appointment; rows from before schedules were hourly. */
+    private static int length(Object durationMinutes) {
+        return durationMinutes != null ? (Integer) durationMinutes : 60;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] out = new int[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values.get(i);
+        }
+        return out;
+    }
+}
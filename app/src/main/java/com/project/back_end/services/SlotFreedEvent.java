@@ -0,0 +1,13 @@
+package com.project.back_end.services;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booked slot became free (cancellation or reschedule). Published inside
+ * the freeing transaction and handled once it commits.
+ *
+ * @param doctorId doctor whose slot was freed
+ * @param slot     start of the freed slot
+ */
+public record SlotFreedEvent(Long doctorId, LocalDateTime slot) {
+}
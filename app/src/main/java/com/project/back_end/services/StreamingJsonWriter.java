@@ -0,0 +1,66 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.project.back_end.config.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes list responses of the form {"field": [ ... ]} element by element with
+ * a Jackson JsonGenerator, so neither the full list nor the serialized body
+ * has to be held in memory. The source runs inside a read-only transaction
+ * that stays open while the response is written.
+ */
+@Component
+public class StreamingJsonWriter {
+
+    private static final int FLUSH_EVERY = 200;
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+
+    public StreamingJsonWriter(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * @param field  name of the array property
+     * @param source pushes each element into the given sink
+     */
+    public StreamingResponseBody list(String field, Consumer<Consumer<Object>> source) {
+        // written on an async thread: carry the request's clinic over
+        Long clinic = TenantContext.currentClinic();
+        return out -> {
+            TenantContext.setClinic(clinic);
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartObject();
+                gen.writeArrayFieldStart(field);
+                int[] written = { 0 };
+                readOnlyTx.executeWithoutResult(status -> source.accept(item -> {
+                    try {
+                        gen.writeObject(item);
+                        if (++written[0] % FLUSH_EVERY == 0)
+                            gen.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                gen.writeEndArray();
+                gen.writeEndObject();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                TenantContext.clear();
+            }
+        };
+    }
+}
@@ -0,0 +1,278 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantConfig;
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.config.TenantShardMap;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.PrescriptionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Moves one clinic from its shard to another: its doctors, patients,
+ * appointments (hot and archived), analytics rollups and the appointments'
+ * prescriptions are copied with
+ * their ids, the clinic is re-pointed, and the source rows are deleted.
+ * Requests for the clinic get 503 while the move runs.
+ *
+ * Every step can be repeated, so a move that failed part-way is finished by
+ * running it again: the copy first clears whatever an earlier attempt left
+ * of the clinic on the target (in the same transaction), prescriptions are
+ * upserted by id, and once the clinic points at the target, moving it there
+ * again removes the rows still left on other shards. Source prescriptions
+ * are deleted before the source rows that lead to them.
+ *
+ * Rows keep their ids, so the move is refused if any id is already taken
+ * by another clinic on the target; give shards disjoint AUTO_INCREMENT
+ * ranges to avoid that.
+ */
+@Lazy
+@Service
+@ConditionalOnProperty(prefix = "app.tenancy", name = "enabled", havingValue = "true")
+public class TenantRebalanceService {
+
+    private static final int CHUNK = 500;
+
+    /** Tables owned by a clinic, parents first; each with its row filter. */
+    private static final String[][] TABLES = {
+            { "doctor", "clinic_id = ?" },
+            { "doctor_available_times", "doctor_id IN (SELECT id FROM doctor WHERE clinic_id = ?)" },
+            { "doctor_schedule", "clinic_id = ?" },
+            { "doctor_schedule_hours", "doctor_schedule_id IN (SELECT id FROM doctor_schedule WHERE clinic_id = ?)" },
+            { "doctor_schedule_breaks", "doctor_schedule_id IN (SELECT id FROM doctor_schedule WHERE clinic_id = ?)" },
+            { "doctor_schedule_exceptions",
+                    "doctor_schedule_id IN (SELECT id FROM doctor_schedule WHERE clinic_id = ?)" },
+            { "patient", "clinic_id = ?" },
+            { "appointment", "clinic_id = ?" },
+            { "archived_appointment", "clinic_id = ?" },
+            { "waitlist_entry", "clinic_id = ?" },
+            { "appointment_rollup", "clinic_id = ?" },
+    };
+
+    private final TenantShardMap shardMap;
+    private final PrescriptionRepository prescriptionRepository;
+    private final InvalidationBus invalidationBus;
+
+    /** Lets requests that were already running for the clinic finish. */
+    @Value("${app.tenancy.move-drain-ms:2000}")
+    private long drainMs;
+
+    /** Nodes that missed the announcement see the move after their next reload. */
+    @Value("${app.tenancy.reload-ms:5000}")
+    private long reloadMs;
+
+    public TenantRebalanceService(TenantShardMap shardMap,
+            PrescriptionRepository prescriptionRepository,
+            InvalidationBus invalidationBus) {
+        this.shardMap = shardMap;
+        this.prescriptionRepository = prescriptionRepository;
+        this.invalidationBus = invalidationBus;
+    }
+
+    /**
+     * Moves a clinic to the target shard.
+     *
+     * @return row counts on success, or an error body
+     */
+    public ResponseEntity<Map<String, Object>> moveClinic(Long clinicId, String target) {
+        Map<String, Object> resp = new HashMap<>();
+        String source = shardMap.shardFor(clinicId);
+        if (!shardMap.hasShard(target)) {
+            resp.put("error", "Unknown shard " + target);
+            return ResponseEntity.badRequest().body(resp);
+        }
+        if (source.equals(target)) {
+            // the clinic is served from the target already; finish an earlier move
+            long removed = 0;
+            for (String shard : shardMap.dataSources().keySet()) {
+                if (!shard.equals(target))
+                    removed += removeClinic(clinicId, shard, target);
+            }
+            if (removed == 0) {
+                resp.put("error", "Clinic already lives on " + target);
+                return ResponseEntity.badRequest().body(resp);
+            }
+            resp.put("leftoversRemoved", removed);
+            resp.put("to", target);
+            return ResponseEntity.ok(resp);
+        }
+        if (!shardMap.startMove(clinicId)) {
+            resp.put("error", "Clinic is already being moved");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(resp);
+        }
+        invalidationBus.publish(TenantConfig.MOVE_STARTED, clinicId);
+        try {
+            Thread.sleep(reloadMs + drainMs);
+            JdbcTemplate src = new JdbcTemplate(shardMap.dataSource(source));
+            DataSource targetDs = shardMap.dataSource(target);
+            JdbcTemplate dst = new JdbcTemplate(targetDs);
+
+            String taken = firstTakenId(src, dst, clinicId);
+            if (taken != null) {
+                resp.put("error", "Id collision on " + target + ": " + taken);
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(resp);
+            }
+            List<Long> appointmentIds = appointmentIds(src, clinicId);
+
+            new TransactionTemplate(new DataSourceTransactionManager(targetDs)).executeWithoutResult(status -> {
+                // rows left by an earlier, interrupted attempt
+                for (int i = TABLES.length - 1; i >= 0; i--) {
+                    dst.update("DELETE FROM " + TABLES[i][0] + " WHERE " + TABLES[i][1], clinicId);
+                }
+                for (String[] table : TABLES) {
+                    resp.put(table[0], copy(src, dst, table[0], table[1], clinicId));
+                }
+            });
+            if (!sameMongo(source, target)) {
+                resp.put("prescriptions", copyPrescriptions(appointmentIds, source, target));
+            }
+
+            shardMap.assign(clinicId, target);
+
+            removeClinic(clinicId, source, target);
+            resp.put("from", source);
+            resp.put("to", target);
+            return ResponseEntity.ok(resp);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resp.put("error", "Move interrupted");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(resp);
+        } catch (Exception e) {
+            resp.put("error", "Move failed, run it again to resume: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(resp);
+        } finally {
+            // other nodes reload the assignment and accept the clinic again
+            shardMap.endMove(clinicId);
+            invalidationBus.publish(TenantConfig.SHARD_MOVED, clinicId);
+        }
+    }
+
+    /**
+     * Deletes what is left of the clinic on a shard it no longer lives on:
+     * prescriptions first, so a failure leaves the appointment ids needed to
+     * find them on the next attempt.
+     *
+     * @return rows deleted
+     */
+    private long removeClinic(Long clinicId, String shard, String home) {
+        JdbcTemplate jdbc = new JdbcTemplate(shardMap.dataSource(shard));
+        List<Long> appointmentIds = appointmentIds(jdbc, clinicId);
+        long[] deleted = { 0 };
+        if (!sameMongo(shard, home)) {
+            deleted[0] += TenantContext.onShard(shard, () -> deleteChunked(appointmentIds));
+        }
+        new TransactionTemplate(new DataSourceTransactionManager(shardMap.dataSource(shard)))
+                .executeWithoutResult(status -> {
+                    for (int i = TABLES.length - 1; i >= 0; i--) {
+                        deleted[0] += jdbc.update("DELETE FROM " + TABLES[i][0] + " WHERE " + TABLES[i][1],
+                                clinicId);
+                    }
+                });
+        return deleted[0];
+    }
+
+    private boolean sameMongo(String a, String b) {
+        return Objects.equals(shardMap.mongoDatabase(a), shardMap.mongoDatabase(b));
+    }
+
+    private static List<Long> appointmentIds(JdbcTemplate jdbc, Long clinicId) {
+        List<Long> ids = new ArrayList<>(
+                jdbc.queryForList("SELECT id FROM appointment WHERE clinic_id = ?", Long.class, clinicId));
+        ids.addAll(jdbc.queryForList("SELECT id FROM archived_appointment WHERE clinic_id = ?", Long.class,
+                clinicId));
+        return ids;
+    }
+
+    private String firstTakenId(JdbcTemplate src, JdbcTemplate dst, Long clinicId) {
+        for (String table : new String[] { "doctor", "doctor_schedule", "patient", "appointment",
+                "archived_appointment", "waitlist_entry", "appointment_rollup" }) {
+            List<Long> ids = src.queryForList("SELECT id FROM " + table + " WHERE clinic_id = ?", Long.class,
+                    clinicId);
+            for (int from = 0; from < ids.size(); from += CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + CHUNK));
+                String in = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                Object[] args = new Object[chunk.size() + 1];
+                chunk.toArray(args);
+                args[chunk.size()] = clinicId;
+                // the clinic's own rows are from an earlier attempt and get replaced
+                List<Long> clash = dst.queryForList("SELECT id FROM " + table + " WHERE id IN (" + in
+                        + ") AND clinic_id <> ?", Long.class, args);
+                if (!clash.isEmpty())
+                    return table + "#" + clash.get(0);
+            }
+        }
+        return null;
+    }
+
+    private int copy(JdbcTemplate src, JdbcTemplate dst, String table, String where, Long clinicId) {
+        // the target's columns, named explicitly: a shard whose schema lags
+        // behind fails here, before anything is switched
+        List<String> columns = dst.query("SELECT * FROM " + table + " WHERE 1 = 0", rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            List<String> names = new ArrayList<>(meta.getColumnCount());
+            for (int i = 1; i <= meta.getColumnCount(); i++)
+                names.add(meta.getColumnName(i));
+            return names;
+        });
+        String list = String.join(", ", columns);
+        String insert = "INSERT INTO " + table + " (" + list + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        List<Object[]> batch = new ArrayList<>(CHUNK);
+        int[] copied = { 0 };
+        src.query("SELECT " + list + " FROM " + table + " WHERE " + where, rs -> {
+            Object[] row = new Object[columns.size()];
+            for (int i = 1; i <= columns.size(); i++)
+                row[i - 1] = rs.getObject(i);
+            batch.add(row);
+            if (batch.size() == CHUNK) {
+                dst.batchUpdate(insert, batch);
+                copied[0] += batch.size();
+                batch.clear();
+            }
+        }, clinicId);
+        if (!batch.isEmpty()) {
+            dst.batchUpdate(insert, batch);
+            copied[0] += batch.size();
+        }
+        return copied[0];
+    }
+
+    private int copyPrescriptions(List<Long> appointmentIds, String source, String target) {
+        int copied = 0;
+        for (int from = 0; from < appointmentIds.size(); from += CHUNK) {
+            List<Long> chunk = appointmentIds.subList(from, Math.min(appointmentIds.size(), from + CHUNK));
+            List<Prescription> found = TenantContext.onShard(source,
+                    () -> prescriptionRepository.findByAppointmentIdIn(chunk));
+            // replaces copies from an earlier attempt; saveAll upserts by id
+            TenantContext.onShard(target, () -> prescriptionRepository.deleteByAppointmentIdIn(chunk));
+            TenantContext.onShard(target, () -> prescriptionRepository.saveAll(found));
+            copied += found.size();
+        }
+        return copied;
+    }
+
+    private long deleteChunked(List<Long> appointmentIds) {
+        long deleted = 0;
+        for (int from = 0; from < appointmentIds.size(); from += CHUNK) {
+            deleted += prescriptionRepository.deleteByAppointmentIdIn(
+                    appointmentIds.subList(from, Math.min(appointmentIds.size(), from + CHUNK)));
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,161 @@
+package com.project.back_end.services;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: six levels of 64 slots, where a slot of level
+ * L spans 64^L ticks. A timeout is linked into the slot of the coarsest
+ * level it fits, and moved down a level each time the wheel reaches that
+ * slot, so scheduling and cancelling are O(1) and a tick only touches the
+ * timeouts that are due or cascade.
+ *
+ * Not thread-safe; the owner confines it to one thread.
+ */
+final class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+
+    private final long tickMs;
+    private final Timeout<T>[] heads;
+    // last tick whose level-0 slot has been fired
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMs, long nowMs) {
+        this.tickMs = Math.max(1, tickMs);
+        this.heads = new Timeout[LEVELS * SLOTS];
+        this.currentTick = nowMs / this.tickMs;
+    }
+
+    /**
+     * A scheduled payload; keep it to cancel the timeout.
+     */
+    static final class Timeout<T> {
+        private final long deadline;
+        private final T payload;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private int bucket = -1;
+
+        private Timeout(long deadline, T payload) {
+            this.deadline = deadline;
+            this.payload = payload;
+        }
+
+        T payload() {
+            return payload;
+        }
+
+        boolean isPending() {
+            return bucket >= 0;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedules the payload for the first tick at or after the deadline;
+     * deadlines already passed fire on the next tick.
+     */
+    Timeout<T> schedule(long deadlineMs, T payload) {
+        Timeout<T> timeout = new Timeout<>(Math.floorDiv(deadlineMs + tickMs - 1, tickMs), payload);
+        place(timeout, currentTick);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * @return false if the timeout already fired or was cancelled
+     */
+    boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || !timeout.isPending())
+            return false;
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the given time, passing every due payload to the
+     * consumer in deadline order (tick by tick).
+     */
+    void advance(long nowMs, Consumer<T> expired) {
+        long target = nowMs / tickMs;
+        while (currentTick < target) {
+            long tick = currentTick + 1;
+            // coarse levels first, so their timeouts can land in a finer slot cascaded this tick
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (BITS * level)) - 1)) == 0)
+                    cascade(level, (int) ((tick >>> (BITS * level)) & MASK), tick - 1);
+            }
+            int bucket = (int) (tick & MASK);
+            Timeout<T> t = heads[bucket];
+            heads[bucket] = null;
+            currentTick = tick;
+            while (t != null) {
+                Timeout<T> next = t.next;
+                t.prev = t.next = null;
+                t.bucket = -1;
+                size--;
+                expired.accept(t.payload);
+                t = next;
+            }
+        }
+    }
+
+    private void cascade(int level, int slot, long base) {
+        int bucket = level * SLOTS + slot;
+        Timeout<T> t = heads[bucket];
+        heads[bucket] = null;
+        while (t != null) {
+            Timeout<T> next = t.next;
+            t.prev = t.next = null;
+            place(t, base);
+            t = next;
+        }
+    }
+
+    /**
+     * Links the timeout into the slot that is reached at its deadline, given
+     * that every tick up to base has been processed.
+     */
+    private void place(Timeout<T> t, long base) {
+        long next = base + 1;
+        long delta = t.deadline - next;
+        int bucket;
+        if (delta < 0) {
+            bucket = (int) (next & MASK);
+        } else {
+            int level = 0;
+            while (level < LEVELS - 1 && (delta >>> (BITS * (level + 1))) != 0)
+                level++;
+            long block = (delta >>> (BITS * (level + 1))) != 0
+                    // beyond the wheel: park in the top level's last slot, re-placed on cascade
+                    ? (next >>> (BITS * level)) + MASK
+                    : t.deadline >>> (BITS * level);
+            bucket = level * SLOTS + (int) (block & MASK);
+        }
+        t.bucket = bucket;
+        t.next = heads[bucket];
+        if (t.next != null)
+            t.next.prev = t;
+        heads[bucket] = t;
+    }
+
+    private void unlink(Timeout<T> t) {
+        if (t.prev != null)
+            t.prev.next = t.next;
+        else
+            heads[t.bucket] = t.next;
+        if (t.next != null)
+            t.next.prev = t.prev;
+        t.prev = t.next = null;
+        t.bucket = -1;
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.back_end.services;
+
+import java.util.Arrays;
+
+/**
+ * Token-bucket rate limiter keyed by client (e.g. IP address).
+ *
+ * Clients are hashed onto a fixed array of buckets, so memory stays bounded
+ * no matter how many distinct clients show up; the rare clients that share a
+ * bucket share its budget. Buckets are guarded by striped locks instead of a
+ * single global one.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final int mask;
+    private final double capacity;
+    private final double refillPerNano;
+    private final double[] tokens;
+    private final long[] lastRefill;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /**
+     * @param buckets         number of buckets, rounded up to a power of two
+     * @param capacity        burst size per client
+     * @param refillPerSecond sustained requests per second per client
+     */
+    public TokenBucketRateLimiter(int buckets, int capacity, double refillPerSecond) {
+        int size = Integer.highestOneBit(Math.max(buckets, LOCK_STRIPES) - 1) << 1;
+        this.mask = size - 1;
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = new double[size];
+        this.lastRefill = new long[size];
+        Arrays.fill(tokens, capacity);
+        long now = System.nanoTime();
+        Arrays.fill(lastRefill, now);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Takes one token for the client.
+     *
+     * @return true if the request may proceed, false if it should be rejected
+     */
+    public boolean tryAcquire(String clientKey) {
+        int h = clientKey != null ? clientKey.hashCode() : 0;
+        h ^= (h >>> 16);
+        int idx = h & mask;
+        synchronized (locks[idx & (LOCK_STRIPES - 1)]) {
+            long now = System.nanoTime();
+            double available = Math.min(capacity, tokens[idx] + (now - lastRefill[idx]) * refillPerNano);
+            lastRefill[idx] = now;
+            if (available < 1d) {
+                tokens[idx] = available;
+                return false;
+            }
+            tokens[idx] = available - 1d;
+            return true;
+        }
+    }
+}
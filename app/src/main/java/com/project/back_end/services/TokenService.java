@@ -1,10 +1,12 @@
 package com.project.back_end.services;
 
+import com.project.back_end.config.TenantContext;
 import com.project.back_end.repo.AdminRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtParserBuilder;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -12,6 +14,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
 import java.util.Date;
 
 /**
@@ -20,6 +32,8 @@ import java.util.Date;
 @Component
 public class TokenService {
 
+    private static final String REFRESH = "refresh";
+
     private final AdminRepository adminRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
@@ -27,7 +41,28 @@ public class TokenService {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    /** HS256 (shared secret), ES256 or EdDSA (key pair). */
+    @Value("${jwt.algorithm:HS256}")
+    private String algorithm;
+
+    /** Base64 PKCS#8 private key; nodes that only verify leave it empty. */
+    @Value("${jwt.private-key:}")
+    private String privateKeyBase64;
+
+    /** Base64 X.509 public key used for verification in asymmetric modes. */
+    @Value("${jwt.public-key:}")
+    private String publicKeyBase64;
+
+    @Value("${jwt.access-ttl-minutes:15}")
+    private long accessTtlMinutes;
+
+    @Value("${jwt.refresh-ttl-days:30}")
+    private long refreshTtlDays;
+
     private SecretKey signingKey;
+    private PrivateKey privateKey;
+    // immutable and thread-safe, so built once and shared by all requests
+    private JwtParser parser;
 
     public TokenService(AdminRepository adminRepository,
             DoctorRepository doctorRepository,
@@ -38,27 +73,101 @@ public class TokenService {
     }
 
     @PostConstruct
-    private void init() {
-        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    private void init() throws GeneralSecurityException {
+        if ("HS256".equalsIgnoreCase(algorithm)) {
+            this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+            this.parser = Jwts.parser().verifyWith(signingKey).build();
+            return;
+        }
+        String keyAlgorithm = "EdDSA".equalsIgnoreCase(algorithm) ? "Ed25519" : "EC";
+        KeyFactory factory = KeyFactory.getInstance(keyAlgorithm);
+        PublicKey publicKey;
+        if (publicKeyBase64.isEmpty() && !privateKeyBase64.isEmpty()) {
+            // signing with a key nobody else can verify would split the cluster
+            throw new IllegalStateException("jwt.private-key is set but jwt.public-key is empty");
+        }
+        if (publicKeyBase64.isEmpty()) {
+            // no keys configured: ephemeral pair, only usable on a single node
+            KeyPair pair = generateKeyPair(keyAlgorithm);
+            this.privateKey = pair.getPrivate();
+            publicKey = pair.getPublic();
+        } else {
+            publicKey = factory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKeyBase64)));
+            if (!privateKeyBase64.isEmpty()) {
+                this.privateKey = factory.generatePrivate(
+                        new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKeyBase64)));
+            }
+        }
+        this.parser = Jwts.parser().verifyWith(publicKey).build();
+    }
+
+    private static KeyPair generateKeyPair(String keyAlgorithm) throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(keyAlgorithm);
+        if ("EC".equals(keyAlgorithm)) {
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+        }
+        return generator.generateKeyPair();
     }
 
     /**
-     * Generates a JWT token containing the identifier as subject and role claim,
-     * valid for 7 days.
+     * Generates a short-lived access token carrying the identifier as subject
+     * plus the user id, role and clinic, so it can be verified without a DB
+     * lookup.
      *
      * @param identifier unique identifier (e.g., username or email)
+     * @param userId     primary key of the user
      * @param role       user role (ADMIN, DOCTOR, PATIENT)
      * @return signed JWT token
      */
-    public String generateToken(String identifier, String role) {
-        Date now = new Date();
-        Date expiry = new Date(now.getTime() + 7L * 24 * 60 * 60 * 1000);
-        return Jwts.builder()
+    public String generateToken(String identifier, Long userId, String role) {
+        return sign(Jwts.builder()
                 .subject(identifier)
-                .issuedAt(now)
-                .expiration(expiry)
+                .claim("uid", userId)
+                .claim("role", role), accessTtlMinutes * 60 * 1000);
+    }
+
+    /**
+     * Generates a long-lived refresh token. Its random id (jti) is what gets
+     * recorded when the token is revoked.
+     *
+     * @return signed JWT refresh token
+     */
+    public String generateRefreshToken(String identifier, Long userId, String role, long tokenId) {
+        return sign(Jwts.builder()
+                .id(Long.toString(tokenId))
+                .subject(identifier)
+                .claim("uid", userId)
                 .claim("role", role)
-                .signWith(signingKey)
+                .claim("typ", REFRESH), refreshTtlDays * 24 * 60 * 60 * 1000);
+    }
+
+    /**
+     * Parses a refresh token, checking signature, expiry and token type.
+     *
+     * @return the claims, or null if the token is not a valid refresh token
+     */
+    public Claims parseRefreshToken(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            return REFRESH.equals(claims.get("typ", String.class)) ? claims : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String sign(JwtBuilder builder, long ttlMillis) {
+        if (signingKey == null && privateKey == null) {
+            throw new IllegalStateException("This node has no JWT private key and can only verify tokens");
+        }
+        Long clinic = TenantContext.currentClinic();
+        if (clinic != null) {
+            builder.claim("clinic", clinic);
+        }
+        Date now = new Date();
+        return builder
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + ttlMillis))
+                .signWith(signingKey != null ? signingKey : privateKey)
                 .compact();
     }
 
@@ -68,28 +177,32 @@ public class TokenService {
      * @param token JWT token
      * @return subject (identifier), or null if token invalid
      */
+    public String extractIdentifier(String token) {
+        try {
+            return parser.parseSignedClaims(token).getPayload().getSubject();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
-     * Extracts the subject (identifier) from the JWT token.
+     * Extracts the clinic claim, which selects the tenant of the request.
      *
      * @param token JWT token
-     * @return subject (identifier), or null if token invalid
+     * @return clinic id, or null if the token is invalid or predates clinics
      */
-    public String extractIdentifier(String token) {
+    public Long extractClinic(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .decryptWith(signingKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return claims.getSubject();
+            return parser.parseSignedClaims(token).getPayload().get("clinic", Long.class);
         } catch (Exception e) {
             return null;
         }
     }
 
     /**
-     * Validates the token for the given role by checking expiration and user
-     * existence.
+     * Validates the token for the given role by checking signature, expiration
+     * and role. Access tokens are short-lived, so no user lookup is needed;
+     * deleted users lose access when their token expires or fails to refresh.
      *
      * @param token    JWT token
      * @param userRole expected role (ADMIN, DOCTOR, PATIENT)
@@ -97,46 +210,36 @@ public class TokenService {
      */
     public boolean validateToken(String token, String userRole) {
         try {
-            Claims claims = ((JwtParserBuilder) Jwts.builder())
-                    .decryptWith(signingKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            String subject = claims.getSubject();
-            String role = claims.get("role", String.class);
-            if (!userRole.equalsIgnoreCase(role)) {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (REFRESH.equals(claims.get("typ", String.class))) {
                 return false;
             }
-            switch (role.toUpperCase()) {
-                case "ADMIN":
-                    return adminRepository.findByUsername(subject) != null;
-                case "DOCTOR":
-                    return doctorRepository.findByEmail(subject) != null;
-                case "PATIENT":
-                    return patientRepository.findByEmail(subject) != null;
-                default:
-                    return false;
-            }
+            return userRole.equalsIgnoreCase(claims.get("role", String.class));
         } catch (Exception e) {
             return false;
         }
     }
 
     /**
-     * Retrieves the signing key used for JWT operations.
+     * Retrieves the user ID (Long) encoded in the JWT token. Tokens issued
+     * before the uid claim existed fall back to looking up the identifier in
+     * the repositories.
      *
-     * @return SecretKey for signing/verifying tokens
-     */
-    /**
-     * Retrieves the user ID (Long) encoded in the JWT token by extracting the
-     * identifier
-     * and looking up the associated user in the repositories.
-     *
-     * @param token the JWT token containing the user's identifier in the subject
+     * @param token the JWT token
      * @return the user ID if found, or null if not found or on error
      */
     public Long getUserIdFromToken(String token) {
-        String identifier = extractIdentifier(token);
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (Exception e) {
+            return null;
+        }
+        Long uid = claims.get("uid", Long.class);
+        if (uid != null) {
+            return uid;
+        }
+        String identifier = claims.getSubject();
         if (identifier == null) {
             return null;
         }
@@ -168,9 +271,9 @@ public class TokenService {
     }
 
     /**
-     * Retrieves the signing key used for JWT operations.
+     * Retrieves the HMAC signing key used for JWT operations.
      *
-     * @return SecretKey for signing/verifying tokens
+     * @return SecretKey for signing/verifying tokens, or null in asymmetric mode
      */
     public SecretKey getSigningKey() {
         return signingKey;
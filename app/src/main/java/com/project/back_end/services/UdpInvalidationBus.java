@@ -0,0 +1,144 @@
+package com.project.back_end.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Network invalidation bus: every event is sent as a small UDP datagram to
+ * each configured peer, and datagrams received from peers are delivered to
+ * the local listeners. Delivery is best effort, which is fine for cache
+ * eviction since entries also expire on their own.
+ *
+ * Datagrams are signed with HMAC-SHA256 over a shared secret and carry the
+ * send time: "mac millis ENTITY|id|origin". Unsigned, forged and stale ones
+ * (sent more than {@link #MAX_AGE_MS} away from the local clock, so a
+ * captured datagram cannot be replayed later) are dropped, so hosts without
+ * the secret cannot flush caches or trigger reloads.
+ */
+public class UdpInvalidationBus implements InvalidationBus, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(UdpInvalidationBus.class);
+
+    static final String ALGORITHM = "HmacSHA256";
+    static final long MAX_AGE_MS = 30_000;
+
+    private final LocalInvalidationBus local = new LocalInvalidationBus();
+    private final List<InetSocketAddress> peers;
+    private final SecretKeySpec key;
+    private final DatagramSocket socket;
+    private final Thread receiver;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public UdpInvalidationBus(int port, List<InetSocketAddress> peers, byte[] secret) throws SocketException {
+        if (secret == null || secret.length == 0)
+            throw new IllegalArgumentException("The invalidation bus needs a shared secret");
+        this.peers = peers;
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.socket = new DatagramSocket(port);
+        this.receiver = new Thread(this::receiveLoop, "invalidation-bus-receiver");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    @Override
+    public void publish(String entity, Long id) {
+        EntityChangeEvent event = new EntityChangeEvent(entity, id, local.getNodeId());
+        local.deliver(event);
+        String payload = System.currentTimeMillis() + " " + event.encode();
+        byte[] data = (sign(payload) + " " + payload).getBytes(StandardCharsets.UTF_8);
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(data, data.length, peer));
+            } catch (IOException ignored) {
+                // peer down; it will rebuild its caches when it comes back
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<EntityChangeEvent> listener) {
+        local.subscribe(listener);
+    }
+
+    private void receiveLoop() {
+        byte[] buf = new byte[512];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buf, buf.length);
+            try {
+                socket.receive(packet);
+                String datagram = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
+                EntityChangeEvent event = verify(datagram);
+                if (event == null) {
+                    rejected.incrementAndGet();
+                    log.debug("Dropped unauthenticated invalidation datagram from {}", packet.getSocketAddress());
+                } else if (!local.getNodeId().equals(event.origin())) {
+                    local.deliver(event);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                // socket closed or garbage datagram
+            }
+        }
+    }
+
+    /**
+     * The event of a correctly signed, fresh datagram, else null.
+     */
+    EntityChangeEvent verify(String datagram) {
+        int space = datagram.indexOf(' ');
+        if (space < 0)
+            return null;
+        String payload = datagram.substring(space + 1);
+        byte[] expected = sign(payload).getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(expected, datagram.substring(0, space).getBytes(StandardCharsets.UTF_8)))
+            return null;
+        int next = payload.indexOf(' ');
+        if (next < 0)
+            return null;
+        long sentAt = Long.parseLong(payload.substring(0, next));
+        if (Math.abs(System.currentTimeMillis() - sentAt) > MAX_AGE_MS)
+            return null;
+        return EntityChangeEvent.decode(payload.substring(next + 1));
+    }
+
+    String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " unavailable", e);
+        }
+    }
+
+    /**
+     * Datagrams dropped for a missing or wrong signature or a stale send time.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.WaitlistEntry;
+
+/**
+ * Tells a waitlisted patient that a slot is being held for them (mail, SMS,
+ * push), with the slot and the hold's expiry on the entry. Called once the
+ * offer has committed. Without any notifier bean, offers are only logged;
+ * patients still see them among their open entries.
+ */
+public interface WaitlistNotifier {
+
+    void offered(WaitlistEntry entry);
+}
@@ -0,0 +1,310 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.WaitlistEntry;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.WaitlistEntryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Waitlist for fully booked doctors. Patients register for a doctor and a
+ * date range; when a slot is freed it is offered to the head of that
+ * doctor's queue (highest priority, then first come) and held for it for
+ * app.waitlist.hold-minutes, during which nobody else can book it. An offer
+ * that is declined or runs out moves on to the next entry.
+ *
+ * <p>Offers are made under a row lock on the doctor, so sweeps and freed
+ * slots handled on several nodes at once cannot hold the same slot twice.
+ * Patients see pending offers among their open entries and are told through
+ * any {@link WaitlistNotifier} beans once the offer has committed.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final AppointmentService appointmentService;
+    private final InvalidationBus invalidationBus;
+    private final ObjectProvider<WaitlistNotifier> notifiers;
+    private final TransactionTemplate tx;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "waitlist-offers");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${app.waitlist.hold-minutes:15}")
+    private long holdMinutes;
+
+    @Value("${app.waitlist.max-entries-per-patient:5}")
+    private int maxEntriesPerPatient;
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository,
+            AppointmentRepository appointmentRepository,
+            DoctorRepository doctorRepository,
+            PatientRepository patientRepository,
+            AppointmentService appointmentService,
+            InvalidationBus invalidationBus,
+            ObjectProvider<WaitlistNotifier> notifiers,
+            PlatformTransactionManager transactionManager) {
+        this.waitlistRepository = waitlistRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.appointmentService = appointmentService;
+        this.invalidationBus = invalidationBus;
+        this.notifiers = notifiers;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Puts the patient on a doctor's waitlist for the given dates.
+     */
+    public ResponseEntity<Map<String, String>> join(Long patientId, Long doctorId, LocalDate from, LocalDate to) {
+        Map<String, String> resp = new HashMap<>();
+        if (doctorId == null || from == null || to == null || to.isBefore(from) || to.isBefore(LocalDate.now())) {
+            resp.put("error", "A doctor and a valid date range are required");
+            return ResponseEntity.badRequest().body(resp);
+        }
+        Optional<Doctor> doctor = doctorRepository.findById(doctorId);
+        if (doctor.isEmpty() || doctor.get().isDeleted()) {
+            resp.put("error", "Doctor not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(resp);
+        }
+        if (waitlistRepository.findOpenByPatientId(patientId).size() >= maxEntriesPerPatient) {
+            resp.put("error", "Too many open waitlist entries");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(resp);
+        }
+        WaitlistEntry entry = waitlistRepository.save(new WaitlistEntry(patientId, doctorId, from, to));
+        resp.put("message", "Added to waitlist");
+        resp.put("id", String.valueOf(entry.getId()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(resp);
+    }
+
+    /**
+     * Open entries of a patient, including pending offers.
+     */
+    public List<WaitlistEntry> openEntries(Long patientId) {
+        return waitlistRepository.findOpenByPatientId(patientId);
+    }
+
+    /**
+     * Books the slot offered to the entry, if the offer is still valid. A
+     * failed insert rolls the whole acceptance back; the offer stays open.
+     */
+    public ResponseEntity<Map<String, String>> accept(Long entryId, Long patientId) {
+        try {
+            return tx.execute(status -> acceptOffer(entryId, patientId));
+        } catch (RuntimeException e) {
+            log.warn("Booking the slot offered to waitlist entry {} failed", entryId, e);
+            Map<String, String> resp = new HashMap<>();
+            resp.put("error", "Failed to book the offered slot");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(resp);
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> acceptOffer(Long entryId, Long patientId) {
+        Map<String, String> resp = new HashMap<>();
+        WaitlistEntry entry = waitlistRepository.findById(entryId).orElse(null);
+        if (entry == null || !entry.getPatientId().equals(patientId)) {
+            resp.put("error", "Waitlist entry not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(resp);
+        }
+        if (!WaitlistEntry.OFFERED.equals(entry.getStatus())
+                || !entry.getOfferExpiresAt().isAfter(LocalDateTime.now())) {
+            resp.put("error", "No open offer for this entry");
+            return ResponseEntity.status(HttpStatus.GONE).body(resp);
+        }
+        Optional<Doctor> doctor = doctorRepository.findById(entry.getDoctorId());
+        Optional<Patient> patient = patientRepository.findById(patientId);
+        if (doctor.isEmpty() || doctor.get().isDeleted() || patient.isEmpty()
+                || isBooked(entry.getDoctorId(), entry.getOfferedSlot())) {
+            resp.put("error", "The offered slot is no longer available");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(resp);
+        }
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor.get());
+        appointment.setPatient(patient.get());
+        appointment.setAppointmentTime(entry.getOfferedSlot());
+        appointment.setStatus(0);
+        appointmentService.book(appointment);
+        entry.setStatus(WaitlistEntry.BOOKED);
+        entry.setOfferExpiresAt(null);
+        waitlistRepository.save(entry);
+        resp.put("message", "Appointment booked");
+        return ResponseEntity.ok(resp);
+    }
+
+    /**
+     * Removes the patient from the waitlist; a pending offer moves on.
+     */
+    public ResponseEntity<Map<String, String>> leave(Long entryId, Long patientId) {
+        Map<String, String> resp = new HashMap<>();
+        WaitlistEntry entry = waitlistRepository.findById(entryId).orElse(null);
+        if (entry == null || !entry.getPatientId().equals(patientId)) {
+            resp.put("error", "Waitlist entry not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(resp);
+        }
+        LocalDateTime offered = WaitlistEntry.OFFERED.equals(entry.getStatus()) ? entry.getOfferedSlot() : null;
+        entry.setStatus(WaitlistEntry.CANCELLED);
+        entry.setOfferExpiresAt(null);
+        waitlistRepository.save(entry);
+        if (offered != null) {
+            invalidationBus.publish(EntityChangeEvent.AVAILABILITY, entry.getDoctorId());
+            executor.submit(TenantContext.wrap(() -> offerNext(entry.getDoctorId(), offered, entryId)));
+        }
+        resp.put("message", "Removed from waitlist");
+        return ResponseEntity.ok(resp);
+    }
+
+    /**
+     * Moves an entry up or down its doctor's queue (doctor only).
+     */
+    public ResponseEntity<Map<String, String>> setPriority(Long entryId, Long doctorId, int priority) {
+        Map<String, String> resp = new HashMap<>();
+        WaitlistEntry entry = waitlistRepository.findById(entryId).orElse(null);
+        if (entry == null || !entry.getDoctorId().equals(doctorId)) {
+            resp.put("error", "Waitlist entry not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(resp);
+        }
+        entry.setPriority(priority);
+        waitlistRepository.save(entry);
+        resp.put("message", "Priority updated");
+        return ResponseEntity.ok(resp);
+    }
+
+    /**
+     * Offers a freed slot once the freeing transaction has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSlotFreed(SlotFreedEvent event) {
+        executor.submit(TenantContext.wrap(() -> offerNext(event.doctorId(), event.slot(), null)));
+    }
+
+    /**
+     * Expires offers whose hold ran out, passing their slot on, and closes
+     * entries whose dates have passed.
+     */
+    @Scheduled(fixedDelayString = "${app.waitlist.sweep-ms:30000}")
+    public void sweep() {
+        TenantContext.forEachShard(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<WaitlistEntry> expired = waitlistRepository.findExpiredOffers(now, PageRequest.of(0, 100));
+            for (WaitlistEntry entry : expired) {
+                LocalDateTime slot = entry.getOfferedSlot();
+                try {
+                    // back of the queue: the patient keeps waiting for a later slot
+                    entry.setStatus(WaitlistEntry.WAITING);
+                    entry.setOfferedSlot(null);
+                    entry.setOfferExpiresAt(null);
+                    entry.setCreatedAt(now);
+                    waitlistRepository.save(entry);
+                    invalidationBus.publish(EntityChangeEvent.AVAILABILITY, entry.getDoctorId());
+                } catch (OptimisticLockingFailureException e) {
+                    continue; // accepted or cancelled meanwhile
+                }
+                offerNext(entry.getDoctorId(), slot, entry.getId());
+            }
+            for (WaitlistEntry entry : waitlistRepository.findLapsed(now.toLocalDate(), PageRequest.of(0, 100))) {
+                entry.setStatus(WaitlistEntry.CANCELLED);
+                waitlistRepository.save(entry);
+            }
+        });
+    }
+
+    /**
+     * Offers the slot to the head of the doctor's queue, skipping the entry
+     * that just let it go. Nothing happens if the slot is in the past, booked
+     * again or already held. The doctor's row stays locked until the offer
+     * commits, so a concurrent call for the same doctor sees the hold.
+     */
+    void offerNext(Long doctorId, LocalDateTime slot, Long skipEntryId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (slot == null || !slot.isAfter(now))
+            return;
+        WaitlistEntry offered;
+        try {
+            offered = tx.execute(status -> {
+                if (doctorRepository.lockById(doctorId).isEmpty())
+                    return null;
+                if (isBooked(doctorId, slot) || !waitlistRepository.findHeldSlots(doctorId, slot, slot, now).isEmpty())
+                    return null;
+                for (WaitlistEntry entry : waitlistRepository.findQueueHead(doctorId, slot.toLocalDate(),
+                        PageRequest.of(0, 2))) {
+                    if (entry.getId().equals(skipEntryId))
+                        continue;
+                    entry.setStatus(WaitlistEntry.OFFERED);
+                    entry.setOfferedSlot(slot);
+                    entry.setOfferExpiresAt(now.plusMinutes(holdMinutes));
+                    waitlistRepository.save(entry);
+                    // the slot disappears from (or reappears in) availability
+                    invalidationBus.publishAfterCommit(EntityChangeEvent.AVAILABILITY, doctorId);
+                    return entry;
+                }
+                return null;
+            });
+        } catch (OptimisticLockingFailureException e) {
+            // the head changed concurrently; the next sweep or freed slot retries
+            return;
+        }
+        if (offered != null)
+            notifyOffered(offered);
+    }
+
+    private void notifyOffered(WaitlistEntry entry) {
+        List<WaitlistNotifier> targets = notifiers.orderedStream().toList();
+        if (targets.isEmpty()) {
+            log.info("Waitlist: slot {} offered to patient {} until {}", entry.getOfferedSlot(),
+                    entry.getPatientId(), entry.getOfferExpiresAt());
+            return;
+        }
+        for (WaitlistNotifier notifier : targets) {
+            try {
+                notifier.offered(entry);
+            } catch (RuntimeException e) {
+                log.warn("Waitlist offer for entry {} not sent", entry.getId(), e);
+            }
+        }
+    }
+
+    private boolean isBooked(Long doctorId, LocalDateTime slot) {
+        return !appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctorId, slot, slot).isEmpty();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
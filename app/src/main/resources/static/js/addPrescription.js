@@ -1,4 +1,4 @@
-import { savePrescription, getPrescription } from "./services/prescriptionServices.js";
+import { savePrescription, getPrescription, completeMedication } from "./services/prescriptionServices.js";
 
 document.addEventListener('DOMContentLoaded', async () => {
   const savePrescriptionBtn = document.getElementById("savePrescription");
@@ -48,6 +48,26 @@ document.addEventListener('DOMContentLoaded', async () => {
       console.warn("No existing prescription found or failed to load:", error);
     }
   }
+  // Suggest catalog medications for the name being typed (after the last comma)
+  const medicineOptions = document.getElementById("medicineOptions");
+  let lastPrefix = "";
+  medicinesInput.addEventListener('input', async () => {
+    const value = medicinesInput.value;
+    const cut = value.lastIndexOf(',') + 1;
+    const prefix = value.slice(cut).trim();
+    if (!medicineOptions || prefix === lastPrefix) return;
+    lastPrefix = prefix;
+    const names = prefix ? await completeMedication(prefix, token) : [];
+    if (prefix !== lastPrefix) return; // a newer keystroke already answered
+    const before = cut > 0 ? value.slice(0, cut) + " " : "";
+    medicineOptions.innerHTML = "";
+    names.forEach(name => {
+      const option = document.createElement("option");
+      option.value = before + name;
+      medicineOptions.appendChild(option);
+    });
+  });
+
   if (mode === 'view') {
     // Make fields read-only
     patientNameInput.disabled = true;
@@ -7,7 +7,7 @@ function renderHeader() {
     // Clear header on homepage
     if (window.location.pathname.endsWith("/")) {
         localStorage.removeItem("userRole");
-        localStorage.removeItem("token");
+        clearSession();
         headerDiv.innerHTML = `
             <header class="header">
                 <div class="logo-section">
@@ -143,7 +143,7 @@ function attachHeaderButtonListeners() {
  * Logs out admin/doctor users
  */
 function logout() {
-    localStorage.removeItem("token");
+    clearSession();
     localStorage.removeItem("userRole");
     window.location.href = "/";
 }
@@ -152,7 +152,7 @@ function logout() {
  * Logs out patient users (retains patient role)
  */
 function logoutPatient() {
-    localStorage.removeItem("token");
+    clearSession();
     localStorage.setItem("userRole", "patient");
     window.location.href = "/pages/patientDashboard.html";
 }
@@ -20,7 +20,6 @@ class DoctorDashboard {
     this.state = {
       selectedDate: new Date().toISOString().split('T')[0],
       patientName: null,
-      token: localStorage.getItem('token'),
       appointments: []
     };
     
@@ -69,7 +68,9 @@ class DoctorDashboard {
     try {
       this.showLoading(true);
       
-      const { selectedDate, patientName, token } = this.state;
+      const { selectedDate, patientName } = this.state;
+      // read per call: the token is replaced whenever the session is refreshed
+      const token = localStorage.getItem('token');
       this.state.appointments = await getAllAppointments(selectedDate, patientName, token);
       
       this.renderAppointments();
@@ -92,7 +92,7 @@ async function handleFilterChange() {
   const condition = filterValue === "allAppointments" ? null : filterValue || null;
 
   try {
-    const response = await filterAppointments(condition, name, token);
+    const response = await filterAppointments(condition, name, localStorage.getItem("token"));
     const appointments = response?.appointments || [];
     filteredAppointments = appointments.filter(app => app.patientId === patientId);
 
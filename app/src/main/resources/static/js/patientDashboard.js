@@ -190,7 +190,7 @@ class PatientDashboard {
       
       if (response.ok) {
         const result = await response.json();
-        localStorage.setItem('token', result.token);
+        storeSession(result);
         showNotification('Login successful!', 'success');
         window.location.href = '/pages/loggedPatientDashboard.html';
       } else {
@@ -1,5 +1,94 @@
 // render.js
 
+/**
+ * Session handling: logins store the short-lived access token and the
+ * refresh token; any API call answered 401 is retried once with a token pair
+ * from /auth/refresh. Scripts that captured the old access token (in a URL
+ * or an Authorization header) keep working, because the previous token is
+ * swapped for the current one before each request.
+ */
+const nativeFetch = window.fetch.bind(window);
+let pendingRefresh = null;
+
+function storeSession(data) {
+  localStorage.setItem('token', data.token);
+  if (data.refreshToken) {
+    localStorage.setItem('refreshToken', data.refreshToken);
+  }
+}
+
+function clearSession() {
+  const refreshToken = localStorage.getItem('refreshToken');
+  if (refreshToken) {
+    // best effort: the refresh token is revoked server side
+    nativeFetch('/auth/logout', {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({ refreshToken })
+    }).catch(() => {});
+  }
+  localStorage.removeItem('token');
+  localStorage.removeItem('previousToken');
+  localStorage.removeItem('refreshToken');
+}
+
+
+// one refresh at a time: a rotated refresh token can only be used once
+function refreshSession() {
+  if (!pendingRefresh) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    pendingRefresh = (refreshToken ? nativeFetch('/auth/refresh', {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({ refreshToken })
+    }).then(async (response) => {
+      if (!response.ok) {
+        return false;
+      }
+      const previous = localStorage.getItem('token');
+      storeSession(await response.json());
+      if (previous) {
+        localStorage.setItem('previousToken', previous);
+      }
+      return true;
+    }).catch(() => false) : Promise.resolve(false))
+      .finally(() => { pendingRefresh = null; });
+  }
+  return pendingRefresh;
+}
+
+function withCurrentToken(input, init, stale) {
+  const token = localStorage.getItem('token');
+  if (!stale || !token || stale === token) {
+    return [input, init];
+  }
+  const url = typeof input === 'string' ? input.split(stale).join(token) : input;
+  if (init && init.headers && !(init.headers instanceof Headers)) {
+    const headers = { ...init.headers };
+    for (const name of Object.keys(headers)) {
+      if (typeof headers[name] === 'string') {
+        headers[name] = headers[name].split(stale).join(token);
+      }
+    }
+    init = { ...init, headers };
+  }
+  return [url, init];
+}
+
+window.fetch = async function (input, init) {
+  [input, init] = withCurrentToken(input, init, localStorage.getItem('previousToken'));
+  const response = await nativeFetch(input, init);
+  const token = localStorage.getItem('token');
+  const sent = (typeof input === 'string' ? input : '') + JSON.stringify((init && init.headers) || {});
+  if (response.status !== 401 || !token || !sent.includes(token)) {
+    return response;
+  }
+  if (!(await refreshSession())) {
+    return response;
+  }
+  return nativeFetch(...withCurrentToken(input, init, token));
+};
+
 function selectRole(role) {
   setRole(role);
   const token = localStorage.getItem('token');
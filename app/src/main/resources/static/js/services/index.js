@@ -46,7 +46,7 @@ window.adminLoginHandler = async function() {
 
         if (response.ok) {
             const data = await response.json();
-            localStorage.setItem('token', data.token);
+            storeSession(data);
             selectRole('admin');
         } else {
             alert('Invalid admin credentials!');
@@ -80,7 +80,7 @@ window.doctorLoginHandler = async function() {
 
         if (response.ok) {
             const data = await response.json();
-            localStorage.setItem('token', data.token);
+            storeSession(data);
             selectRole('doctor');
         } else {
             alert('Invalid doctor credentials!');
@@ -44,3 +44,17 @@ export async function getPrescription(appointmentId, token) {
     throw error;
   }
 }
+
+export async function completeMedication(prefix, token) {
+  try {
+    const response = await fetch(`${PRESCRITION_API}/catalog/${encodeURIComponent(prefix)}/${token}`);
+    if (!response.ok) {
+      return [];
+    }
+    const result = await response.json();
+    return result.medications || [];
+  } catch (error) {
+    console.error("Error :: completeMedication ::", error);
+    return [];
+  }
+}
@@ -0,0 +1,48 @@
+package com.project.back_end;
+
+import com.project.back_end.config.TenantIdentifierResolver;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.services.EtagService;
+import com.project.back_end.services.OutboxService;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JPA slice on an in-memory H2 database in MySQL mode, shared by the tests
+ * that need the real entities and repositories. The application class scans
+ * every component, so the slice brings its own configuration; a plain
+ * configuration, so that @SpringBootTest still finds only the application
+ * class. Tests are not
+ * wrapped in a transaction, since commit-time behaviour is what they check;
+ * they clean up after themselves.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:slice;MODE=MySQL;NON_KEYWORDS=DAY,VALUE;DB_CLOSE_DELAY=-1",
+		"spring.jpa.show-sql=false" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = JpaSliceTest.Config.class)
+public @interface JpaSliceTest {
+
+	@Configuration
+	@EntityScan(basePackageClasses = Appointment.class)
+	@EnableJpaRepositories(basePackageClasses = AppointmentRepository.class)
+	@Import({ TenantIdentifierResolver.class, EtagService.class, OutboxService.class })
+	class Config {
+	}
+}
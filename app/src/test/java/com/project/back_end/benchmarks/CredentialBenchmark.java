@@ -0,0 +1,91 @@
+package com.project.back_end.benchmarks;
+
+import com.project.back_end.services.CredentialService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt login verification run inline on the calling (request) thread
+ * versus offloaded to {@link CredentialService}'s bounded pool.
+ *
+ * Each group runs six login threads next to two threads serving a cheap
+ * request (a SHA-256 over a token-sized payload). Inline, the logins take
+ * every core and the cheap requests' latency climbs with them; offloaded,
+ * hashing is capped at poolSize cores and the rest stay responsive, at the
+ * price of logins queueing. Compare the "request" rows of both groups.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CredentialBenchmark {
+
+    private static final String PASSWORD = "correct horse battery";
+
+    @Param({ "10" })
+    int cost;
+
+    @Param({ "2" })
+    int poolSize;
+
+    private BCryptPasswordEncoder encoder;
+    private CredentialService credentials;
+    private String stored;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        credentials = new CredentialService(cost, poolSize, 1024, 60_000);
+        stored = encoder.encode(PASSWORD);
+        payload = "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJwYXRAZXhhbXBsZS5jb20ifQ.signature"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @Group("inline")
+    @GroupThreads(6)
+    public boolean inlineLogin() {
+        return encoder.matches(PASSWORD, stored);
+    }
+
+    @Benchmark
+    @Group("inline")
+    @GroupThreads(2)
+    public byte[] inlineRequest() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(payload);
+    }
+
+    @Benchmark
+    @Group("offloaded")
+    @GroupThreads(6)
+    public boolean offloadedLogin() {
+        return credentials.verify(PASSWORD, stored);
+    }
+
+    @Benchmark
+    @Group("offloaded")
+    @GroupThreads(2)
+    public byte[] offloadedRequest() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(payload);
+    }
+}
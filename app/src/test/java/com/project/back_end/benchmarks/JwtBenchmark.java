@@ -0,0 +1,94 @@
+package com.project.back_end.benchmarks;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of verifying an access token per request: a parser built once and
+ * shared (as TokenService does) versus one built on every call, for each
+ * supported signing algorithm. The gap between the two rows is the parser
+ * construction overhead; the gap between algorithms is the signature check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({ "HS256", "ES256", "EdDSA" })
+    String algorithm;
+
+    private Key verifyKey;
+    private JwtParser shared;
+    private String token;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        Key signKey;
+        if ("HS256".equals(algorithm)) {
+            signKey = Keys.hmacShaKeyFor("benchmark-secret-benchmark-secret-0123"
+                    .getBytes(StandardCharsets.UTF_8));
+            verifyKey = signKey;
+        } else {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("ES256".equals(algorithm) ? "EC" : "Ed25519");
+            if ("ES256".equals(algorithm)) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            KeyPair pair = generator.generateKeyPair();
+            signKey = pair.getPrivate();
+            verifyKey = pair.getPublic();
+        }
+        shared = parser(verifyKey);
+        Date now = new Date();
+        token = Jwts.builder()
+                .subject("pat@example.com")
+                .claim("uid", 42L)
+                .claim("role", "PATIENT")
+                .claim("clinic", 1L)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(signKey)
+                .compact();
+    }
+
+    @Benchmark
+    public Object sharedParser() {
+        return shared.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Object parserPerCall() {
+        return parser(verifyKey).parseSignedClaims(token).getPayload();
+    }
+
+    private static JwtParser parser(Key key) {
+        return key instanceof SecretKey secret
+                ? Jwts.parser().verifyWith(secret).build()
+                : Jwts.parser().verifyWith((PublicKey) key).build();
+    }
+}
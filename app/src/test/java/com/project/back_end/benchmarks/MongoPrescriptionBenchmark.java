@@ -0,0 +1,145 @@
+package com.project.back_end.benchmarks;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.project.back_end.models.Prescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Prescription lookups by appointment through the blocking driver (what the
+ * classic endpoints do, one request thread per lookup) versus the reactive
+ * driver (the /prescription/reactive endpoints). Each operation is a burst of
+ * concurrent lookups: the blocking side runs them on a fixed pool the size of
+ * a slice of the servlet container's threads, the reactive side keeps them
+ * all in flight without threads waiting on the server.
+ *
+ * Needs a running MongoDB, taken from the BENCHMARK_MONGO_URI environment
+ * variable (default mongodb://localhost:27017), which forked benchmark JVMs
+ * inherit. Data goes to a throwaway "benchmark_prescriptions" database that
+ * is dropped afterwards. Without a server setup fails and JMH moves on to the
+ * other benchmarks; run only this one with -Djmh.args="MongoPrescription".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class MongoPrescriptionBenchmark {
+
+    private static final String DATABASE = "benchmark_prescriptions";
+    private static final int APPOINTMENTS = 10_000;
+
+    /** Lookups in flight at once, e.g. one per concurrent request. */
+    @Param({ "16", "256" })
+    int burst;
+
+    /** Threads the blocking side may use, like a slice of the request pool. */
+    @Param({ "16" })
+    int threads;
+
+    private MongoClient blockingClient;
+    private com.mongodb.reactivestreams.client.MongoClient reactiveClient;
+    private MongoTemplate blocking;
+    private ReactiveMongoTemplate reactive;
+    private ExecutorService pool;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        String uri = System.getenv().getOrDefault("BENCHMARK_MONGO_URI", "mongodb://localhost:27017");
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(uri))
+                .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(5, TimeUnit.SECONDS))
+                .build();
+        blockingClient = MongoClients.create(settings);
+        reactiveClient = com.mongodb.reactivestreams.client.MongoClients.create(settings);
+        blocking = new MongoTemplate(blockingClient, DATABASE);
+        reactive = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(reactiveClient, DATABASE));
+        try {
+            blocking.dropCollection(Prescription.class);
+        } catch (RuntimeException e) {
+            blockingClient.close();
+            reactiveClient.close();
+            throw new IllegalStateException("No MongoDB reachable at " + uri
+                    + "; set BENCHMARK_MONGO_URI to run this benchmark", e);
+        }
+        blocking.indexOps(Prescription.class).createIndex(new Index("appointmentId", Sort.Direction.ASC));
+        List<Prescription> seed = new ArrayList<>(APPOINTMENTS);
+        for (long id = 0; id < APPOINTMENTS; id++) {
+            Prescription prescription = new Prescription("Patient " + id, id, "Amoxicillin 500mg", "1 tablet 3x daily");
+            prescription.setDoctorNotes("Take with food");
+            seed.add(prescription);
+        }
+        blocking.insertAll(seed);
+        pool = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+        blockingClient.getDatabase(DATABASE).drop();
+        blockingClient.close();
+        reactiveClient.close();
+    }
+
+    @Benchmark
+    public int blockingOnThreadPool() throws Exception {
+        List<Future<List<Prescription>>> lookups = new ArrayList<>(burst);
+        for (int i = 0; i < burst; i++) {
+            Query query = byAppointment();
+            lookups.add(pool.submit(() -> blocking.find(query, Prescription.class)));
+        }
+        int found = 0;
+        for (Future<List<Prescription>> lookup : lookups) {
+            found += lookup.get().size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int reactiveInFlight() {
+        List<Query> queries = new ArrayList<>(burst);
+        for (int i = 0; i < burst; i++) {
+            queries.add(byAppointment());
+        }
+        return Flux.fromIterable(queries)
+                .flatMap(query -> reactive.find(query, Prescription.class).collectList(), burst)
+                .map(List::size)
+                .reduce(0, Integer::sum)
+                .block();
+    }
+
+    private Query byAppointment() {
+        return new Query(where("appointmentId").is(next++ % APPOINTMENTS));
+    }
+}
@@ -0,0 +1,82 @@
+package com.project.back_end.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplicaRoutingDataSourceTests {
+
+	private DataSource primary;
+	private DataSource replica;
+
+	@BeforeEach
+	void setUp() {
+		primary = embedded("primary");
+		replica = embedded("replica");
+	}
+
+	@Test
+	void readOnlyTransactionsGoToReplica() {
+		JdbcTemplate jdbc = new JdbcTemplate(routing(List.of(replica)));
+
+		assertEquals("replica", readOnly(transactions(jdbc.getDataSource())).execute(s -> whoAmI(jdbc)));
+		assertEquals("primary", transactions(jdbc.getDataSource()).execute(s -> whoAmI(jdbc)));
+	}
+
+	@Test
+	void pinnedTransactionsStayOnPrimary() {
+		JdbcTemplate jdbc = new JdbcTemplate(routing(List.of(replica)));
+		TransactionTemplate tx = readOnly(transactions(jdbc.getDataSource()));
+
+		assertEquals("primary", tx.execute(s -> {
+			ReplicaStickiness.pinToPrimary();
+			return whoAmI(jdbc);
+		}));
+		// pin is released when the transaction completes
+		assertEquals("replica", tx.execute(s -> whoAmI(jdbc)));
+	}
+
+	@Test
+	void unreachableReplicaFallsBackToPrimary() {
+		DriverManagerDataSource broken = new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(routing(List.of(broken)));
+
+		assertEquals("primary", readOnly(transactions(jdbc.getDataSource())).execute(s -> whoAmI(jdbc)));
+	}
+
+	private static DataSource embedded(String name) {
+		DriverManagerDataSource ds = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(ds);
+		jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+		jdbc.execute("DELETE FROM node");
+		jdbc.update("INSERT INTO node VALUES (?)", name);
+		return ds;
+	}
+
+	private DataSource routing(List<DataSource> replicas) {
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas));
+	}
+
+	private static TransactionTemplate transactions(DataSource ds) {
+		return new TransactionTemplate(new DataSourceTransactionManager(ds));
+	}
+
+	private static TransactionTemplate readOnly(TransactionTemplate tx) {
+		tx.setReadOnly(true);
+		return tx;
+	}
+
+	private static String whoAmI(JdbcTemplate jdbc) {
+		return jdbc.queryForObject("SELECT name FROM node", String.class);
+	}
+}
@@ -0,0 +1,81 @@
+package com.project.back_end.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StaticCacheFilterTests {
+
+	private ResourceHttpRequestHandler handler;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// what the resource chain in application.properties sets up
+		handler = new ResourceHttpRequestHandler();
+		handler.setServletContext(new MockServletContext());
+		handler.setLocations(List.of(new ClassPathResource("static/")));
+		handler.setResourceResolvers(List.of(
+				new VersionResourceResolver().addContentVersionStrategy("/**"),
+				new PathResourceResolver()));
+		handler.afterPropertiesSet();
+	}
+
+	@Test
+	void hashedUrlsAreImmutable() throws Exception {
+		String hash = DigestUtils.md5DigestAsHex(new ClassPathResource("static/assets/css/style.css").getInputStream());
+
+		MockHttpServletResponse response = serve("assets/css/style-" + hash + ".css");
+
+		assertEquals(200, response.getStatus());
+		assertEquals(StaticCacheFilter.IMMUTABLE, response.getHeader(HttpHeaders.CACHE_CONTROL));
+	}
+
+	@Test
+	void plainUrlsKeepRevalidating() throws Exception {
+		MockHttpServletResponse response = serve("assets/css/style.css");
+
+		assertEquals(200, response.getStatus());
+		assertNull(response.getHeader(HttpHeaders.CACHE_CONTROL));
+		assertEquals(1, response.getHeaders(HttpHeaders.LAST_MODIFIED).size());
+	}
+
+	@Test
+	void unknownHashesAreNotCached() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// turned into a 404 by the exception resolvers, with no cache policy
+		assertThrows(NoResourceFoundException.class,
+				() -> serve("assets/css/style-0123456789abcdef0123456789abcdef.css", response));
+		assertNull(response.getHeader(HttpHeaders.CACHE_CONTROL));
+	}
+
+	private MockHttpServletResponse serve(String path) throws Exception {
+		return serve(path, new MockHttpServletResponse());
+	}
+
+	private MockHttpServletResponse serve(String path, MockHttpServletResponse response) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/" + path);
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path);
+		new StaticCacheFilter().doFilter(request, response,
+				(req, res) -> handler.handleRequest((HttpServletRequest) req, (HttpServletResponse) res));
+		return response;
+	}
+}
@@ -0,0 +1,263 @@
+package com.project.back_end.config;
+
+import com.project.back_end.repo.PrescriptionRepository;
+import com.project.back_end.services.LocalInvalidationBus;
+import com.project.back_end.services.TenantRebalanceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TenantRoutingDataSourceTests {
+
+	private DataSource main;
+	private DataSource east;
+	private TenantShardMap shardMap;
+
+	@BeforeEach
+	void setUp() {
+		main = embedded("main");
+		east = embedded("east");
+		shardMap = new TenantShardMap(Map.of("main", main, "east", east), Map.of(), Map.of(12L, "east"), "main");
+		shardMap.reload();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TenantContext.clear();
+		// shard maps register their shards globally; later tests expect the single unnamed one
+		ReflectionTestUtils.setField(TenantContext.class, "shards", Collections.singletonList(null));
+	}
+
+	@Test
+	void connectionsFollowTheClinic() {
+		JdbcTemplate jdbc = new JdbcTemplate(new TenantRoutingDataSource(shardMap));
+
+		TenantContext.setClinic(12L);
+		assertEquals("east", whoAmI(jdbc));
+		TenantContext.setClinic(3L);
+		assertEquals("main", whoAmI(jdbc));
+		assertEquals("east", TenantContext.onShard("east", () -> whoAmI(jdbc)));
+		// clinic restored after the detour
+		assertEquals(3L, TenantContext.currentClinic());
+	}
+
+	@Test
+	void movedClinicIsCopiedAndRepointed() {
+		JdbcTemplate mainJdbc = new JdbcTemplate(main);
+		mainJdbc.update("INSERT INTO doctor (id, clinic_id, name) VALUES (1, 3, 'Dr A'), (2, 4, 'Dr B')");
+		mainJdbc.update("INSERT INTO doctor_available_times (doctor_id, available_times) VALUES (1, '09:00')");
+		mainJdbc.update("INSERT INTO patient (id, clinic_id, name) VALUES (5, 3, 'Pat')");
+		mainJdbc.update("INSERT INTO appointment (id, clinic_id, doctor_id, patient_id) VALUES (9, 3, 1, 5)");
+
+		TenantRebalanceService rebalancer = new TenantRebalanceService(shardMap, null, new LocalInvalidationBus());
+		ReflectionTestUtils.setField(rebalancer, "drainMs", 0L);
+
+		assertTrue(rebalancer.moveClinic(3L, "east").getStatusCode().is2xxSuccessful());
+		assertEquals("east", shardMap.shardFor(3L));
+		JdbcTemplate eastJdbc = new JdbcTemplate(east);
+		assertEquals(1, count(eastJdbc, "doctor"));
+		assertEquals(1, count(eastJdbc, "doctor_available_times"));
+		assertEquals(1, count(eastJdbc, "appointment"));
+		assertEquals(1, count(mainJdbc, "doctor"));
+		assertEquals(0, count(mainJdbc, "appointment"));
+
+		// the assignment survives a reload from the directory table
+		shardMap.reload();
+		assertEquals("east", shardMap.shardFor(3L));
+	}
+
+	@Test
+	void moveFailingBeforeTheSwitchIsRedoneCleanly() {
+		seedClinic3();
+		PrescriptionRepository prescriptions = mock(PrescriptionRepository.class);
+		when(prescriptions.findByAppointmentIdIn(anyList()))
+				.thenThrow(new IllegalStateException("mongo down"))
+				.thenReturn(List.of());
+		TenantRebalanceService rebalancer = rebalancer(separateMongo(), prescriptions);
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, rebalancer.moveClinic(3L, "east").getStatusCode());
+		assertEquals("main", shardMap.shardFor(3L));
+		assertTrue(rebalancer.moveClinic(3L, "east").getStatusCode().is2xxSuccessful());
+
+		// the first attempt's copy was replaced, not duplicated
+		JdbcTemplate eastJdbc = new JdbcTemplate(east);
+		assertEquals("east", shardMap.shardFor(3L));
+		assertEquals(1, count(eastJdbc, "doctor"));
+		assertEquals(1, count(eastJdbc, "doctor_available_times"));
+		assertEquals(1, count(eastJdbc, "appointment"));
+		assertEquals(0, count(new JdbcTemplate(main), "appointment"));
+	}
+
+	@Test
+	void moveFailingAfterTheSwitchIsFinishedByRunningItAgain() {
+		seedClinic3();
+		PrescriptionRepository prescriptions = mock(PrescriptionRepository.class);
+		when(prescriptions.findByAppointmentIdIn(anyList())).thenReturn(List.of());
+		// the first delete clears the target, the second one is the source cleanup
+		when(prescriptions.deleteByAppointmentIdIn(anyList()))
+				.thenReturn(0L)
+				.thenThrow(new IllegalStateException("mongo down"))
+				.thenReturn(1L);
+		TenantRebalanceService rebalancer = rebalancer(separateMongo(), prescriptions);
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, rebalancer.moveClinic(3L, "east").getStatusCode());
+		JdbcTemplate mainJdbc = new JdbcTemplate(main);
+		assertEquals("east", shardMap.shardFor(3L));
+		assertEquals(1, count(mainJdbc, "appointment"));
+
+		ResponseEntity<Map<String, Object>> resumed = rebalancer.moveClinic(3L, "east");
+		assertTrue(resumed.getStatusCode().is2xxSuccessful());
+		assertEquals(0, count(mainJdbc, "appointment"));
+		assertEquals(1, count(mainJdbc, "doctor"));
+		verify(prescriptions, times(3)).deleteByAppointmentIdIn(List.of(9L));
+		// nothing left: a further run is refused
+		assertEquals(HttpStatus.BAD_REQUEST, rebalancer.moveClinic(3L, "east").getStatusCode());
+	}
+
+	@Test
+	void rollupTotalsMoveWithTheClinic() {
+		seedClinic3();
+		JdbcTemplate mainJdbc = new JdbcTemplate(main);
+		mainJdbc.update("INSERT INTO appointment_rollup (id, clinic_id, day, doctor_id, kind, total) VALUES "
+				+ "(20, 3, DATE '2030-03-04', 1, 'BOOKED', 7), (21, 3, DATE '2030-03-04', 1, 'COMPLETED', 4), "
+				+ "(22, 4, DATE '2030-03-04', 2, 'BOOKED', 2)");
+
+		assertTrue(rebalancer(Map.of(), null).moveClinic(3L, "east").getStatusCode().is2xxSuccessful());
+
+		JdbcTemplate eastJdbc = new JdbcTemplate(east);
+		assertEquals(11L, eastJdbc.queryForObject(
+				"SELECT SUM(total) FROM appointment_rollup WHERE clinic_id = 3", Long.class));
+		// the source keeps only the other clinic's rows
+		assertEquals(List.of(4L), mainJdbc.queryForList("SELECT clinic_id FROM appointment_rollup", Long.class));
+	}
+
+	@Test
+	void rollupIdsOfAnotherClinicOnTheTargetBlockTheMove() {
+		seedClinic3();
+		new JdbcTemplate(main).update("INSERT INTO appointment_rollup (id, clinic_id, kind, total) "
+				+ "VALUES (20, 3, 'BOOKED', 7)");
+		new JdbcTemplate(east).update("INSERT INTO appointment_rollup (id, clinic_id, kind, total) "
+				+ "VALUES (20, 12, 'BOOKED', 1)");
+
+		ResponseEntity<Map<String, Object>> resp = rebalancer(Map.of(), null).moveClinic(3L, "east");
+
+		assertEquals(HttpStatus.CONFLICT, resp.getStatusCode());
+		assertEquals("main", shardMap.shardFor(3L));
+	}
+
+	@Test
+	void idsOfAnotherClinicOnTheTargetBlockTheMove() {
+		seedClinic3();
+		new JdbcTemplate(east).update("INSERT INTO patient (id, clinic_id, name) VALUES (5, 12, 'Other')");
+
+		ResponseEntity<Map<String, Object>> resp = rebalancer(Map.of(), null).moveClinic(3L, "east");
+
+		assertEquals(HttpStatus.CONFLICT, resp.getStatusCode());
+		assertEquals("main", shardMap.shardFor(3L));
+	}
+
+	@Test
+	void moveStateComesFromTheDirectory() {
+		// a second node on the same shards
+		TenantShardMap otherNode = new TenantShardMap(Map.of("main", main, "east", east), Map.of(),
+				Map.of(12L, "east"), "main");
+		otherNode.reload();
+
+		assertTrue(shardMap.startMove(3L));
+		assertTrue(shardMap.isMoving(3L));
+		assertFalse(otherNode.isMoving(3L));
+		otherNode.reload();
+		assertTrue(otherNode.isMoving(3L));
+		// one move of a clinic at a time, cluster-wide
+		assertFalse(otherNode.startMove(3L));
+
+		shardMap.endMove(3L);
+		otherNode.reload();
+		assertFalse(otherNode.isMoving(3L));
+	}
+
+	@Test
+	void abandonedMovesLapseAndCanBeTakenOver() {
+		assertTrue(shardMap.startMove(3L));
+		new JdbcTemplate(main).update("UPDATE clinic_move SET started_at = ? WHERE clinic_id = 3",
+				Timestamp.valueOf(LocalDateTime.now().minusHours(2)));
+
+		shardMap.reload();
+		assertFalse(shardMap.isMoving(3L));
+		assertTrue(shardMap.startMove(3L));
+		assertTrue(shardMap.isMoving(3L));
+	}
+
+	private void seedClinic3() {
+		JdbcTemplate mainJdbc = new JdbcTemplate(main);
+		mainJdbc.update("INSERT INTO doctor (id, clinic_id, name) VALUES (1, 3, 'Dr A'), (2, 4, 'Dr B')");
+		mainJdbc.update("INSERT INTO doctor_available_times (doctor_id, available_times) VALUES (1, '09:00')");
+		mainJdbc.update("INSERT INTO patient (id, clinic_id, name) VALUES (5, 3, 'Pat')");
+		mainJdbc.update("INSERT INTO appointment (id, clinic_id, doctor_id, patient_id) VALUES (9, 3, 1, 5)");
+	}
+
+	private Map<String, String> separateMongo() {
+		return Map.of("main", "prescriptions", "east", "prescriptions_east");
+	}
+
+	private TenantRebalanceService rebalancer(Map<String, String> mongoDatabases, PrescriptionRepository prescriptions) {
+		shardMap = new TenantShardMap(Map.of("main", main, "east", east), mongoDatabases, Map.of(12L, "east"), "main");
+		shardMap.reload();
+		TenantRebalanceService rebalancer = new TenantRebalanceService(shardMap, prescriptions,
+				new LocalInvalidationBus());
+		ReflectionTestUtils.setField(rebalancer, "drainMs", 0L);
+		return rebalancer;
+	}
+
+	private static DataSource embedded(String name) {
+		DriverManagerDataSource ds = new DriverManagerDataSource(
+				"jdbc:h2:mem:tenant-" + name + ";NON_KEYWORDS=DAY;DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(ds);
+		jdbc.execute("DROP ALL OBJECTS");
+		jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+		jdbc.update("INSERT INTO node VALUES (?)", name);
+		jdbc.execute("CREATE TABLE doctor (id BIGINT PRIMARY KEY, clinic_id BIGINT, name VARCHAR(50))");
+		jdbc.execute("CREATE TABLE doctor_available_times (doctor_id BIGINT, available_times VARCHAR(20))");
+		jdbc.execute("CREATE TABLE doctor_schedule (id BIGINT PRIMARY KEY, clinic_id BIGINT, doctor_id BIGINT)");
+		for (String collection : new String[] { "hours", "breaks", "exceptions" }) {
+			jdbc.execute("CREATE TABLE doctor_schedule_" + collection + " (doctor_schedule_id BIGINT)");
+		}
+		jdbc.execute("CREATE TABLE patient (id BIGINT PRIMARY KEY, clinic_id BIGINT, name VARCHAR(50))");
+		jdbc.execute("CREATE TABLE appointment (id BIGINT PRIMARY KEY, clinic_id BIGINT, doctor_id BIGINT, "
+				+ "patient_id BIGINT)");
+		jdbc.execute("CREATE TABLE archived_appointment (id BIGINT PRIMARY KEY, clinic_id BIGINT)");
+		jdbc.execute("CREATE TABLE waitlist_entry (id BIGINT PRIMARY KEY, clinic_id BIGINT)");
+		jdbc.execute("CREATE TABLE appointment_rollup (id BIGINT PRIMARY KEY, clinic_id BIGINT, day DATE, "
+				+ "doctor_id BIGINT, kind VARCHAR(16), total BIGINT)");
+		return ds;
+	}
+
+	private static String whoAmI(JdbcTemplate jdbc) {
+		return jdbc.queryForObject("SELECT name FROM node", String.class);
+	}
+
+	private static int count(JdbcTemplate jdbc, String table) {
+		return jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+	}
+}
@@ -0,0 +1,108 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.CentralService;
+import com.project.back_end.services.EtagService;
+import com.project.back_end.services.StreamingJsonWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AppointmentControllerTests {
+
+	private static final LocalDateTime NINE = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+	private CentralService central;
+	private AppointmentService appointments;
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() {
+		central = mock(CentralService.class);
+		appointments = mock(AppointmentService.class);
+		EtagService etags = mock(EtagService.class);
+		when(etags.etag(anyString(), anyString(), anyString(), anyString())).thenReturn("\"g-3\"");
+		DriverManagerDataSource ds = new DriverManagerDataSource("jdbc:h2:mem:appointments", "sa", "");
+		StreamingJsonWriter writer = new StreamingJsonWriter(Jackson2ObjectMapperBuilder.json().build(),
+				new DataSourceTransactionManager(ds));
+		mvc = MockMvcBuilders.standaloneSetup(new AppointmentController(appointments, central, etags, writer))
+				.build();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void appointmentsAreStreamedAsJson() throws Exception {
+		when(central.validateToken(anyString(), eq("doctor"))).thenReturn(ResponseEntity.ok(Map.of()));
+		when(central.getUserIdFromToken("token")).thenReturn(3L);
+		doAnswer(invocation -> {
+			Consumer<AppointmentDTO> sink = invocation.getArgument(3);
+			sink.accept(new AppointmentDTO(11L, 3L, "Dr A", 5L, "Pat", "pat@example.com", "5551234567",
+					"1 Main St", NINE, 0));
+			sink.accept(new AppointmentDTO(12L, 3L, "Dr A", 6L, "Sam", "sam@example.com", "5557654321",
+					"2 Main St", NINE.plusHours(1), 0));
+			return null;
+		}).when(appointments).streamAppointments(eq("Pat"), eq(LocalDate.of(2030, 3, 4)), eq(3L), any());
+
+		MvcResult started = mvc.perform(get("/appointments/2030-03-04/Pat/token"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.appointments.length()").value(2))
+				.andExpect(jsonPath("$.appointments[0].id").value(11))
+				.andExpect(jsonPath("$.appointments[0].patientName").value("Pat"))
+				.andExpect(jsonPath("$.appointments[1].id").value(12));
+	}
+
+	@Test
+	void rejectedTokenGetsTheErrorBody() throws Exception {
+		when(central.validateToken(anyString(), eq("doctor")))
+				.thenReturn(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid token")));
+
+		mvc.perform(get("/appointments/2030-03-04/Pat/token"))
+				.andExpect(status().isUnauthorized())
+				.andExpect(jsonPath("$.error").value("Invalid token"));
+		verify(appointments, never()).streamAppointments(any(), any(), any(), any());
+	}
+
+	@Test
+	void currentCopyIsAnswered304() throws Exception {
+		when(central.validateToken(anyString(), eq("doctor"))).thenReturn(ResponseEntity.ok(Map.of()));
+
+		mvc.perform(get("/appointments/2030-03-04/Pat/token").header(HttpHeaders.IF_NONE_MATCH, "\"g-3\""))
+				.andExpect(status().isNotModified());
+		verify(appointments, never()).streamAppointments(any(), any(), any(), any());
+	}
+}
@@ -0,0 +1,191 @@
+package com.project.back_end.services;
+
+import com.project.back_end.JpaSliceTest;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.AppointmentRollup;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.AppointmentRollupRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.EtagGenerationRepository;
+import com.project.back_end.repo.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@JpaSliceTest
+class AppointmentAnalyticsServiceTests {
+
+	@Autowired
+	private AppointmentRollupRepository rollupRepository;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private OutboxEventRepository outboxRepository;
+	@Autowired
+	private EtagGenerationRepository generationRepository;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final LocalDate day = LocalDate.now().plusDays(3);
+	private Doctor doctor;
+
+	@BeforeEach
+	void setUp() {
+		doctor = doctorRepository.save(DoctorPurgeServiceTests.doctor("doc@example.com"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		rollupRepository.deleteAll();
+		doctorRepository.deleteAll();
+		outboxRepository.deleteAll();
+		generationRepository.deleteAll();
+	}
+
+	@Test
+	void flushAddsOnlyTheNewDeltas() {
+		AppointmentAnalyticsService analytics = node();
+		record(analytics, AppointmentRollup.BOOKED, 3);
+		record(analytics, AppointmentRollup.CANCELLED, 1);
+
+		// unflushed deltas are already part of this node's report
+		assertEquals(3L, totals(analytics).get("booked"));
+		analytics.flush();
+		assertEquals(3L, stored(AppointmentRollup.BOOKED));
+		assertEquals(3L, totals(analytics).get("booked"));
+
+		analytics.flush();
+		assertEquals(3L, stored(AppointmentRollup.BOOKED));
+
+		record(analytics, AppointmentRollup.BOOKED, 2);
+		analytics.record(appointment(), AppointmentRollup.BOOKED, -1);
+		analytics.flush();
+		assertEquals(4L, stored(AppointmentRollup.BOOKED));
+		assertEquals(1L, stored(AppointmentRollup.CANCELLED));
+		assertEquals(2, rollupRepository.count());
+		assertEquals(4L, totals(analytics).get("booked"));
+		assertEquals(1L, totals(analytics).get("cancelled"));
+	}
+
+	@Test
+	void nodesAddUpInTheSameRow() {
+		AppointmentAnalyticsService a = node();
+		AppointmentAnalyticsService b = node();
+		record(a, AppointmentRollup.BOOKED, 2);
+		record(b, AppointmentRollup.BOOKED, 5);
+
+		a.flush();
+		b.flush();
+
+		assertEquals(7L, stored(AppointmentRollup.BOOKED));
+		assertEquals(7L, totals(a).get("booked"));
+		assertEquals(1, rollupRepository.count());
+	}
+
+	@Test
+	void onlyCommittedEventsCount() {
+		AppointmentAnalyticsService analytics = node();
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+		tx.executeWithoutResult(status -> {
+			analytics.record(appointment(), AppointmentRollup.BOOKED, 1);
+			status.setRollbackOnly();
+		});
+		tx.executeWithoutResult(status -> analytics.record(appointment(), AppointmentRollup.COMPLETED, 1));
+
+		assertEquals(0L, totals(analytics).get("booked"));
+		assertEquals(1L, totals(analytics).get("completed"));
+	}
+
+	@Test
+	void failedFlushKeepsTheDeltas() {
+		AppointmentRollupRepository failing = mock(AppointmentRollupRepository.class);
+		doThrow(new IllegalStateException("db down")).doNothing().when(failing)
+				.add(any(), any(), anyLong(), any(), anyString(), anyLong());
+		AppointmentAnalyticsService analytics = new AppointmentAnalyticsService(failing, appointmentRepository,
+				doctorRepository, new LocalInvalidationBus(), transactionManager);
+		analytics.init();
+		record(analytics, AppointmentRollup.BOOKED, 2);
+
+		analytics.flush();
+		record(analytics, AppointmentRollup.BOOKED, 1);
+		analytics.flush();
+
+		// the retry carries both the failed and the new delta
+		verify(failing).add(eq(0L), eq(day), eq(doctor.getId()), eq("Cardiology"), eq(AppointmentRollup.BOOKED),
+				eq(3L));
+	}
+
+	@Test
+	void pastDaysCountNoShows() {
+		AppointmentAnalyticsService analytics = node();
+		Appointment past = appointment();
+		past.setAppointmentTime(LocalDate.now().minusDays(1).atTime(10, 0));
+		for (int i = 0; i < 4; i++) {
+			analytics.record(past, AppointmentRollup.BOOKED, 1);
+		}
+		analytics.record(past, AppointmentRollup.CANCELLED, 1);
+		analytics.record(past, AppointmentRollup.COMPLETED, 1);
+		analytics.record(past, AppointmentRollup.COMPLETED, 1);
+
+		Map<String, Object> totals = totals(analytics, LocalDate.now().minusDays(1));
+		assertEquals(1L, totals.get("noShows"));
+		assertEquals(2.0 / 3, (double) totals.get("completionRate"), 1e-9);
+		assertEquals(0L, totals(analytics).get("noShows"));
+	}
+
+	private AppointmentAnalyticsService node() {
+		AppointmentAnalyticsService analytics = new AppointmentAnalyticsService(rollupRepository,
+				appointmentRepository, doctorRepository, new LocalInvalidationBus(), transactionManager);
+		analytics.init();
+		return analytics;
+	}
+
+	private void record(AppointmentAnalyticsService analytics, String kind, int times) {
+		for (int i = 0; i < times; i++) {
+			analytics.record(appointment(), kind, 1);
+		}
+	}
+
+	private Appointment appointment() {
+		Appointment appointment = new Appointment();
+		appointment.setDoctor(doctor);
+		appointment.setAppointmentTime(day.atTime(9, 30));
+		return appointment;
+	}
+
+	private long stored(String kind) {
+		List<AppointmentRollup> rows = rollupRepository.findAll().stream()
+				.filter(r -> r.getKind().equals(kind)).toList();
+		assertEquals(1, rows.size());
+		return rows.get(0).getTotal();
+	}
+
+	private Map<String, Object> totals(AppointmentAnalyticsService analytics) {
+		return totals(analytics, day);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> totals(AppointmentAnalyticsService analytics, LocalDate day) {
+		return (Map<String, Object>) analytics.dailyReport(day).get("totals");
+	}
+}
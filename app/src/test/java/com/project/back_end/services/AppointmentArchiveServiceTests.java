@@ -0,0 +1,162 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.JpaSliceTest;
+import com.project.back_end.config.ReplicaStickiness;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.OutboxEvent;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.EtagGenerationRepository;
+import com.project.back_end.repo.OutboxEventRepository;
+import com.project.back_end.repo.PatientRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@JpaSliceTest
+class AppointmentArchiveServiceTests {
+
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private ArchivedAppointmentRepository archivedAppointmentRepository;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private PatientRepository patientRepository;
+	@Autowired
+	private OutboxService outboxService;
+	@Autowired
+	private OutboxEventRepository outboxRepository;
+	@Autowired
+	private EtagGenerationRepository generationRepository;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private final TokenService tokens = TokenServiceTests.tokenService("HS256", "", "");
+	private AppointmentArchiveService archiveService;
+	private PatientService patientService;
+	private Doctor jones;
+	private Doctor smith;
+	private Patient patient;
+
+	@BeforeEach
+	void setUp() {
+		archiveService = new AppointmentArchiveService(appointmentRepository, transactionManager, entityManager,
+				outboxService);
+		ReflectionTestUtils.setField(archiveService, "olderThanDays", 90);
+		ReflectionTestUtils.setField(archiveService, "batchSize", 2);
+		patientService = new PatientService(patientRepository, appointmentRepository, archivedAppointmentRepository,
+				tokens, new ReplicaStickiness(), new LocalInvalidationBus(), null);
+		jones = doctorRepository.save(DoctorPurgeServiceTests.doctor("jones@example.com"));
+		Doctor other = DoctorPurgeServiceTests.doctor("smith@example.com");
+		other.setName("Dr Smith");
+		smith = doctorRepository.save(other);
+		patient = patientRepository.save(EtagServiceTests.patient());
+	}
+
+	@AfterEach
+	void tearDown() {
+		appointmentRepository.deleteAll();
+		archivedAppointmentRepository.deleteAll();
+		doctorRepository.deleteAll();
+		patientRepository.deleteAll();
+		outboxRepository.deleteAll();
+		generationRepository.deleteAll();
+	}
+
+	@Test
+	void onlyOldCompletedAppointmentsMove() {
+		for (int i = 0; i < 5; i++) {
+			appointment(jones, 1, 100 + i);
+		}
+		Long recent = appointment(jones, 1, 10);
+		Long missed = appointment(jones, 0, 200);
+		Long upcoming = appointment(jones, 0, -3);
+
+		assertEquals(5, archiveService.archiveCompleted());
+
+		assertEquals(sorted(recent, missed, upcoming),
+				appointmentRepository.findAll().stream().map(Appointment::getId).sorted().toList());
+		assertEquals(5, archivedAppointmentRepository.count());
+		assertEquals(5, outboxRepository.findAll().stream()
+				.filter(e -> OutboxEvent.DELETED.equals(e.getAction())).count());
+		// nothing left to do on the next run
+		assertEquals(0, archiveService.archiveCompleted());
+	}
+
+	@Test
+	void historyMergesBothTiers() {
+		Long archivedJones = appointment(jones, 1, 120);
+		Long archivedSmith = appointment(smith, 1, 150);
+		Long pastJones = appointment(jones, 1, 5);
+		Long nextJones = appointment(jones, 0, -2);
+		Long nextSmith = appointment(smith, 0, -4);
+		archiveService.archiveCompleted();
+
+		assertEquals(sorted(archivedJones, archivedSmith, pastJones, nextJones, nextSmith),
+				sorted(patientService.getPatientAppointment(patient.getId(), patientToken()).getBody()));
+		assertEquals(List.of(archivedSmith, archivedJones, pastJones),
+				ids(patientService.filterByCondition("past", patient.getId()).getBody()));
+		assertEquals(List.of(nextJones, nextSmith),
+				ids(patientService.filterByCondition("future", patient.getId()).getBody()));
+		assertEquals(sorted(archivedJones, pastJones, nextJones),
+				sorted(patientService.filterByDoctor("Jones", patient.getId()).getBody()));
+		assertEquals(sorted(archivedJones, pastJones),
+				sorted(patientService.filterByDoctorAndCondition("past", "Jones", patient.getId()).getBody()));
+		assertEquals(List.of(nextSmith),
+				ids(patientService.filterByDoctorAndCondition("future", "Smith", patient.getId()).getBody()));
+	}
+
+	/**
+	 * Saves an appointment the given number of days in the past (negative:
+	 * in the future). Past times fail bean validation on save, so the time is
+	 * moved back afterwards.
+	 */
+	private Long appointment(Doctor doctor, int status, int daysAgo) {
+		Appointment appointment = DoctorPurgeServiceTests.appointment(doctor, patient,
+				LocalDateTime.now().plusDays(1));
+		appointment.setStatus(status);
+		Long id = appointmentRepository.save(appointment).getId();
+		jdbc.update("UPDATE appointment SET appointment_time = ? WHERE id = ?",
+				LocalDateTime.now().minusDays(daysAgo).withNano(0), id);
+		return id;
+	}
+
+	private String patientToken() {
+		return tokens.generateToken(patient.getEmail(), patient.getId(), "patient");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Long> ids(Map<String, Object> body) {
+		return ((List<AppointmentDTO>) body.get("appointments")).stream().map(AppointmentDTO::getId).toList();
+	}
+
+	private static List<Long> sorted(Map<String, Object> body) {
+		return ids(body).stream().sorted().toList();
+	}
+
+	private static List<Long> sorted(Long... ids) {
+		return Stream.of(ids).sorted().toList();
+	}
+}
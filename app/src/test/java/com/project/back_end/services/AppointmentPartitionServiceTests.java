@@ -0,0 +1,139 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AppointmentPartitionServiceTests {
+
+	private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+	private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+	private final AppointmentPartitionService service = new AppointmentPartitionService(jdbc);
+	private final YearMonth now = YearMonth.now();
+
+	AppointmentPartitionServiceTests() {
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "monthsAhead", 2);
+	}
+
+	@Test
+	void disabledDoesNothing() {
+		ReflectionTestUtils.setField(service, "enabled", false);
+
+		service.maintain();
+
+		verify(jdbc, never()).execute(contains("ALTER"));
+	}
+
+	@Test
+	void unpartitionedTableIsConvertedFromItsOldestMonth() {
+		partitions();
+		when(jdbc.queryForList(contains("FOREIGN KEY"), eq(String.class), eq("appointment")))
+				.thenReturn(List.of("fk_doctor", "fk_patient"));
+		when(jdbc.queryForObject(contains("MIN(appointment_time)"), eq(LocalDate.class)))
+				.thenReturn(now.minusMonths(2).atDay(17));
+
+		service.maintain();
+
+		List<String> ddl = executed();
+		assertEquals("ALTER TABLE appointment DROP FOREIGN KEY `fk_doctor`", ddl.get(0));
+		assertEquals("ALTER TABLE appointment DROP FOREIGN KEY `fk_patient`", ddl.get(1));
+		assertEquals("ALTER TABLE appointment DROP PRIMARY KEY, ADD PRIMARY KEY (id, appointment_time)", ddl.get(2));
+		StringBuilder expected = new StringBuilder(
+				"ALTER TABLE appointment PARTITION BY RANGE COLUMNS(appointment_time) (");
+		for (int i = -2; i <= 2; i++) {
+			expected.append(partition(now.plusMonths(i))).append(", ");
+		}
+		expected.append("PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+		assertEquals(expected.toString(), ddl.get(3));
+		assertEquals(4, ddl.size());
+	}
+
+	@Test
+	void emptyTableStartsAtTheCurrentMonth() {
+		partitions();
+
+		service.maintain();
+
+		List<String> ddl = executed();
+		assertEquals("ALTER TABLE appointment PARTITION BY RANGE COLUMNS(appointment_time) ("
+				+ partition(now) + ", " + partition(now.plusMonths(1)) + ", " + partition(now.plusMonths(2))
+				+ ", PARTITION pmax VALUES LESS THAN (MAXVALUE))", ddl.get(ddl.size() - 1));
+	}
+
+	@Test
+	void partitionsRollForwardBySplittingTheOverflow() {
+		partitions(now.minusMonths(1), now);
+
+		service.maintain();
+
+		assertEquals(List.of(
+				"ALTER TABLE appointment REORGANIZE PARTITION pmax INTO (" + partition(now.plusMonths(1))
+						+ ", PARTITION pmax VALUES LESS THAN (MAXVALUE))",
+				"ALTER TABLE appointment REORGANIZE PARTITION pmax INTO (" + partition(now.plusMonths(2))
+						+ ", PARTITION pmax VALUES LESS THAN (MAXVALUE))"),
+				executed());
+	}
+
+	@Test
+	void onlyEmptyExpiredPartitionsAreDropped() {
+		ReflectionTestUtils.setField(service, "retentionMonths", 2);
+		YearMonth emptyMonth = now.minusMonths(5);
+		YearMonth busyMonth = now.minusMonths(4);
+		YearMonth emptyAgain = now.minusMonths(3);
+		partitions(emptyMonth, busyMonth, emptyAgain, now.minusMonths(2), now.minusMonths(1), now,
+				now.plusMonths(1), now.plusMonths(2));
+		when(jdbc.queryForObject(contains("PARTITION (" + emptyMonth.format(NAME) + ")"), eq(Integer.class)))
+				.thenReturn(0);
+		// any status counts, not only completed ones
+		when(jdbc.queryForObject(contains("PARTITION (" + busyMonth.format(NAME) + ")"), eq(Integer.class)))
+				.thenReturn(3);
+		when(jdbc.queryForObject(contains("PARTITION (" + emptyAgain.format(NAME) + ")"), eq(Integer.class)))
+				.thenReturn(0);
+
+		service.maintain();
+
+		assertEquals(List.of(
+				"ALTER TABLE appointment DROP PARTITION " + emptyMonth.format(NAME),
+				"ALTER TABLE appointment DROP PARTITION " + emptyAgain.format(NAME)),
+				executed());
+	}
+
+	private void partitions(YearMonth... months) {
+		List<String> names = new ArrayList<>();
+		for (YearMonth month : months) {
+			names.add(month.format(NAME));
+		}
+		if (months.length > 0)
+			names.add("pmax");
+		when(jdbc.queryForList(contains("information_schema.PARTITIONS"), eq(String.class), eq("appointment")))
+				.thenReturn(names);
+	}
+
+	private List<String> executed() {
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		verify(jdbc, atLeast(0)).execute(sql.capture());
+		return sql.getAllValues();
+	}
+
+	private static String partition(YearMonth month) {
+		return "PARTITION " + month.format(NAME) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "')";
+	}
+}
@@ -0,0 +1,60 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTests {
+
+	@Test
+	void insertedKeysAreAlwaysFound() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		SplittableRandom random = new SplittableRandom(1);
+		long[] keys = random.longs(10_000).toArray();
+		for (long key : keys) {
+			filter.put(key);
+		}
+
+		for (long key : keys) {
+			assertTrue(filter.mightContain(key));
+		}
+	}
+
+	@Test
+	void falsePositivesStayNearTheConfiguredRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		LongStream.range(0, 10_000).forEach(filter::put);
+
+		long falsePositives = LongStream.range(1_000_000, 1_100_000).filter(filter::mightContain).count();
+
+		assertTrue(falsePositives < 2_000, falsePositives + " false positives in 100000");
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		BloomFilter filter = new BloomFilter(0, 0.001);
+
+		assertFalse(filter.mightContain(0));
+		assertFalse(filter.mightContain(42));
+	}
+
+	@Test
+	void concurrentPutsAreNotLost() throws Exception {
+		BloomFilter filter = new BloomFilter(40_000, 0.01);
+		Thread[] writers = new Thread[4];
+		for (int t = 0; t < writers.length; t++) {
+			long offset = t * 10_000L;
+			writers[t] = new Thread(() -> LongStream.range(offset, offset + 10_000).forEach(filter::put));
+			writers[t].start();
+		}
+		for (Thread writer : writers) {
+			writer.join();
+		}
+
+		assertTrue(LongStream.range(0, 40_000).allMatch(filter::mightContain));
+	}
+}
@@ -0,0 +1,92 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.models.ScheduleException;
+import com.project.back_end.models.WorkingHours;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompiledScheduleTests {
+
+	// a Monday
+	private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+	@Test
+	void weeklyHoursLoseTheirBreaks() {
+		CompiledSchedule schedule = CompiledSchedule.of(schedule(30));
+
+		assertArrayEquals(new int[] { 540, 720, 780, 1020 }, schedule.windows(MONDAY));
+		// the every-day break applies to Tuesday too, Tuesday's own one only there
+		assertArrayEquals(new int[] { 600, 720, 780, 840 }, schedule.windows(MONDAY.plusDays(1)));
+		assertArrayEquals(Intervals.EMPTY, schedule.windows(MONDAY.plusDays(2)));
+	}
+
+	@Test
+	void exceptionsReplaceTheWeekday() {
+		DoctorSchedule source = schedule(30);
+		source.setExceptions(List.of(
+				exception(MONDAY, null, null, false),
+				exception(MONDAY.plusDays(1), LocalTime.of(8, 0), LocalTime.of(10, 0), true),
+				exception(MONDAY.plusDays(2), LocalTime.of(20, 0), LocalTime.MIDNIGHT, true)));
+		CompiledSchedule schedule = CompiledSchedule.of(source);
+
+		assertArrayEquals(Intervals.EMPTY, schedule.windows(MONDAY));
+		assertArrayEquals(new int[] { 480, 720, 780, 840 }, schedule.windows(MONDAY.plusDays(1)));
+		assertArrayEquals(new int[] { 1200, 1440 }, schedule.windows(MONDAY.plusDays(2)));
+		// the next Monday is back to normal
+		assertArrayEquals(new int[] { 540, 720, 780, 1020 }, schedule.windows(MONDAY.plusWeeks(1)));
+	}
+
+	@Test
+	void freeSlotsSkipBusyTimeAndPartialSlots() {
+		CompiledSchedule schedule = CompiledSchedule.of(schedule(45));
+
+		// 09:00-12:00 holds four 45-minute slots, 13:00-17:00 five (16:45 would overrun)
+		assertEquals(List.of(540, 585, 630, 675, 780, 825, 870, 915, 960),
+				schedule.freeSlots(MONDAY, Intervals.EMPTY));
+		// a booking at 09:45, one reaching a minute into the 13:45 slot, one spanning 15:00-16:00
+		int[] busy = Intervals.normalize(new int[] { 585, 630, 869, 880, 900, 960 });
+		assertEquals(List.of(540, 630, 675, 780, 960), schedule.freeSlots(MONDAY, busy));
+		assertEquals(List.of(), schedule.freeSlots(MONDAY, new int[] { 0, 1440 }));
+	}
+
+	@Test
+	void legacyWindowsAndDefaultHours() {
+		CompiledSchedule windows = CompiledSchedule.legacy(List.of("09:00-10:00", "14:00", "bogus"), 30);
+		assertEquals(List.of(540, 570, 840), windows.freeSlots(MONDAY, Intervals.EMPTY));
+		assertEquals(windows.freeSlots(MONDAY, Intervals.EMPTY),
+				windows.freeSlots(MONDAY.plusDays(5), Intervals.EMPTY));
+
+		CompiledSchedule fallback = CompiledSchedule.legacy(List.of(), 60);
+		assertArrayEquals(new int[] { 540, 1020 }, fallback.windows(MONDAY));
+		assertEquals(8, fallback.freeSlots(MONDAY, Intervals.EMPTY).size());
+	}
+
+	private static DoctorSchedule schedule(int slotMinutes) {
+		DoctorSchedule schedule = new DoctorSchedule();
+		schedule.setSlotMinutes(slotMinutes);
+		schedule.setWorkingHours(List.of(
+				new WorkingHours(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(17, 0)),
+				new WorkingHours(DayOfWeek.TUESDAY, LocalTime.of(9, 0), LocalTime.of(14, 0))));
+		schedule.setBreaks(List.of(
+				new WorkingHours(null, LocalTime.of(12, 0), LocalTime.of(13, 0)),
+				new WorkingHours(DayOfWeek.TUESDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))));
+		return schedule;
+	}
+
+	private static ScheduleException exception(LocalDate date, LocalTime start, LocalTime end, boolean available) {
+		ScheduleException exception = new ScheduleException();
+		exception.setDate(date);
+		exception.setStartTime(start);
+		exception.setEndTime(end);
+		exception.setAvailable(available);
+		return exception;
+	}
+}
@@ -0,0 +1,106 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CredentialServiceTests {
+
+	private CredentialService credentials = new CredentialService(4, 1, 4, 5000);
+
+	@AfterEach
+	void tearDown() {
+		credentials.shutdown();
+	}
+
+	@Test
+	void hashesVerify() {
+		String hash = credentials.hash("secret12");
+
+		assertTrue(credentials.isHashed(hash));
+		assertNotEquals("secret12", hash);
+		assertTrue(credentials.verify("secret12", hash));
+		assertFalse(credentials.verify("secret13", hash));
+		assertFalse(credentials.verify(null, hash));
+	}
+
+	@Test
+	void legacyPlaintextIsAcceptedAndFlaggedForUpgrade() {
+		assertTrue(credentials.verify("secret12", "secret12"));
+		assertFalse(credentials.verify("secret12", "secret13"));
+		assertTrue(credentials.needsUpgrade("secret12"));
+		assertFalse(credentials.needsUpgrade(credentials.hash("secret12")));
+	}
+
+	@Test
+	void otherCostNeedsUpgrade() {
+		CredentialService stronger = new CredentialService(5, 1, 4, 5000);
+		try {
+			String hash = stronger.hash("secret12");
+			assertTrue(credentials.verify("secret12", hash));
+			assertTrue(credentials.needsUpgrade(hash));
+		} finally {
+			stronger.shutdown();
+		}
+	}
+
+	@Test
+	void hashedValuesAreNotHashedTwice() {
+		String hash = credentials.hash("secret12");
+
+		assertSame(hash, credentials.hashIfNeeded(hash));
+		assertTrue(credentials.verify("secret12", credentials.hashIfNeeded("secret12")));
+	}
+
+	@Test
+	void saturatedPoolRejects() throws Exception {
+		credentials.shutdown();
+		credentials = new CredentialService(14, 1, 1, 30_000);
+		// one slow hash holds the only worker, a second fills the queue
+		background(() -> credentials.hash("secret12"));
+		awaitStat("active", 1);
+		background(() -> credentials.hash("secret12"));
+		awaitStat("queued", 1);
+
+		assertThrows(RejectedExecutionException.class, () -> credentials.hash("secret12"));
+		assertEquals(1L, credentials.stats().get("rejected"));
+	}
+
+	@Test
+	void slowHashTimesOut() {
+		credentials.shutdown();
+		credentials = new CredentialService(14, 1, 4, 1);
+
+		assertThrows(RejectedExecutionException.class, () -> credentials.hash("secret12"));
+		assertEquals(1L, credentials.stats().get("rejected"));
+	}
+
+	private static void background(Runnable task) {
+		Thread thread = new Thread(() -> {
+			try {
+				task.run();
+			} catch (RuntimeException ignored) {
+				// the pool is shut down under it
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void awaitStat(String name, int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (((Number) credentials.stats().get(name)).intValue() != expected) {
+			assertTrue(System.nanoTime() < deadline, name + " never reached " + expected);
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package com.project.back_end.services;
+
+import com.project.back_end.JpaSliceTest;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.ArchivedAppointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorPurgeJob;
+import com.project.back_end.models.OutboxEvent;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorPurgeJobRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.EtagGenerationRepository;
+import com.project.back_end.repo.OutboxEventRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.PrescriptionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@JpaSliceTest
+class DoctorPurgeServiceTests {
+
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private PatientRepository patientRepository;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private ArchivedAppointmentRepository archivedAppointmentRepository;
+	@Autowired
+	private DoctorPurgeJobRepository jobRepository;
+	@Autowired
+	private OutboxService outboxService;
+	@Autowired
+	private OutboxEventRepository outboxRepository;
+	@Autowired
+	private EtagGenerationRepository generationRepository;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final PrescriptionRepository prescriptionRepository = mock(PrescriptionRepository.class);
+	private DoctorPurgeService purgeService;
+	private Doctor doctor;
+
+	@BeforeEach
+	void setUp() {
+		purgeService = new DoctorPurgeService(doctorRepository, appointmentRepository,
+				archivedAppointmentRepository, prescriptionRepository, jobRepository, outboxService,
+				transactionManager);
+		ReflectionTestUtils.setField(purgeService, "batchSize", 2);
+		ReflectionTestUtils.setField(purgeService, "pauseMs", 0L);
+		doctor = doctorRepository.save(doctor("doc@example.com"));
+		Patient patient = patientRepository.save(EtagServiceTests.patient());
+		for (int i = 0; i < 5; i++) {
+			appointmentRepository.save(appointment(doctor, patient, LocalDateTime.now().plusDays(i + 1)));
+		}
+		// archived rows keep the ids of appointments that no longer exist
+		for (long id = 1_000; id < 1_003; id++) {
+			Appointment past = appointment(doctor, patient, LocalDateTime.now().minusDays(id - 990));
+			past.setId(id);
+			archivedAppointmentRepository.save(new ArchivedAppointment(past));
+		}
+		doctorRepository.markDeleted(doctor.getId());
+	}
+
+	@AfterEach
+	void tearDown() {
+		purgeService.shutdown();
+		appointmentRepository.deleteAll();
+		archivedAppointmentRepository.deleteAll();
+		jobRepository.deleteAll();
+		doctorRepository.deleteAll();
+		patientRepository.deleteAll();
+		outboxRepository.deleteAll();
+		generationRepository.deleteAll();
+	}
+
+	@Test
+	void failedPurgeResumesWhereItStopped() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		when(prescriptionRepository.deleteByAppointmentIdIn(anyList())).thenAnswer(invocation -> {
+			if (calls.incrementAndGet() == 2)
+				throw new IllegalStateException("mongo down");
+			return (long) ((List<?>) invocation.getArgument(0)).size();
+		});
+
+		purgeService.schedule(doctor.getId());
+		DoctorPurgeJob failed = await(DoctorPurgeJob.FAILED);
+
+		assertEquals("mongo down", failed.getLastError());
+		assertEquals(2, failed.getAppointmentsDeleted());
+		assertEquals(3, appointmentRepository.count());
+		assertEquals(1, purgeService.resume(doctor.getId()));
+
+		DoctorPurgeJob done = await(DoctorPurgeJob.DONE);
+		assertEquals(8, done.getAppointmentsDeleted());
+		assertEquals(8, done.getPrescriptionsDeleted());
+		assertEquals(0, appointmentRepository.count());
+		assertEquals(0, archivedAppointmentRepository.count());
+		assertFalse(doctorRepository.existsById(doctor.getId()));
+		// one outbox DELETED row per purged hot appointment
+		assertEquals(5, outboxRepository.findAll().stream()
+				.filter(e -> EntityChangeEvent.APPOINTMENT.equals(e.getEntityType()))
+				.filter(e -> OutboxEvent.DELETED.equals(e.getAction())).count());
+	}
+
+	@Test
+	void onlyFailedJobsResume() throws Exception {
+		when(prescriptionRepository.deleteByAppointmentIdIn(anyList())).thenReturn(0L);
+
+		assertEquals(-1, purgeService.resume(doctor.getId()));
+		purgeService.schedule(doctor.getId());
+		await(DoctorPurgeJob.DONE);
+		assertEquals(0, purgeService.resume(doctor.getId()));
+	}
+
+	@Test
+	void interruptedJobsArePickedUpOnStart() throws Exception {
+		when(prescriptionRepository.deleteByAppointmentIdIn(anyList())).thenReturn(0L);
+		DoctorPurgeJob job = new DoctorPurgeJob(doctor.getId());
+		job.setStatus(DoctorPurgeJob.RUNNING);
+		job.setAppointmentsDeleted(2);
+		jobRepository.save(job);
+
+		purgeService.resumeInterrupted();
+
+		DoctorPurgeJob done = await(DoctorPurgeJob.DONE);
+		assertEquals(10, done.getAppointmentsDeleted());
+		assertEquals(0, appointmentRepository.count());
+	}
+
+	private DoctorPurgeJob await(String status) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (true) {
+			DoctorPurgeJob job = purgeService.getJob(doctor.getId());
+			if (job != null && status.equals(job.getStatus()))
+				return job;
+			assertTrue(System.nanoTime() < deadline, "job never reached " + status);
+			Thread.sleep(10);
+		}
+	}
+
+	static Doctor doctor(String email) {
+		Doctor doctor = new Doctor();
+		doctor.setName("Dr Jones");
+		doctor.setSpecialty("Cardiology");
+		doctor.setEmail(email);
+		doctor.setPassword("secret12");
+		doctor.setPhone("5559876543");
+		return doctor;
+	}
+
+	static Appointment appointment(Doctor doctor, Patient patient, LocalDateTime time) {
+		Appointment appointment = new Appointment();
+		appointment.setDoctor(doctor);
+		appointment.setPatient(patient);
+		appointment.setAppointmentTime(time);
+		appointment.setStatus(0);
+		return appointment;
+	}
+}
@@ -0,0 +1,193 @@
+package com.project.back_end.services;
+
+import com.project.back_end.JpaSliceTest;
+import com.project.back_end.controllers.PrescriptionController;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.EtagGenerationRepository;
+import com.project.back_end.repo.OutboxEventRepository;
+import com.project.back_end.repo.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@JpaSliceTest
+class EtagServiceTests {
+
+	@Autowired
+	private EtagService etagService;
+	@Autowired
+	private PatientRepository patientRepository;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private EtagGenerationRepository generationRepository;
+	@Autowired
+	private OutboxEventRepository outboxRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private EntityManager entityManager;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@AfterEach
+	void tearDown() {
+		appointmentRepository.deleteAll();
+		doctorRepository.deleteAll();
+		patientRepository.deleteAll();
+		outboxRepository.deleteAll();
+		generationRepository.deleteAll();
+	}
+
+	@Test
+	void committedChangeGivesANewTag() {
+		Patient patient = patientRepository.save(patient());
+		String patients = etagService.etag(EntityChangeEvent.PATIENT);
+		String doctors = etagService.etag(EntityChangeEvent.DOCTOR);
+
+		patient.setAddress("2 Main St");
+		new TransactionTemplate(transactionManager).executeWithoutResult(s -> patientRepository.save(patient));
+
+		assertNotEquals(patients, etagService.etag(EntityChangeEvent.PATIENT));
+		assertEquals(doctors, etagService.etag(EntityChangeEvent.DOCTOR));
+	}
+
+	@Test
+	void bookingsOnlyChangeTheirOwnersTags() {
+		Doctor jones = doctorRepository.save(DoctorPurgeServiceTests.doctor("jones@example.com"));
+		Doctor smith = doctorRepository.save(DoctorPurgeServiceTests.doctor("smith@example.com"));
+		Patient patient = patientRepository.save(patient());
+		String global = etagService.etag(EntityChangeEvent.APPOINTMENT, EntityChangeEvent.DOCTOR,
+				EntityChangeEvent.PATIENT);
+		String ofJones = etagService.etag(byDoctor(jones));
+		String ofSmith = etagService.etag(byDoctor(smith));
+		String ofPatient = etagService.etag(byPatient(patient));
+
+		Appointment booked = appointmentRepository.save(DoctorPurgeServiceTests.appointment(jones, patient,
+				LocalDateTime.now().plusDays(1)));
+
+		assertNotEquals(ofJones, etagService.etag(byDoctor(jones)));
+		assertNotEquals(ofPatient, etagService.etag(byPatient(patient)));
+		assertEquals(ofSmith, etagService.etag(byDoctor(smith)));
+		// no type-wide counter is written by a booking
+		assertEquals(global, etagService.etag(EntityChangeEvent.APPOINTMENT, EntityChangeEvent.DOCTOR,
+				EntityChangeEvent.PATIENT));
+
+		// moved to another doctor: both lists change
+		ofJones = etagService.etag(byDoctor(jones));
+		ofSmith = etagService.etag(byDoctor(smith));
+		booked.setDoctor(smith);
+		appointmentRepository.save(booked);
+		assertNotEquals(ofJones, etagService.etag(byDoctor(jones)));
+		assertNotEquals(ofSmith, etagService.etag(byDoctor(smith)));
+	}
+
+	@Test
+	void rolledBackChangeKeepsTheTag() {
+		String patients = etagService.etag(EntityChangeEvent.PATIENT);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+			patientRepository.saveAndFlush(patient());
+			s.setRollbackOnly();
+		});
+
+		assertEquals(patients, etagService.etag(EntityChangeEvent.PATIENT));
+	}
+
+	@Test
+	void nodesAgreeOnTheTag() {
+		etagService.bump(EntityChangeEvent.APPOINTMENT, EntityChangeEvent.DOCTOR);
+		// a second node: same database, its own instance
+		EtagService otherNode = new EtagService(entityManagerFactory, entityManager, generationRepository);
+
+		assertEquals(etagService.etag(EntityChangeEvent.APPOINTMENT, EntityChangeEvent.DOCTOR),
+				otherNode.etag(EntityChangeEvent.APPOINTMENT, EntityChangeEvent.DOCTOR));
+	}
+
+	@Test
+	void matchingTagIsAnswered304UntilTheDataChanges() throws Exception {
+		CentralService central = mock(CentralService.class);
+		when(central.validateToken(anyString(), anyString())).thenReturn(ResponseEntity.ok(Map.of()));
+		PrescriptionService prescriptions = mock(PrescriptionService.class);
+		when(prescriptions.getPrescription(any())).thenReturn(ResponseEntity.ok(Map.of("prescriptions", "[]")));
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new PrescriptionController(prescriptions, null, central,
+				etagService, null, null, null))
+				.addPlaceholderValue("api.path", "/")
+				.build();
+
+		MvcResult first = mvc.perform(get("/prescription/7/token")).andExpect(status().isOk()).andReturn();
+		String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+		mvc.perform(get("/prescription/7/token").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		verify(prescriptions, times(1)).getPrescription(7L);
+
+		// another appointment's prescription leaves the tag alone
+		etagService.bump(EtagService.scope(EntityChangeEvent.PRESCRIPTION, EtagService.BY_APPOINTMENT, 8L));
+		mvc.perform(get("/prescription/7/token").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		etagService.bump(EtagService.scope(EntityChangeEvent.PRESCRIPTION, EtagService.BY_APPOINTMENT, 7L));
+
+		MvcResult changed = mvc.perform(get("/prescription/7/token").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk()).andReturn();
+		assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+		verify(prescriptions, times(2)).getPrescription(7L);
+		verify(prescriptions, never()).savePrescription(any());
+	}
+
+	@Test
+	void singleEntityTagsFollowTheVersion() {
+		assertEquals(etagService.versionTag(EntityChangeEvent.PATIENT, 5L, 2L),
+				etagService.versionTag(EntityChangeEvent.PATIENT, 5L, 2L));
+		assertNotEquals(etagService.versionTag(EntityChangeEvent.PATIENT, 5L, 2L),
+				etagService.versionTag(EntityChangeEvent.PATIENT, 5L, 3L));
+	}
+
+	private static String byDoctor(Doctor doctor) {
+		return EtagService.scope(EntityChangeEvent.APPOINTMENT, EtagService.BY_DOCTOR, doctor.getId());
+	}
+
+	private static String byPatient(Patient patient) {
+		return EtagService.scope(EntityChangeEvent.APPOINTMENT, EtagService.BY_PATIENT, patient.getId());
+	}
+
+	static Patient patient() {
+		Patient patient = new Patient();
+		patient.setName("Pat Smith");
+		patient.setEmail("pat@example.com");
+		patient.setPassword("secret12");
+		patient.setPhone("5551234567");
+		patient.setAddress("1 Main St");
+		return patient;
+	}
+}
@@ -0,0 +1,79 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IntervalsTests {
+
+	@Test
+	void normalizeSortsMergesAndDropsEmptyPairs() {
+		assertArrayEquals(new int[] { 60, 180, 200, 240 },
+				Intervals.normalize(new int[] { 200, 240, 120, 180, 60, 120, 90, 100, 300, 300, 400, 350 }));
+		assertArrayEquals(new int[] { 0, 1440 }, Intervals.normalize(new int[] { 0, 720, 600, 1440 }));
+		assertArrayEquals(Intervals.EMPTY, Intervals.normalize(new int[] { 10, 10 }));
+	}
+
+	@Test
+	void subtractCutsHolesAndTrimsEdges() {
+		int[] day = { 540, 720, 780, 1020 };
+		// a hole inside the morning, an overlap across the lunch gap, one past the end
+		assertArrayEquals(new int[] { 540, 600, 630, 700, 800, 1000 },
+				Intervals.subtract(day, new int[] { 600, 630, 700, 800, 1000, 1100 }));
+		// one busy interval spanning both windows
+		assertArrayEquals(new int[] { 540, 560, 1000, 1020 },
+				Intervals.subtract(day, new int[] { 560, 1000 }));
+		assertArrayEquals(Intervals.EMPTY, Intervals.subtract(day, new int[] { 0, 1440 }));
+		// busy intervals touching a window's edges leave it whole
+		assertArrayEquals(day, Intervals.subtract(day, new int[] { 500, 540, 720, 780, 1020, 1100 }));
+		assertSame(day, Intervals.subtract(day, Intervals.EMPTY));
+	}
+
+	@Test
+	void operationsMatchAMinuteByMinuteReference() {
+		Random random = new Random(42);
+		for (int round = 0; round < 500; round++) {
+			int[] a = randomPairs(random);
+			int[] b = randomPairs(random);
+			boolean[] inA = minutes(a);
+			boolean[] inB = minutes(b);
+
+			int[] normalized = Intervals.normalize(a);
+			assertArrayEquals(inA, minutes(normalized));
+			assertArrayEquals(normalized, Intervals.normalize(normalized));
+
+			boolean[] difference = new boolean[inA.length];
+			boolean[] union = new boolean[inA.length];
+			for (int m = 0; m < inA.length; m++) {
+				difference[m] = inA[m] && !inB[m];
+				union[m] = inA[m] || inB[m];
+			}
+			int[] subtracted = Intervals.subtract(normalized, Intervals.normalize(b));
+			assertArrayEquals(difference, minutes(subtracted));
+			assertArrayEquals(subtracted, Intervals.normalize(subtracted));
+			assertArrayEquals(union, minutes(Intervals.union(normalized, Intervals.normalize(b))));
+		}
+	}
+
+	private static int[] randomPairs(Random random) {
+		int[] pairs = new int[2 * random.nextInt(6)];
+		for (int i = 0; i < pairs.length; i += 2) {
+			pairs[i] = random.nextInt(200);
+			pairs[i + 1] = pairs[i] + random.nextInt(40) - 5;
+		}
+		return pairs;
+	}
+
+	private static boolean[] minutes(int[] pairs) {
+		boolean[] covered = new boolean[300];
+		for (int i = 0; i < pairs.length; i += 2) {
+			for (int m = pairs[i]; m < pairs[i + 1]; m++) {
+				covered[m] = true;
+			}
+		}
+		return covered;
+	}
+}
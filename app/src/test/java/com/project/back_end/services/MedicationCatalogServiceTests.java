@@ -0,0 +1,68 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Prescription;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MedicationCatalogServiceTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+	@Test
+	void splitsCommaSeparatedMedications() {
+		assertEquals(List.of("Amoxicillin", "Ibuprofen"), MedicationCatalogService.split(" Amoxicillin, Ibuprofen ,"));
+		assertEquals(List.of("Ibuprofen"), MedicationCatalogService.split("Ibuprofen"));
+		assertEquals(List.of(), MedicationCatalogService.split(null));
+	}
+
+	@Test
+	void everyListedMedicationCountsOnSave() {
+		MedicationCatalogService catalog = catalog(3);
+
+		catalog.recordUse("Ibuprofen, Amoxicillin");
+		catalog.recordUse("Amoxicillin");
+
+		assertEquals(List.of("Amoxicillin", "Acetaminophen"), catalog.complete("a"));
+		assertEquals(List.of("Ibuprofen"), catalog.complete("ibu"));
+	}
+
+	@Test
+	void combinedPrescriptionsCountForEachMedicationAtStartup() {
+		MedicationCatalogService catalog = catalog(3);
+		when(mongoTemplate.aggregate(any(Aggregation.class), eq(Prescription.class), eq(Document.class)))
+				.thenReturn(new AggregationResults<>(List.of(
+						new Document("_id", "ibuprofen, amoxicillin").append("name", "Ibuprofen, Amoxicillin")
+								.append("uses", 2),
+						new Document("_id", "acetaminophen").append("name", "Acetaminophen").append("uses", 1),
+						// free-form names join the catalog once used often enough
+						new Document("_id", "naproxen, cetirizine").append("name", "Naproxen, Cetirizine")
+								.append("uses", 3)),
+						new Document()));
+
+		catalog.loadUsage();
+
+		assertEquals(List.of("Amoxicillin", "Acetaminophen"), catalog.complete("a"));
+		assertEquals(List.of("Naproxen"), catalog.complete("n"));
+		assertEquals(List.of("Cetirizine"), catalog.complete("c"));
+		assertEquals(List.of(), catalog.complete("ibuprofen, "));
+	}
+
+	private MedicationCatalogService catalog(int learnAfter) {
+		ByteArrayResource names = new ByteArrayResource(
+				"# test catalog\nAcetaminophen\nAmoxicillin\nIbuprofen\n".getBytes(StandardCharsets.UTF_8));
+		return new MedicationCatalogService(mongoTemplate, names, 10, learnAfter);
+	}
+}
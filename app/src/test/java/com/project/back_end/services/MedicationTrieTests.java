@@ -0,0 +1,121 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MedicationTrieTests {
+
+	@Test
+	void completesByScoreThenName() {
+		MedicationTrie trie = new MedicationTrie(Map.of(
+				"Amoxicillin", 5L, "Amlodipine", 9L, "Atorvastatin", 2L, "Ibuprofen", 7L), 10);
+
+		assertEquals(List.of("Amlodipine", "Ibuprofen", "Amoxicillin", "Atorvastatin"), trie.complete(""));
+		assertEquals(List.of("Amlodipine", "Amoxicillin"), trie.complete("aM"));
+		assertEquals(List.of("Amoxicillin"), trie.complete("AMOX"));
+		assertEquals(List.of(), trie.complete("amx"));
+		assertEquals(List.of(), trie.complete("amoxicillins"));
+	}
+
+	@Test
+	void edgeLabelsSplitWhereNamesDiverge() {
+		// "metformin" and "metoprolol" share "met", "methotrexate" splits it again at "meth"
+		MedicationTrie trie = new MedicationTrie(Map.of(
+				"Metformin", 1L, "Metoprolol", 3L, "Methotrexate", 2L, "Met", 0L), 10);
+
+		assertEquals(List.of("Metoprolol", "Methotrexate", "Metformin", "Met"), trie.complete("me"));
+		// a prefix ending inside an edge label lands on the node below it
+		assertEquals(trie.complete("met"), trie.complete("m"));
+		assertEquals(List.of("Metoprolol"), trie.complete("meto"));
+		assertEquals(List.of("Metoprolol"), trie.complete("metopr"));
+		assertEquals(List.of("Methotrexate"), trie.complete("metho"));
+		assertEquals(List.of(), trie.complete("metx"));
+		assertTrue(trie.contains(" met "));
+		assertFalse(trie.contains("me"));
+	}
+
+	@Test
+	void namesEqualIgnoringCaseAreMerged() {
+		MedicationTrie trie = new MedicationTrie(Map.of("Ibuprofen", 2L, "ibuprofen ", 3L), 10);
+
+		assertEquals(1, trie.size());
+		assertEquals(List.of(5L), List.copyOf(trie.scores().values()));
+		assertEquals(1, trie.complete("IBU").size());
+	}
+
+	@Test
+	void addScoreReranksOnlyWhenTheOrderChanges() {
+		MedicationTrie trie = new MedicationTrie(Map.of(
+				"Amoxicillin", 5L, "Amlodipine", 9L, "Atorvastatin", 2L), 2);
+		List<String> before = trie.complete("a");
+		assertEquals(List.of("Amlodipine", "Amoxicillin"), before);
+
+		assertTrue(trie.addScore("atorvastatin", 4));
+		// 6 now beats Amoxicillin's 5 and enters the top 2 of every node on its path
+		assertEquals(List.of("Amlodipine", "Atorvastatin"), trie.complete("a"));
+		assertEquals(List.of("Amlodipine", "Amoxicillin"), trie.complete("am"));
+
+		List<String> am = trie.complete("am");
+		List<String> untouched = trie.complete("ato");
+		assertTrue(trie.addScore("Amoxicillin", 10));
+		assertEquals(List.of("Amoxicillin", "Amlodipine"), trie.complete("am"));
+		assertEquals(List.of("Amoxicillin", "Amlodipine"), trie.complete("a"));
+		// lists off the name's path are kept, and handed-out lists never change
+		assertSame(untouched, trie.complete("ato"));
+		assertEquals(List.of("Amlodipine", "Amoxicillin"), am);
+
+		assertFalse(trie.addScore("Aspirin", 1));
+		assertEquals(15L, trie.scores().get("Amoxicillin"));
+	}
+
+	@Test
+	void matchesABruteForceRankingAfterRandomUpdates() {
+		Random random = new Random(7);
+		Map<String, Long> scores = new HashMap<>();
+		for (int i = 0; i < 300; i++) {
+			scores.put(randomName(random), (long) random.nextInt(20));
+		}
+		MedicationTrie trie = new MedicationTrie(scores, 5);
+		List<String> names = new ArrayList<>(trie.scores().keySet());
+		Map<String, Long> current = new HashMap<>(trie.scores());
+		for (int round = 0; round < 2_000; round++) {
+			String name = names.get(random.nextInt(names.size()));
+			long delta = random.nextInt(5);
+			trie.addScore(name, delta);
+			current.merge(name, delta, Long::sum);
+			String prefix = name.substring(0, random.nextInt(name.length() + 1));
+			assertEquals(bruteForce(current, prefix, 5), trie.complete(prefix), prefix);
+		}
+	}
+
+	private static List<String> bruteForce(Map<String, Long> scores, String prefix, int k) {
+		String key = prefix.toLowerCase();
+		return scores.entrySet().stream()
+				.filter(e -> e.getKey().toLowerCase().startsWith(key))
+				.sorted(Comparator.<Map.Entry<String, Long>>comparingLong(Map.Entry::getValue).reversed()
+						.thenComparing(e -> e.getKey().toLowerCase()))
+				.limit(k)
+				.map(Map.Entry::getKey)
+				.toList();
+	}
+
+	private static String randomName(Random random) {
+		StringBuilder name = new StringBuilder();
+		int length = 2 + random.nextInt(6);
+		for (int i = 0; i < length; i++) {
+			name.append((char) ('a' + random.nextInt(4)));
+		}
+		return name.toString();
+	}
+}
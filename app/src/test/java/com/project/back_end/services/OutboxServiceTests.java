@@ -0,0 +1,133 @@
+package com.project.back_end.services;
+
+import com.project.back_end.JpaSliceTest;
+import com.project.back_end.models.OutboxEvent;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.EtagGenerationRepository;
+import com.project.back_end.repo.OutboxEventRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@JpaSliceTest
+class OutboxServiceTests {
+
+	@Autowired
+	private OutboxService outboxService;
+	@Autowired
+	private OutboxEventRepository outboxRepository;
+	@Autowired
+	private PatientRepository patientRepository;
+	@Autowired
+	private EtagGenerationRepository generationRepository;
+
+	private final List<OutboxEvent> received = new CopyOnWriteArrayList<>();
+	// patients whose events the listener rejects
+	private final Set<Long> failing = ConcurrentHashMap.newKeySet();
+	private Object contextListeners;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		outboxRepository.deleteAll();
+		ObjectProvider<OutboxListener> listeners = mock(ObjectProvider.class);
+		when(listeners.orderedStream()).thenAnswer(call -> Stream.of((OutboxListener) event -> {
+			if (failing.contains(event.getEntityId()))
+				throw new IllegalStateException("listener down");
+			received.add(event);
+		}));
+		contextListeners = ReflectionTestUtils.getField(outboxService, "listeners");
+		ReflectionTestUtils.setField(outboxService, "listeners", listeners);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReflectionTestUtils.setField(outboxService, "listeners", contextListeners);
+		patientRepository.deleteAll();
+		outboxRepository.deleteAll();
+		generationRepository.deleteAll();
+	}
+
+	@Test
+	void savedEntityIsRelayedOnceAndRemoved() {
+		Patient patient = patientRepository.save(EtagServiceTests.patient());
+
+		List<OutboxEvent> rows = outboxRepository.findAll();
+		assertEquals(1, rows.size());
+		assertEquals(EntityChangeEvent.PATIENT, rows.get(0).getEntityType());
+		assertEquals(patient.getId(), rows.get(0).getEntityId());
+		assertEquals(OutboxEvent.CREATED, rows.get(0).getAction());
+
+		assertEquals(1, outboxService.relay());
+		assertEquals(1, received.size());
+		assertEquals(patient.getId(), received.get(0).getEntityId());
+		assertTrue(outboxRepository.findAll().isEmpty());
+		assertEquals(0, outboxService.relay());
+	}
+
+	@Test
+	void failingEntityHoldsBackOnlyItsOwnEvents() {
+		Patient stuck = patientRepository.save(patient("stuck@example.com", "5551110000"));
+		Patient fine = patientRepository.save(patient("fine@example.com", "5552220000"));
+		stuck.setAddress("1 New Street");
+		patientRepository.save(stuck);
+		failing.add(stuck.getId());
+
+		assertEquals(1, outboxService.relay());
+		assertEquals(List.of(fine.getId()), received.stream().map(OutboxEvent::getEntityId).toList());
+		List<OutboxEvent> pending = outboxRepository.findAll();
+		assertEquals(2, pending.size());
+		OutboxEvent failed = pending.get(0);
+		assertEquals(OutboxEvent.CREATED, failed.getAction());
+		assertEquals(1, failed.getAttempts());
+		assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now()));
+
+		// not due yet: neither the failed event nor the update behind it goes out
+		failing.clear();
+		Patient later = patientRepository.save(patient("later@example.com", "5553330000"));
+		assertEquals(1, outboxService.relay());
+		assertEquals(later.getId(), received.get(1).getEntityId());
+
+		failed.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+		outboxRepository.save(failed);
+		assertEquals(2, outboxService.relay());
+		assertEquals(List.of(OutboxEvent.CREATED, OutboxEvent.UPDATED), received.subList(2, 4).stream()
+				.map(OutboxEvent::getAction).toList());
+		assertTrue(received.subList(2, 4).stream().allMatch(event -> event.getEntityId().equals(stuck.getId())));
+		assertTrue(outboxRepository.findAll().isEmpty());
+	}
+
+	@Test
+	void retriesBackOffUpToTheLimit() {
+		ReflectionTestUtils.setField(outboxService, "relayMs", 1000L);
+		ReflectionTestUtils.setField(outboxService, "retryMaxMs", 5000L);
+
+		assertEquals(1000L, (long) ReflectionTestUtils.invokeMethod(outboxService, "retryDelay", 1));
+		assertEquals(4000L, (long) ReflectionTestUtils.invokeMethod(outboxService, "retryDelay", 3));
+		assertEquals(5000L, (long) ReflectionTestUtils.invokeMethod(outboxService, "retryDelay", 4));
+		assertEquals(5000L, (long) ReflectionTestUtils.invokeMethod(outboxService, "retryDelay", 90));
+	}
+
+	private static Patient patient(String email, String phone) {
+		Patient patient = EtagServiceTests.patient();
+		patient.setEmail(email);
+		patient.setPhone(phone);
+		return patient;
+	}
+}
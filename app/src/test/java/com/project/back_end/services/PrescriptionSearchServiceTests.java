@@ -0,0 +1,76 @@
+package com.project.back_end.services;
+
+import com.mongodb.client.result.UpdateResult;
+import com.project.back_end.models.Prescription;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrescriptionSearchServiceTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final PrescriptionSearchService searchService = new PrescriptionSearchService(mongoTemplate);
+
+	@Test
+	void completionReadsDistinctNamesOnTheKeyRange() {
+		when(mongoTemplate.findDistinct(any(Query.class), eq("medication"), eq(Prescription.class), eq(String.class)))
+				.thenReturn(List.of("Amoxicillin 500mg", "amoxicillin 500mg ", "Amlodipine 5mg", "Amiodarone"));
+
+		List<String> names = searchService.completeMedication(" AM(", 2);
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).findDistinct(query.capture(), eq("medication"), eq(Prescription.class),
+				eq(String.class));
+		// lower-cased, anchored and escaped, so it stays a range of the key index
+		assertEquals("^am\\(", query.getValue().getQueryObject().get("medicationKey").toString());
+		// one spelling per name, alphabetical, limited
+		assertEquals(List.of("Amiodarone", "Amlodipine 5mg"), names);
+		assertEquals(List.of("Amiodarone", "Amlodipine 5mg", "Amoxicillin 500mg"),
+				searchService.completeMedication("am", 10));
+	}
+
+	@Test
+	void blankPrefixesAreNotQueried() {
+		assertTrue(searchService.completeMedication("  ", 10).isEmpty());
+		verify(mongoTemplate, never()).findDistinct(any(Query.class), any(String.class), any(Class.class),
+				any(Class.class));
+	}
+
+	@Test
+	void startupCreatesIndexesAndBackfillsKeysInOneUpdate() {
+		IndexOperations indexOps = mock(IndexOperations.class);
+		when(mongoTemplate.indexOps(Prescription.class)).thenReturn(indexOps);
+		IndexInfo replaced = mock(IndexInfo.class);
+		when(replaced.getName()).thenReturn("prescription_medication_prefix");
+		when(indexOps.getIndexInfo()).thenReturn(List.of(replaced));
+		when(mongoTemplate.updateMulti(any(Query.class), any(AggregationUpdate.class), eq(Prescription.class)))
+				.thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+		searchService.ensureIndexes();
+
+		verify(indexOps, times(2)).createIndex(any(IndexDefinition.class));
+		verify(indexOps).dropIndex("prescription_medication_prefix");
+		ArgumentCaptor<AggregationUpdate> update = ArgumentCaptor.forClass(AggregationUpdate.class);
+		verify(mongoTemplate).updateMulti(any(Query.class), update.capture(), eq(Prescription.class));
+		assertEquals("{\"$set\": {\"medicationKey\": {\"$toLower\": [{\"$trim\": {\"input\": \"$medication\"}}]}}}",
+				update.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).toJson());
+	}
+}
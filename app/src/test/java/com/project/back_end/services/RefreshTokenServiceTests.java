@@ -0,0 +1,161 @@
+package com.project.back_end.services;
+
+import com.project.back_end.JpaSliceTest;
+import com.project.back_end.config.TenantContext;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.EtagGenerationRepository;
+import com.project.back_end.repo.OutboxEventRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.RevokedTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@JpaSliceTest
+class RefreshTokenServiceTests {
+
+	@Autowired
+	private RevokedTokenRepository revokedTokenRepository;
+	@Autowired
+	private AdminRepository adminRepository;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private PatientRepository patientRepository;
+	@Autowired
+	private OutboxEventRepository outboxRepository;
+	@Autowired
+	private EtagGenerationRepository generationRepository;
+
+	private final TokenService tokens = TokenServiceTests.tokenService("HS256", "", "");
+	private Patient patient;
+
+	@BeforeEach
+	void setUp() {
+		patient = patientRepository.save(EtagServiceTests.patient());
+	}
+
+	@AfterEach
+	void tearDown() {
+		TenantContext.clear();
+		revokedTokenRepository.deleteAll();
+		patientRepository.deleteAll();
+		doctorRepository.deleteAll();
+		outboxRepository.deleteAll();
+		generationRepository.deleteAll();
+	}
+
+	@Test
+	void refreshRotatesTheToken() {
+		RefreshTokenService service = node(new LocalInvalidationBus());
+		String first = service.issue(patient.getEmail(), patient.getId(), "PATIENT").get("refreshToken");
+
+		ResponseEntity<Map<String, String>> refreshed = service.refresh(first);
+
+		assertEquals(HttpStatus.OK, refreshed.getStatusCode());
+		String second = refreshed.getBody().get("refreshToken");
+		assertNotEquals(first, second);
+		assertTrue(tokens.validateToken(refreshed.getBody().get("token"), "patient"));
+		// the old token is spent, the new one works once
+		assertEquals(HttpStatus.UNAUTHORIZED, service.refresh(first).getStatusCode());
+		assertEquals(HttpStatus.OK, service.refresh(second).getStatusCode());
+		assertEquals(HttpStatus.UNAUTHORIZED, service.refresh(second).getStatusCode());
+	}
+
+	@Test
+	void otherNodesSeeTheRevocation() {
+		LocalInvalidationBus bus = new LocalInvalidationBus();
+		RefreshTokenService a = node(bus);
+		RefreshTokenService b = node(bus);
+		String token = a.issue(patient.getEmail(), patient.getId(), "PATIENT").get("refreshToken");
+
+		assertEquals(HttpStatus.OK, a.refresh(token).getStatusCode());
+		assertEquals(HttpStatus.UNAUTHORIZED, b.refresh(token).getStatusCode());
+	}
+
+	@Test
+	void concurrentRefreshesHaveOneWinner() throws Exception {
+		// separate buses: neither node learns of the other's revocation early,
+		// so only the insert decides
+		List<RefreshTokenService> nodes = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			nodes.add(node(new LocalInvalidationBus()));
+		}
+		String token = nodes.get(0).issue(patient.getEmail(), patient.getId(), "PATIENT").get("refreshToken");
+		CyclicBarrier start = new CyclicBarrier(nodes.size());
+		List<CompletableFuture<HttpStatus>> results = new ArrayList<>();
+		for (RefreshTokenService node : nodes) {
+			results.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					start.await(5, TimeUnit.SECONDS);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+				return (HttpStatus) node.refresh(token).getStatusCode();
+			}));
+		}
+
+		long winners = 0;
+		for (CompletableFuture<HttpStatus> result : results) {
+			if (result.get(10, TimeUnit.SECONDS) == HttpStatus.OK)
+				winners++;
+		}
+		assertEquals(1, winners);
+		assertEquals(1, revokedTokenRepository.count());
+	}
+
+	@Test
+	void logoutRevokes() {
+		RefreshTokenService service = node(new LocalInvalidationBus());
+		String token = service.issue(patient.getEmail(), patient.getId(), "PATIENT").get("refreshToken");
+
+		assertEquals(HttpStatus.OK, service.revoke(token).getStatusCode());
+		assertEquals(HttpStatus.OK, service.revoke(token).getStatusCode());
+		assertEquals(HttpStatus.UNAUTHORIZED, service.refresh(token).getStatusCode());
+	}
+
+	@Test
+	void deletedUsersCannotRefresh() {
+		RefreshTokenService service = node(new LocalInvalidationBus());
+		String token = service.issue(patient.getEmail(), patient.getId(), "PATIENT").get("refreshToken");
+		patientRepository.deleteAll();
+
+		assertEquals(HttpStatus.UNAUTHORIZED, service.refresh(token).getStatusCode());
+	}
+
+	@Test
+	void softDeletedDoctorsCannotRefresh() {
+		RefreshTokenService service = node(new LocalInvalidationBus());
+		Doctor doctor = doctorRepository.save(DoctorPurgeServiceTests.doctor("doc@example.com"));
+		String token = service.issue(doctor.getEmail(), doctor.getId(), "DOCTOR").get("refreshToken");
+		doctorRepository.markDeleted(doctor.getId());
+
+		assertEquals(HttpStatus.UNAUTHORIZED, service.refresh(token).getStatusCode());
+	}
+
+	private RefreshTokenService node(InvalidationBus bus) {
+		RefreshTokenService service = new RefreshTokenService(tokens, revokedTokenRepository,
+				adminRepository, doctorRepository, patientRepository, bus);
+		ReflectionTestUtils.setField(service, "expectedRevocations", 1000L);
+		service.init();
+		return service;
+	}
+}
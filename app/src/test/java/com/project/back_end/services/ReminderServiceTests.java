@@ -0,0 +1,114 @@
+package com.project.back_end.services;
+
+import com.project.back_end.repo.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReminderServiceTests {
+
+	private static final Duration OFFSET = Duration.ofHours(1);
+
+	private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+	private final List<Reminder> sent = new CopyOnWriteArrayList<>();
+	private ReminderService reminderService;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		ObjectProvider<ReminderNotifier> notifiers = mock(ObjectProvider.class);
+		when(notifiers.orderedStream()).thenAnswer(call -> Stream.of((ReminderNotifier) sent::add));
+		reminderService = new ReminderService(appointmentRepository, new LocalInvalidationBus(), notifiers,
+				transactionManager, List.of(OFFSET), 10);
+		ReflectionTestUtils.setField(reminderService, "resyncMs", 600_000L);
+	}
+
+	@Test
+	void dueReminderIsSentWhileTheAppointmentStands() throws InterruptedException {
+		LocalDateTime time = dueSoon();
+		load(new Object[] { 7L, time });
+		when(appointmentRepository.findScheduledTimes(anyCollection()))
+				.thenReturn(rows(new Object[] { 7L, time }));
+
+		tickUntilDue();
+
+		assertEquals(List.of(new Reminder(null, 7L, time, OFFSET)), sent);
+		assertEquals(0, reminderService.pendingCount());
+	}
+
+	@Test
+	void lostCancellationIsCaughtBeforeSending() throws InterruptedException {
+		load(new Object[] { 7L, dueSoon() });
+		// cancelled, but its event never arrived
+		when(appointmentRepository.findScheduledTimes(anyCollection())).thenReturn(List.of());
+
+		tickUntilDue();
+
+		assertEquals(List.of(), sent);
+		assertEquals(0, reminderService.pendingCount());
+	}
+
+	@Test
+	void lostMoveReschedulesInsteadOfSending() throws InterruptedException {
+		load(new Object[] { 7L, dueSoon() });
+		LocalDateTime moved = LocalDateTime.now().plusDays(1);
+		when(appointmentRepository.findScheduledTimes(anyCollection()))
+				.thenReturn(rows(new Object[] { 7L, moved }));
+
+		tickUntilDue();
+
+		assertEquals(List.of(), sent);
+		assertEquals(1, reminderService.pendingCount());
+	}
+
+	@Test
+	void resyncPicksUpBookingsWhoseEventsWereLost() {
+		load();
+		LocalDateTime booked = LocalDateTime.now().plusHours(3);
+		when(appointmentRepository.streamScheduledBetween(any(), any()))
+				.thenAnswer(call -> Stream.<Object[]>of(new Object[] { 7L, booked }));
+
+		reminderService.resync();
+		assertEquals(1, reminderService.pendingCount());
+		// already known at the same time: left alone
+		reminderService.resync();
+		assertEquals(1, reminderService.pendingCount());
+	}
+
+	private void load(Object[]... appointments) {
+		when(appointmentRepository.streamScheduledAfter(any())).thenAnswer(call -> Stream.of(appointments));
+		reminderService.load();
+	}
+
+	/** An appointment whose reminder falls due a moment from now. */
+	private static LocalDateTime dueSoon() {
+		return LocalDateTime.now().plus(OFFSET).plusNanos(50_000_000);
+	}
+
+	private void tickUntilDue() throws InterruptedException {
+		Thread.sleep(100);
+		reminderService.tick();
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return new ArrayList<>(List.of(rows));
+	}
+}
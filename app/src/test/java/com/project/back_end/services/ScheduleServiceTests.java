@@ -0,0 +1,185 @@
+package com.project.back_end.services;
+
+import com.project.back_end.JpaSliceTest;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.WaitlistEntry;
+import com.project.back_end.models.WorkingHours;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorScheduleRepository;
+import com.project.back_end.repo.EtagGenerationRepository;
+import com.project.back_end.repo.OutboxEventRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.WaitlistEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@JpaSliceTest
+class ScheduleServiceTests {
+
+	@Autowired
+	private DoctorScheduleRepository scheduleRepository;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private PatientRepository patientRepository;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private WaitlistEntryRepository waitlistRepository;
+	@Autowired
+	private OutboxEventRepository outboxRepository;
+	@Autowired
+	private EtagGenerationRepository generationRepository;
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private final LocalDate day = LocalDate.now().plusDays(1);
+	private ScheduleService scheduleService;
+	private Patient patient;
+	// mornings 09:00-11:00, hourly
+	private Doctor jones;
+	// 09:00-10:00 and 14:00-15:00, half-hourly
+	private Doctor smith;
+
+	@BeforeEach
+	void setUp() {
+		scheduleService = new ScheduleService(scheduleRepository, doctorRepository, appointmentRepository,
+				waitlistRepository, new LocalInvalidationBus());
+		ReflectionTestUtils.setField(scheduleService, "defaultSlotMinutes", 60);
+		patient = patientRepository.save(EtagServiceTests.patient());
+		jones = doctorRepository.save(DoctorPurgeServiceTests.doctor("jones@example.com"));
+		smith = doctorRepository.save(DoctorPurgeServiceTests.doctor("smith@example.com"));
+		schedule(jones, 60, LocalTime.of(9, 0), LocalTime.of(11, 0));
+		schedule(smith, 30, LocalTime.of(9, 0), LocalTime.of(10, 0), LocalTime.of(14, 0), LocalTime.of(15, 0));
+
+		appointmentRepository.save(DoctorPurgeServiceTests.appointment(jones, patient, day.atTime(9, 0)));
+		WaitlistEntry held = new WaitlistEntry(patient.getId(), smith.getId(), day, day);
+		held.setStatus(WaitlistEntry.OFFERED);
+		held.setOfferedSlot(day.atTime(9, 30));
+		held.setOfferExpiresAt(LocalDateTime.now().plusMinutes(15));
+		waitlistRepository.save(held);
+	}
+
+	@AfterEach
+	void tearDown() {
+		waitlistRepository.deleteAll();
+		appointmentRepository.deleteAll();
+		scheduleRepository.deleteAll();
+		doctorRepository.deleteAll();
+		patientRepository.deleteAll();
+		outboxRepository.deleteAll();
+		generationRepository.deleteAll();
+	}
+
+	@Test
+	void slotsOfAllDoctorsMergeByTimeThenDoctor() {
+		List<FreeSlot> slots = scheduleService.earliestFree(List.of(smith, jones), day, day.plusDays(2), null, 6);
+
+		// Jones is booked at 09:00 and Smith's 09:30 is held for the waitlist
+		assertEquals(List.of(
+				new FreeSlot(smith.getId(), day.atTime(9, 0)),
+				new FreeSlot(jones.getId(), day.atTime(10, 0)),
+				new FreeSlot(smith.getId(), day.atTime(14, 0)),
+				new FreeSlot(smith.getId(), day.atTime(14, 30)),
+				// same time next day: the lower doctor id goes first
+				new FreeSlot(jones.getId(), day.plusDays(1).atTime(9, 0)),
+				new FreeSlot(smith.getId(), day.plusDays(1).atTime(9, 0))), slots);
+	}
+
+	@Test
+	void limitStopsWithinTheFirstDay() {
+		assertEquals(List.of(
+				new FreeSlot(smith.getId(), day.atTime(9, 0)),
+				new FreeSlot(jones.getId(), day.atTime(10, 0))),
+				scheduleService.earliestFree(List.of(jones, smith), day, day.plusDays(30), null, 2));
+		assertEquals(List.of(), scheduleService.earliestFree(List.of(jones, smith), day, day, null, 0));
+	}
+
+	@Test
+	void halfDayFiltersApplyPerSlot() {
+		assertEquals(List.of(
+				new FreeSlot(smith.getId(), day.atTime(9, 0)),
+				new FreeSlot(jones.getId(), day.atTime(10, 0)),
+				new FreeSlot(jones.getId(), day.plusDays(1).atTime(9, 0))),
+				scheduleService.earliestFree(List.of(jones, smith), day, day.plusDays(2), "AM", 3));
+		assertEquals(List.of(
+				new FreeSlot(smith.getId(), day.atTime(14, 0)),
+				new FreeSlot(smith.getId(), day.atTime(14, 30)),
+				new FreeSlot(smith.getId(), day.plusDays(1).atTime(14, 0))),
+				scheduleService.earliestFree(List.of(jones, smith), day, day.plusDays(2), "pm", 3));
+	}
+
+	@Test
+	void longAppointmentsRunIntoTheNextDay() {
+		Doctor night = doctorRepository.save(DoctorPurgeServiceTests.doctor("night@example.com"));
+		schedule(night, 60, LocalTime.of(0, 0), LocalTime.of(2, 0), LocalTime.of(22, 0), LocalTime.MIDNIGHT);
+		Appointment late = DoctorPurgeServiceTests.appointment(night, patient, day.plusDays(5).atTime(9, 0));
+		late.setDurationMinutes(120);
+		late = appointmentRepository.save(late);
+		// 23:00 the evening before the range, until 01:00
+		jdbc.update("UPDATE appointment SET appointment_time=? WHERE id=?", day.minusDays(1).atTime(23, 0),
+				late.getId());
+
+		assertEquals(List.of(
+				new FreeSlot(night.getId(), day.atTime(1, 0)),
+				new FreeSlot(night.getId(), day.atTime(22, 0)),
+				new FreeSlot(night.getId(), day.atTime(23, 0))),
+				scheduleService.earliestFree(List.of(night), day, day, null, 10));
+	}
+
+	@Test
+	void pastSlotsAreNeverReturned() {
+		LocalDateTime now = LocalDateTime.now();
+		List<FreeSlot> slots = scheduleService.earliestFree(List.of(jones, smith), day.minusDays(3), day, null, 50);
+
+		assertTrue(slots.stream().allMatch(slot -> slot.time().isAfter(now)));
+		assertTrue(slots.contains(new FreeSlot(jones.getId(), day.atTime(10, 0))));
+	}
+
+	@Test
+	void onlyTheRequestedDatesAreLaidOut() {
+		Map<LocalDate, List<LocalTime>> free = scheduleService.freeSlots(jones.getId(),
+				List.of(day.plusWeeks(4), day, day.plusWeeks(2)));
+
+		assertEquals(List.of(day, day.plusWeeks(2), day.plusWeeks(4)), List.copyOf(free.keySet()));
+		assertEquals(List.of(LocalTime.of(10, 0)), free.get(day));
+		assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(10, 0)), free.get(day.plusWeeks(2)));
+		assertEquals(free, scheduleService.freeSlots(jones.getId(), day, day.plusWeeks(4)).entrySet().stream()
+				.filter(e -> free.containsKey(e.getKey()))
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+	}
+
+	private void schedule(Doctor doctor, int slotMinutes, LocalTime... windows) {
+		DoctorSchedule schedule = new DoctorSchedule();
+		schedule.setDoctorId(doctor.getId());
+		schedule.setSlotMinutes(slotMinutes);
+		List<WorkingHours> hours = new ArrayList<>();
+		for (DayOfWeek weekday : DayOfWeek.values()) {
+			for (int i = 0; i < windows.length; i += 2) {
+				hours.add(new WorkingHours(weekday, windows[i], windows[i + 1]));
+			}
+		}
+		schedule.setWorkingHours(hours);
+		scheduleRepository.save(schedule);
+	}
+}
@@ -0,0 +1,90 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTests {
+
+	@Test
+	void concurrentCallersShareOneComputation() throws Exception {
+		SingleFlight<String, Integer> flight = new SingleFlight<>();
+		AtomicInteger calls = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<Integer> leader = pool.submit(() -> flight.execute("cardio", () -> {
+				calls.incrementAndGet();
+				started.countDown();
+				await(release);
+				return 42;
+			}));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			List<Integer> results = new CopyOnWriteArrayList<>();
+			List<Thread> followers = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				Thread t = new Thread(() -> results.add(flight.execute("cardio", calls::incrementAndGet)));
+				t.start();
+				followers.add(t);
+			}
+			// followers park on the leader's future
+			for (Thread t : followers) {
+				while (t.getState() != Thread.State.WAITING) {
+					Thread.sleep(1);
+				}
+			}
+			release.countDown();
+
+			assertEquals(42, leader.get(5, TimeUnit.SECONDS));
+			for (Thread t : followers) {
+				t.join(5000);
+			}
+			assertEquals(List.of(42, 42, 42), results);
+			assertEquals(1, calls.get());
+			assertEquals(0, flight.inFlightCount());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void nothingIsCachedAfterCompletion() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>();
+		AtomicInteger calls = new AtomicInteger();
+
+		assertEquals(1, flight.execute("k", calls::incrementAndGet));
+		assertEquals(2, flight.execute("k", calls::incrementAndGet));
+	}
+
+	@Test
+	void failureIsRethrownAndCleared() {
+		SingleFlight<String, Integer> flight = new SingleFlight<>();
+
+		assertThrows(IllegalStateException.class, () -> flight.execute("k", () -> {
+			throw new IllegalStateException("down");
+		}));
+		assertEquals(0, flight.inFlightCount());
+		assertEquals(7, flight.execute("k", () -> 7));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
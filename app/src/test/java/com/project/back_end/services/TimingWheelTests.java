@@ -0,0 +1,123 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTests {
+
+	@Test
+	void firesInDeadlineOrderOnTheTickAtOrAfterTheDeadline() {
+		TimingWheel<String> wheel = new TimingWheel<>(10, 1_000);
+		wheel.schedule(1_035, "b");
+		wheel.schedule(1_020, "a");
+		wheel.schedule(500, "overdue");
+		List<String> fired = new ArrayList<>();
+
+		wheel.advance(1_010, fired::add);
+		assertEquals(List.of("overdue"), fired);
+		wheel.advance(1_039, fired::add);
+		// 1035 rounds up to the tick at 1040
+		assertEquals(List.of("overdue", "a"), fired);
+		wheel.advance(1_040, fired::add);
+		assertEquals(List.of("overdue", "a", "b"), fired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void farTimeoutsCascadeDownAndFireOnTime() {
+		TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+		// one per level: within 64, 64^2, 64^3 and 64^4 ticks, and on level boundaries
+		long[] deadlines = { 5, 63, 64, 65, 4_000, 4_096, 4_097, 200_000, 262_144, 16_777_300 };
+		for (long deadline : deadlines) {
+			wheel.schedule(deadline, deadline);
+		}
+		List<Long> fired = new ArrayList<>();
+		long[] firedAt = new long[deadlines.length];
+		for (long now = 1; fired.size() < deadlines.length; now++) {
+			long at = now;
+			wheel.advance(now, deadline -> {
+				firedAt[fired.size()] = at;
+				fired.add(deadline);
+			});
+		}
+		for (int i = 0; i < deadlines.length; i++) {
+			assertEquals(deadlines[i], fired.get(i));
+			assertEquals(deadlines[i], firedAt[i]);
+		}
+	}
+
+	@Test
+	void cancelledTimeoutsNeverFire() {
+		TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+		TimingWheel.Timeout<String> near = wheel.schedule(10, "near");
+		TimingWheel.Timeout<String> far = wheel.schedule(10_000, "far");
+		TimingWheel.Timeout<String> kept = wheel.schedule(10_000, "kept");
+		List<String> fired = new ArrayList<>();
+
+		assertTrue(wheel.cancel(near));
+		assertFalse(wheel.cancel(near));
+		// far has cascaded to a finer level by now; cancelling still unlinks it
+		wheel.advance(9_990, fired::add);
+		assertTrue(far.isPending());
+		assertTrue(wheel.cancel(far));
+		assertEquals(1, wheel.size());
+
+		wheel.advance(10_000, fired::add);
+		assertEquals(List.of("kept"), fired);
+		assertFalse(kept.isPending());
+		assertFalse(wheel.cancel(kept));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void matchesASortedScheduleUnderRandomUse() {
+		Random random = new Random(11);
+		TimingWheel<Integer> wheel = new TimingWheel<>(1, 0);
+		Map<Integer, Long> expected = new HashMap<>();
+		Map<Integer, TimingWheel.Timeout<Integer>> timeouts = new HashMap<>();
+		Map<Integer, Long> actual = new HashMap<>();
+		long now = 0;
+		int next = 0;
+		while (now < 300_000) {
+			for (int i = random.nextInt(4); i > 0; i--) {
+				long deadline = now + 1 + random.nextInt(random.nextBoolean() ? 100 : 250_000);
+				expected.put(next, deadline);
+				timeouts.put(next, wheel.schedule(deadline, next));
+				next++;
+			}
+			if (!timeouts.isEmpty() && random.nextInt(3) == 0) {
+				Integer victim = timeouts.keySet().iterator().next();
+				if (wheel.cancel(timeouts.remove(victim)))
+					expected.remove(victim);
+			}
+			now += 1 + random.nextInt(500);
+			long at = now;
+			wheel.advance(now, id -> {
+				actual.put(id, at);
+				timeouts.remove(id);
+			});
+		}
+		long last = now;
+		long end = now + 250_000;
+		wheel.advance(end, id -> actual.put(id, end));
+		for (Map.Entry<Integer, Long> e : expected.entrySet()) {
+			long deadline = e.getValue();
+			Long firedAt = actual.get(e.getKey());
+			assertTrue(firedAt != null, "timeout " + e.getKey() + " never fired");
+			// by the first advance at or after its deadline
+			assertTrue(firedAt >= deadline && (firedAt - deadline < 500 || firedAt == end && deadline > last),
+					"timeout " + e.getKey() + " due " + deadline + " fired at " + firedAt);
+		}
+		assertEquals(expected.keySet(), actual.keySet());
+		assertEquals(0, wheel.size());
+	}
+}
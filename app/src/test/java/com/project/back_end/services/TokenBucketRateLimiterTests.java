@@ -0,0 +1,38 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTests {
+
+	@Test
+	void burstThenReject() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(64, 3, 0.001);
+
+		assertTrue(limiter.tryAcquire("10.0.0.1"));
+		assertTrue(limiter.tryAcquire("10.0.0.1"));
+		assertTrue(limiter.tryAcquire("10.0.0.1"));
+		assertFalse(limiter.tryAcquire("10.0.0.1"));
+	}
+
+	@Test
+	void clientsHaveTheirOwnBuckets() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(4096, 1, 0.001);
+
+		assertTrue(limiter.tryAcquire("10.0.0.1"));
+		assertFalse(limiter.tryAcquire("10.0.0.1"));
+		assertTrue(limiter.tryAcquire("10.0.0.2"));
+	}
+
+	@Test
+	void tokensRefillOverTime() throws InterruptedException {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(64, 1, 100);
+
+		assertTrue(limiter.tryAcquire("10.0.0.1"));
+		assertFalse(limiter.tryAcquire("10.0.0.1"));
+		Thread.sleep(50);
+		assertTrue(limiter.tryAcquire("10.0.0.1"));
+	}
+}
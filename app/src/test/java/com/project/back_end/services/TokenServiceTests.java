@@ -0,0 +1,104 @@
+package com.project.back_end.services;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenServiceTests {
+
+	private static final String SECRET = "test-secret-test-secret-test-secret-0123";
+
+	@Test
+	void accessTokensRoundTrip() {
+		TokenService tokens = tokenService("HS256", "", "");
+
+		String token = tokens.generateToken("pat@example.com", 42L, "patient");
+
+		assertTrue(tokens.validateToken(token, "PATIENT"));
+		assertFalse(tokens.validateToken(token, "doctor"));
+		assertEquals("pat@example.com", tokens.extractIdentifier(token));
+		assertEquals(42L, tokens.getUserIdFromToken(token));
+		assertNull(tokens.parseRefreshToken(token));
+	}
+
+	@Test
+	void refreshTokensAreNotAccessTokens() {
+		TokenService tokens = tokenService("HS256", "", "");
+
+		String refresh = tokens.generateRefreshToken("pat@example.com", 42L, "patient", 7L);
+
+		assertFalse(tokens.validateToken(refresh, "patient"));
+		Claims claims = tokens.parseRefreshToken(refresh);
+		assertNotNull(claims);
+		assertEquals("7", claims.getId());
+	}
+
+	@Test
+	void tamperedTokensAreRejected() {
+		TokenService tokens = tokenService("HS256", "", "");
+		String token = tokens.generateToken("pat@example.com", 42L, "patient");
+		String[] parts = token.split("\\.");
+		String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("{\"sub\":\"admin\",\"uid\":1,\"role\":\"admin\"}".getBytes()) + "." + parts[2];
+
+		assertFalse(tokens.validateToken(forged, "admin"));
+		assertNull(tokens.extractIdentifier(forged));
+
+		TokenService otherCluster = tokenService("HS256", "", "");
+		ReflectionTestUtils.setField(otherCluster, "jwtSecret", SECRET.replace('0', '9'));
+		ReflectionTestUtils.invokeMethod(otherCluster, "init");
+		assertFalse(otherCluster.validateToken(token, "patient"));
+	}
+
+	@Test
+	void verifyOnlyNodesCannotSign() throws Exception {
+		KeyPair pair = ecKeyPair();
+		String publicKey = Base64.getEncoder().encodeToString(pair.getPublic().getEncoded());
+		String privateKey = Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded());
+		TokenService signer = tokenService("ES256", privateKey, publicKey);
+		TokenService verifier = tokenService("ES256", "", publicKey);
+
+		String token = signer.generateToken("doc@example.com", 3L, "doctor");
+
+		assertTrue(verifier.validateToken(token, "doctor"));
+		assertNull(verifier.getSigningKey());
+		assertThrows(IllegalStateException.class, () -> verifier.generateToken("doc@example.com", 3L, "doctor"));
+	}
+
+	@Test
+	void privateKeyWithoutPublicKeyFailsFast() throws Exception {
+		String privateKey = Base64.getEncoder().encodeToString(ecKeyPair().getPrivate().getEncoded());
+
+		assertThrows(IllegalStateException.class, () -> tokenService("ES256", privateKey, ""));
+	}
+
+	static TokenService tokenService(String algorithm, String privateKey, String publicKey) {
+		TokenService tokens = new TokenService(null, null, null);
+		ReflectionTestUtils.setField(tokens, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(tokens, "algorithm", algorithm);
+		ReflectionTestUtils.setField(tokens, "privateKeyBase64", privateKey);
+		ReflectionTestUtils.setField(tokens, "publicKeyBase64", publicKey);
+		ReflectionTestUtils.setField(tokens, "accessTtlMinutes", 15L);
+		ReflectionTestUtils.setField(tokens, "refreshTtlDays", 30L);
+		ReflectionTestUtils.invokeMethod(tokens, "init");
+		return tokens;
+	}
+
+	private static KeyPair ecKeyPair() throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+		generator.initialize(new ECGenParameterSpec("secp256r1"));
+		return generator.generateKeyPair();
+	}
+}
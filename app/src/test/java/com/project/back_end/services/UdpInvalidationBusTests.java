@@ -0,0 +1,116 @@
+package com.project.back_end.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UdpInvalidationBusTests {
+
+	private static final byte[] SECRET = "bus-secret".getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	void eventsSurviveTheWireFormat() {
+		EntityChangeEvent event = new EntityChangeEvent(EntityChangeEvent.DOCTOR, 42L, "node-a");
+		assertEquals("DOCTOR|42|node-a", event.encode());
+		assertEquals(event, EntityChangeEvent.decode(event.encode()));
+
+		EntityChangeEvent all = new EntityChangeEvent(EntityChangeEvent.PATIENT, null, "node-a");
+		assertEquals("PATIENT||node-a", all.encode());
+		assertNull(EntityChangeEvent.decode(all.encode()).id());
+	}
+
+	@Test
+	void malformedDatagramsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> EntityChangeEvent.decode("DOCTOR|42"));
+		assertThrows(IllegalArgumentException.class, () -> EntityChangeEvent.decode("DOCTOR|x|node-a"));
+	}
+
+	@Test
+	void peersReceiveEventsAndSkipTheirOwn() throws Exception {
+		List<InetSocketAddress> peersOfA = new CopyOnWriteArrayList<>();
+		try (UdpInvalidationBus a = new UdpInvalidationBus(0, peersOfA, SECRET);
+				UdpInvalidationBus b = new UdpInvalidationBus(0,
+						List.of(new InetSocketAddress("127.0.0.1", a.getLocalPort())), SECRET)) {
+			peersOfA.add(new InetSocketAddress("127.0.0.1", b.getLocalPort()));
+			BlockingQueue<EntityChangeEvent> seenByA = new LinkedBlockingQueue<>();
+			BlockingQueue<EntityChangeEvent> seenByB = new LinkedBlockingQueue<>();
+			a.subscribe(seenByA::add);
+			b.subscribe(seenByB::add);
+
+			a.publish(EntityChangeEvent.APPOINTMENT, 7L);
+
+			// delivered locally right away, and to the peer over UDP
+			assertEquals(7L, seenByA.poll().id());
+			EntityChangeEvent remote = seenByB.poll(5, TimeUnit.SECONDS);
+			assertNotNull(remote);
+			assertEquals(EntityChangeEvent.APPOINTMENT, remote.entity());
+			assertEquals(7L, remote.id());
+			// b does not echo it back
+			assertNull(seenByA.poll(200, TimeUnit.MILLISECONDS));
+		}
+	}
+
+	@Test
+	void unsignedForgedAndStaleDatagramsAreDropped() throws Exception {
+		try (UdpInvalidationBus bus = new UdpInvalidationBus(0, List.of(), SECRET);
+				UdpInvalidationBus outsider = new UdpInvalidationBus(0, List.of(),
+						"guess".getBytes(StandardCharsets.UTF_8));
+				DatagramSocket sender = new DatagramSocket()) {
+			BlockingQueue<EntityChangeEvent> seen = new LinkedBlockingQueue<>();
+			bus.subscribe(seen::add);
+			String event = "TENANT_MOVE_STARTED|12|x";
+			String fresh = System.currentTimeMillis() + " " + event;
+			String stale = (System.currentTimeMillis() - UdpInvalidationBus.MAX_AGE_MS - 1000) + " " + event;
+
+			send(sender, bus, event);
+			send(sender, bus, outsider.sign(fresh) + " " + fresh);
+			send(sender, bus, bus.sign(stale) + " " + stale);
+			send(sender, bus, bus.sign(fresh) + " " + fresh.replace("|12|", "|13|"));
+
+			assertNull(seen.poll(500, TimeUnit.MILLISECONDS));
+			assertEquals(4, bus.getRejected());
+
+			send(sender, bus, bus.sign(fresh) + " " + fresh);
+			EntityChangeEvent accepted = seen.poll(5, TimeUnit.SECONDS);
+			assertNotNull(accepted);
+			assertEquals(12L, accepted.id());
+		}
+	}
+
+	@Test
+	void aSecretIsRequired() {
+		assertThrows(IllegalArgumentException.class, () -> new UdpInvalidationBus(0, List.of(), new byte[0]));
+	}
+
+	@Test
+	void failingListenerDoesNotStopTheOthers() {
+		LocalInvalidationBus bus = new LocalInvalidationBus();
+		BlockingQueue<EntityChangeEvent> seen = new LinkedBlockingQueue<>();
+		bus.subscribe(event -> {
+			throw new IllegalStateException("boom");
+		});
+		bus.subscribe(seen::add);
+
+		bus.publish(EntityChangeEvent.DOCTOR, 1L);
+
+		assertEquals(1, seen.size());
+	}
+
+	private static void send(DatagramSocket sender, UdpInvalidationBus to, String datagram) throws Exception {
+		byte[] data = datagram.getBytes(StandardCharsets.UTF_8);
+		sender.send(new DatagramPacket(data, data.length, new InetSocketAddress("127.0.0.1", to.getLocalPort())));
+	}
+}
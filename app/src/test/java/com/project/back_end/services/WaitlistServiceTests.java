@@ -0,0 +1,234 @@
+package com.project.back_end.services;
+
+import com.project.back_end.JpaSliceTest;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.WaitlistEntry;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.EtagGenerationRepository;
+import com.project.back_end.repo.OutboxEventRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.WaitlistEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@JpaSliceTest
+class WaitlistServiceTests {
+
+	@Autowired
+	private WaitlistEntryRepository waitlistRepository;
+	@Autowired
+	private AppointmentRepository appointmentRepository;
+	@Autowired
+	private DoctorRepository doctorRepository;
+	@Autowired
+	private PatientRepository patientRepository;
+	@Autowired
+	private OutboxEventRepository outboxRepository;
+	@Autowired
+	private EtagGenerationRepository generationRepository;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final List<Long> notified = new CopyOnWriteArrayList<>();
+	private final AppointmentService appointmentService = mock(AppointmentService.class);
+	private WaitlistService waitlistService;
+	private Doctor doctor;
+	private LocalDateTime slot;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		ObjectProvider<WaitlistNotifier> notifiers = mock(ObjectProvider.class);
+		when(notifiers.orderedStream()).thenAnswer(call -> Stream.of(
+				(WaitlistNotifier) entry -> notified.add(entry.getId())));
+		waitlistService = new WaitlistService(waitlistRepository, appointmentRepository, doctorRepository,
+				patientRepository, appointmentService, new LocalInvalidationBus(), notifiers,
+				transactionManager);
+		ReflectionTestUtils.setField(waitlistService, "holdMinutes", 15L);
+		doctor = doctorRepository.save(DoctorPurgeServiceTests.doctor("doc@example.com"));
+		slot = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.HOURS);
+	}
+
+	@AfterEach
+	void tearDown() {
+		waitlistService.shutdown();
+		waitlistRepository.deleteAll();
+		appointmentRepository.deleteAll();
+		doctorRepository.deleteAll();
+		patientRepository.deleteAll();
+		outboxRepository.deleteAll();
+		generationRepository.deleteAll();
+	}
+
+	@Test
+	void slotsGoByPriorityThenArrival() {
+		WaitlistEntry first = join(1L, 0, 30);
+		WaitlistEntry second = join(2L, 0, 20);
+		WaitlistEntry urgent = join(3L, 1, 10);
+
+		waitlistService.offerNext(doctor.getId(), slot, null);
+		waitlistService.offerNext(doctor.getId(), slot.plusHours(1), null);
+		waitlistService.offerNext(doctor.getId(), slot.plusHours(2), null);
+
+		assertEquals(slot, reload(urgent).getOfferedSlot());
+		assertEquals(slot.plusHours(1), reload(first).getOfferedSlot());
+		assertEquals(slot.plusHours(2), reload(second).getOfferedSlot());
+		assertEquals(List.of(urgent.getId(), first.getId(), second.getId()), notified);
+	}
+
+	@Test
+	void entriesOutsideTheSlotsDayAreSkipped() {
+		WaitlistEntry elsewhere = waitlistRepository.save(new WaitlistEntry(1L, doctor.getId(),
+				slot.toLocalDate().plusDays(1), slot.toLocalDate().plusDays(3)));
+		WaitlistEntry covering = join(2L, 0, 10);
+
+		waitlistService.offerNext(doctor.getId(), slot, null);
+
+		assertEquals(WaitlistEntry.WAITING, reload(elsewhere).getStatus());
+		assertEquals(WaitlistEntry.OFFERED, reload(covering).getStatus());
+	}
+
+	@Test
+	void expiredOfferMovesToTheNextEntry() {
+		WaitlistEntry first = join(1L, 0, 30);
+		WaitlistEntry second = join(2L, 0, 20);
+		waitlistService.offerNext(doctor.getId(), slot, null);
+		WaitlistEntry offered = reload(first);
+		offered.setOfferExpiresAt(LocalDateTime.now().minusMinutes(1));
+		waitlistRepository.save(offered);
+
+		waitlistService.sweep();
+
+		WaitlistEntry expired = reload(first);
+		assertEquals(WaitlistEntry.WAITING, expired.getStatus());
+		assertNull(expired.getOfferedSlot());
+		assertEquals(WaitlistEntry.OFFERED, reload(second).getStatus());
+		assertEquals(slot, reload(second).getOfferedSlot());
+		assertEquals(List.of(first.getId(), second.getId()), notified);
+
+		// the lapsed patient rejoined the queue, so the slot comes back to
+		// them when the second offer runs out too
+		WaitlistEntry handedOff = reload(second);
+		handedOff.setOfferExpiresAt(LocalDateTime.now().minusMinutes(1));
+		waitlistRepository.save(handedOff);
+		waitlistService.sweep();
+		assertEquals(slot, reload(first).getOfferedSlot());
+		assertEquals(WaitlistEntry.WAITING, reload(second).getStatus());
+	}
+
+	@Test
+	void heldSlotIsNotOfferedTwice() {
+		WaitlistEntry first = join(1L, 0, 30);
+		WaitlistEntry second = join(2L, 0, 20);
+
+		waitlistService.offerNext(doctor.getId(), slot, null);
+		waitlistService.offerNext(doctor.getId(), slot, null);
+
+		assertEquals(WaitlistEntry.OFFERED, reload(first).getStatus());
+		assertEquals(WaitlistEntry.WAITING, reload(second).getStatus());
+		assertEquals(1, notified.size());
+	}
+
+	@Test
+	void concurrentOffersHoldTheSlotOnce() throws Exception {
+		for (long patient = 1; patient <= 4; patient++) {
+			join(patient, 0, 60 - (int) patient);
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> sweeps = Stream.<Future<?>>generate(() -> pool.submit(() -> {
+				start.await();
+				waitlistService.offerNext(doctor.getId(), slot, null);
+				return null;
+			})).limit(4).toList();
+			start.countDown();
+			for (Future<?> sweep : sweeps) {
+				sweep.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		long offers = waitlistRepository.findAll().stream()
+				.filter(entry -> WaitlistEntry.OFFERED.equals(entry.getStatus()))
+				.count();
+		assertEquals(1, offers);
+		assertEquals(1, notified.size());
+	}
+
+	@Test
+	void failedBookingIsReportedAndKeepsTheOffer() {
+		Patient patient = patientRepository.save(EtagServiceTests.patient());
+		WaitlistEntry entry = join(patient.getId(), 0, 10);
+		waitlistService.offerNext(doctor.getId(), slot, null);
+		// the insert fails inside the repository, which marks the shared transaction rollback-only
+		doAnswer(call -> {
+			Appointment appointment = call.getArgument(0);
+			appointment.setAppointmentTime(LocalDateTime.now().minusDays(1));
+			return appointmentRepository.save(appointment);
+		}).when(appointmentService).book(any());
+
+		ResponseEntity<Map<String, String>> resp = waitlistService.accept(entry.getId(), patient.getId());
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, resp.getStatusCode());
+		assertEquals("Failed to book the offered slot", resp.getBody().get("error"));
+		assertEquals(WaitlistEntry.OFFERED, reload(entry).getStatus());
+		assertEquals(0, appointmentRepository.count());
+	}
+
+	@Test
+	void acceptedOfferIsBooked() {
+		Patient patient = patientRepository.save(EtagServiceTests.patient());
+		WaitlistEntry entry = join(patient.getId(), 0, 10);
+		waitlistService.offerNext(doctor.getId(), slot, null);
+
+		ResponseEntity<Map<String, String>> resp = waitlistService.accept(entry.getId(), patient.getId());
+
+		assertEquals(HttpStatus.OK, resp.getStatusCode());
+		assertEquals(WaitlistEntry.BOOKED, reload(entry).getStatus());
+		verify(appointmentService).book(any());
+	}
+
+	private WaitlistEntry join(Long patientId, int priority, int minutesAgo) {
+		LocalDate day = slot.toLocalDate();
+		WaitlistEntry entry = new WaitlistEntry(patientId, doctor.getId(), day.minusDays(1), day.plusDays(1));
+		entry.setPriority(priority);
+		entry.setCreatedAt(LocalDateTime.now().minusMinutes(minutesAgo));
+		return waitlistRepository.save(entry);
+	}
+
+	private WaitlistEntry reload(WaitlistEntry entry) {
+		return waitlistRepository.findById(entry.getId()).orElseThrow();
+	}
+}